@@ -0,0 +1,64 @@
+package com.rublon.sdk.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Entry point of the benchmarks.jar.
+ * <p>
+ * Accepts the standard JMH command line and runs the benchmarks with
+ * the GC profiler, so each result reports the allocation rate per operation
+ * ("gc.alloc.rate.norm"). Pass "-Drublon.bench.gc=false" to run without it.
+ *
+ * @author Rublon Developers
+ */
+public final class BenchmarkRunner {
+
+	/**
+	 * Name of the system property disabling the GC profiler.
+	 */
+	public static final String PROPERTY_GC = "rublon.bench.gc";
+
+	private BenchmarkRunner() {
+	}
+
+	/**
+	 * Run the benchmarks.
+	 *
+	 * @param args JMH command line.
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions cli = new CommandLineOptions(args);
+		if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams()
+				|| cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+		if (!"false".equals(System.getProperty(PROPERTY_GC)) && !hasGCProfiler(cli)) {
+			options.addProfiler(GCProfiler.class);
+		}
+		new Runner(options.build()).run();
+	}
+
+	/**
+	 * Check whether the GC profiler is already requested on the command line.
+	 *
+	 * @param cli Command line options.
+	 */
+	private static boolean hasGCProfiler(CommandLineOptions cli) {
+		for (ProfilerConfig profiler : cli.getProfilers()) {
+			if (profiler.getKlass().equals(GCProfiler.class.getName()) || profiler.getKlass().equals("gc")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
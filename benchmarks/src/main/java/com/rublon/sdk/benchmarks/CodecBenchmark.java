@@ -0,0 +1,68 @@
+package com.rublon.sdk.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rublon.sdk.core.Codec;
+import com.rublon.sdk.core.HmacSigner;
+import com.rublon.sdk.core.rest.RESTClient;
+
+/**
+ * Benchmarks of the HMAC signatures.
+ * <p>
+ * The "new" variants create the signer on every call, as the SDK did
+ * before the signers were cached.
+ *
+ * @author Rublon Developers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+	private byte[] responseBytes;
+
+	private String signature;
+
+	@Setup
+	public void setup() {
+		responseBytes = Fixtures.CREDENTIALS_RESPONSE.getBytes(StandardCharsets.UTF_8);
+		signature = Fixtures.sign(Fixtures.CREDENTIALS_RESPONSE);
+	}
+
+	@Benchmark
+	public String hmac() {
+		return Codec.hmac(RESTClient.SIGNATURE_HASH_METHOD, Fixtures.SECRET_KEY, Fixtures.CREDENTIALS_RESPONSE);
+	}
+
+	@Benchmark
+	public byte[] signerCached() throws GeneralSecurityException {
+		return HmacSigner.getInstance(RESTClient.SIGNATURE_HASH_METHOD, Fixtures.SECRET_KEY).sign(responseBytes);
+	}
+
+	@Benchmark
+	public byte[] signerNew() throws GeneralSecurityException {
+		return new HmacSigner(RESTClient.SIGNATURE_HASH_METHOD, Fixtures.SECRET_KEY).sign(responseBytes);
+	}
+
+	@Benchmark
+	public boolean hmacVerify() {
+		return Codec.hmac_verify(RESTClient.SIGNATURE_HASH_METHOD, Fixtures.SECRET_KEY, responseBytes, signature);
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.rublon.sdk.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rublon.sdk.core.exception.APIException;
+import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.rest.ApacheTransportProvider;
+import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.TransportProvider;
+import com.rublon.sdk.stub.RublonStub;
+import com.rublon.sdk.twofactor.Rublon;
+import com.rublon.sdk.twofactor.api.Credentials;
+
+/**
+ * End-to-end benchmarks of the API calls against the in-process stub.
+ * <p>
+ * Each operation signs the request, sends it over a pooled loopback
+ * connection, and validates the signed response. The "jdk" transport
+ * requires Java 11 or newer.
+ *
+ * @author Rublon Developers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class EndToEndBenchmark {
+
+	/**
+	 * Transport provider name.
+	 */
+	@Param({ApacheTransportProvider.NAME, "jdk"})
+	public String transport;
+
+	private RublonStub server;
+
+	private RESTClient client;
+
+	private Rublon rublon;
+
+	@Setup
+	public void setup() throws IOException {
+		server = new RublonStub(Fixtures.SECRET_KEY).start();
+		System.setProperty(TransportProvider.PROPERTY_TRANSPORT, transport);
+		client = new RESTClient(Fixtures.SECRET_KEY);
+		rublon = new Rublon(Fixtures.SYSTEM_TOKEN, Fixtures.SECRET_KEY, server.getUrl(), client);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		client.close();
+		server.close();
+	}
+
+	@Benchmark
+	public String auth() throws APIException, RublonException {
+		return rublon.auth(Fixtures.CALLBACK_URL, Fixtures.USER_NAME, Fixtures.USER_EMAIL);
+	}
+
+	@Benchmark
+	public Credentials getCredentials() throws RublonException {
+		return rublon.getCredentials(Fixtures.ACCESS_TOKEN);
+	}
+
+	@Benchmark
+	public String authAsync() {
+		return rublon.authAsync(Fixtures.CALLBACK_URL, Fixtures.USER_NAME, Fixtures.USER_EMAIL).join();
+	}
+
+}
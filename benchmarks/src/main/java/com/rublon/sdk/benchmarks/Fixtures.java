@@ -0,0 +1,159 @@
+package com.rublon.sdk.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+
+import com.rublon.sdk.core.Codec;
+import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.RESTResponse;
+
+/**
+ * Shared data of the benchmarks.
+ * <p>
+ * Payloads have the shape and size of the real API messages.
+ *
+ * @author Rublon Developers
+ */
+final class Fixtures {
+
+	/**
+	 * Keystore of the HTTPS stub, also used as the clients' trust store.
+	 */
+	static final String KEYSTORE = "stub-keystore.p12";
+
+	/**
+	 * Password of the keystore.
+	 */
+	static final String KEYSTORE_PASSWORD = "changeit";
+
+	/**
+	 * System token.
+	 */
+	static final String SYSTEM_TOKEN = "1A2B3C4D5E6F7A8B9C0D1E2F3A4B5C6D";
+
+	/**
+	 * Secret key.
+	 */
+	static final String SECRET_KEY = "bq4m9ZrZTf6PnuBC4q2Wy5Xs3dVaE8gK7hJtLkN1pRsTuVwXyZ2a3b4c5d6e7f8g";
+
+	/**
+	 * Access token of the credentials request.
+	 */
+	static final String ACCESS_TOKEN = "a1b2c3d4e5f6a7b8c9d0e1f2a3b4c5d6e7f8a9b0c1d2e3f4a5b6c7d8e9f0";
+
+	/**
+	 * Callback URL of the transaction.
+	 */
+	static final String CALLBACK_URL = "https://app.example.com/rublon/callback";
+
+	/**
+	 * User name.
+	 */
+	static final String USER_NAME = "john.doe";
+
+	/**
+	 * User email.
+	 */
+	static final String USER_EMAIL = "John.Doe@example.com";
+
+	/**
+	 * Response body of transaction/init.
+	 */
+	static final String INIT_RESPONSE = "{\"status\":\"OK\",\"result\":{\"webURI\":"
+			+ "\"https://core.rublon.net/transaction/a1b2c3d4e5f6a7b8c9d0e1f2a3b4c5d6e7f8a9b0c1d2e3f4a5b6c7d8e9f0\"}}";
+
+	/**
+	 * Response body of transaction/credentials.
+	 */
+	static final String CREDENTIALS_RESPONSE = "{\"status\":\"OK\",\"result\":{\"username\":\"john.doe\","
+			+ "\"appId\":\"1A2B3C4D5E6F7A8B9C0D1E2F3A4B5C6D\",\"deviceId\":\"7311\",\"answer\":\"true\","
+			+ "\"userId\":\"8a9b0c1d2e3f4a5b6c7d8e9f0a1b2c3d\"}}";
+
+	/**
+	 * Response body of app/init.
+	 */
+	static final String APP_INIT_RESPONSE = "{\"status\":\"OK\",\"result\":{\"appName\":\"Benchmark\","
+			+ "\"bypass\":false,\"requiredMethods\":[\"push\",\"totp\"]}}";
+
+	/**
+	 * Error response body.
+	 */
+	static final String ERROR_RESPONSE = "{\"status\":\"ERROR\",\"code\":400,\"result\":{\"exception\":"
+			+ "\"UserNotFoundException\",\"errorMessage\":\"User not found: john.doe\",\"details\":null}}";
+
+	private Fixtures() {
+	}
+
+	/**
+	 * Create the response signed the same way as by the API.
+	 *
+	 * @param statusCode HTTP status code.
+	 * @param body Response body.
+	 */
+	static RESTResponse signedResponse(int statusCode, String body) {
+		Map<String, String> headers = new HashMap<String, String>();
+		headers.put("Content-Type", "application/json");
+		headers.put(RESTClient.HEADER_NAME_SIGNATURE, sign(body));
+		return new RESTResponse(statusCode, (statusCode == 200 ? "OK" : "Bad Request"), headers,
+				body.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Sign the body by the secret key.
+	 *
+	 * @param body
+	 * @return Hex encoded signature.
+	 */
+	static String sign(String body) {
+		return Codec.hmac(RESTClient.SIGNATURE_HASH_METHOD, SECRET_KEY, body);
+	}
+
+	/**
+	 * Create the SSL context of the HTTPS stub.
+	 *
+	 * @throws IOException When the keystore cannot be loaded.
+	 */
+	static SSLContext createSSLContext() throws IOException {
+		try (InputStream input = Fixtures.class.getClassLoader().getResourceAsStream(KEYSTORE)) {
+			KeyStore keyStore = KeyStore.getInstance("PKCS12");
+			keyStore.load(input, KEYSTORE_PASSWORD.toCharArray());
+			KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+			keyManagers.init(keyStore, KEYSTORE_PASSWORD.toCharArray());
+			SSLContext context = SSLContext.getInstance("TLS");
+			context.init(keyManagers.getKeyManagers(), null, null);
+			return context;
+		} catch (GeneralSecurityException e) {
+			throw new IOException("Cannot load the stub keystore.", e);
+		}
+	}
+
+	/**
+	 * Make the stub certificate trusted by the default SSL context.
+	 * <p>
+	 * Must be called before the default SSL context is first used.
+	 *
+	 * @throws IOException When the keystore cannot be extracted.
+	 */
+	static void trustStub() throws IOException {
+		Path trustStore = Files.createTempFile("rublon-stub", ".p12");
+		trustStore.toFile().deleteOnExit();
+		try (InputStream input = Fixtures.class.getClassLoader().getResourceAsStream(KEYSTORE)) {
+			Files.copy(input, trustStore, StandardCopyOption.REPLACE_EXISTING);
+		}
+		System.setProperty("javax.net.ssl.trustStore", trustStore.toString());
+		System.setProperty("javax.net.ssl.trustStorePassword", KEYSTORE_PASSWORD);
+		System.setProperty("javax.net.ssl.trustStoreType", "PKCS12");
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.rublon.sdk.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.rest.ApacheTransport;
+import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.stub.RublonStub;
+import com.rublon.sdk.twofactor.Rublon;
+import com.rublon.sdk.twofactor.api.Credentials;
+
+/**
+ * Benchmark of the HTTPS calls with and without the connection reuse.
+ * <p>
+ * Without the reuse every call pays the TCP and TLS handshakes,
+ * as after an idle pool or a cold start.
+ *
+ * @author Rublon Developers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandshakeBenchmark {
+
+	/**
+	 * Whether the pooled connections are reused.
+	 */
+	@Param({"true", "false"})
+	public boolean reuse;
+
+	private RublonStub server;
+
+	private RESTClient client;
+
+	private Rublon rublon;
+
+	@Setup
+	public void setup() throws IOException {
+		Fixtures.trustStub();
+		server = new RublonStub(Fixtures.SECRET_KEY).setSSLContext(Fixtures.createSSLContext()).start();
+		client = new RESTClient(Fixtures.SECRET_KEY, new ApacheTransport());
+		rublon = new Rublon(Fixtures.SYSTEM_TOKEN, Fixtures.SECRET_KEY, server.getUrl(), client);
+	}
+
+	/**
+	 * Drop the pooled connections before the call.
+	 */
+	@Setup(Level.Invocation)
+	public void closeConnections() {
+		if (!reuse) {
+			((ApacheTransport) client.getTransport()).getConnectionManager().closeIdleConnections(0, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		client.close();
+		server.close();
+	}
+
+	@Benchmark
+	public Credentials getCredentials() throws RublonException {
+		return rublon.getCredentials(Fixtures.ACCESS_TOKEN);
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.rublon.sdk.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rublon.sdk.core.APIResponse;
+import com.rublon.sdk.core.JacksonJsonCodec;
+import com.rublon.sdk.core.JsonCodec;
+import com.rublon.sdk.core.OrgJsonCodec;
+import com.rublon.sdk.core.rest.RESTResponse;
+
+/**
+ * Benchmarks of the JSON codecs and of the on-demand response field scan.
+ *
+ * @author Rublon Developers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+	/**
+	 * JSON codec.
+	 */
+	@Param({OrgJsonCodec.NAME, JacksonJsonCodec.NAME})
+	public String codec;
+
+	private JsonCodec jsonCodec;
+
+	private byte[] responseBytes;
+
+	private JSONObject responseObject;
+
+	private RESTResponse response;
+
+	@Setup
+	public void setup() {
+		jsonCodec = (JacksonJsonCodec.NAME.equals(codec) ? new JacksonJsonCodec() : new OrgJsonCodec());
+		responseBytes = Fixtures.CREDENTIALS_RESPONSE.getBytes(StandardCharsets.UTF_8);
+		responseObject = jsonCodec.decode(responseBytes);
+		response = Fixtures.signedResponse(200, Fixtures.CREDENTIALS_RESPONSE);
+	}
+
+	@Benchmark
+	public JSONObject decode() {
+		return jsonCodec.decode(responseBytes);
+	}
+
+	@Benchmark
+	public String encode() {
+		return jsonCodec.encode(responseObject);
+	}
+
+	/**
+	 * Whole response tree, as built before the fields were scanned on demand.
+	 */
+	@Benchmark
+	public String resultFieldDecoded() {
+		return jsonCodec.decode(responseBytes).getJSONObject("result").getString("username");
+	}
+
+	@Benchmark
+	public String resultFieldScanned() {
+		return APIResponse.parse(response).getResultString("username");
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.rublon.sdk.benchmarks;
+
+import com.rublon.sdk.core.exception.APIException;
+import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.RESTResponse;
+import com.rublon.sdk.twofactor.Rublon;
+import com.rublon.sdk.twofactor.api.BeginTransaction;
+import com.rublon.sdk.twofactor.api.CheckApplication;
+import com.rublon.sdk.twofactor.api.Credentials;
+
+/**
+ * API methods exposing the request building and response validation to the benchmarks.
+ *
+ * @author Rublon Developers
+ */
+final class Methods {
+
+	private Methods() {
+	}
+
+	/**
+	 * The transaction/init method.
+	 */
+	static final class InitMethod extends BeginTransaction {
+
+		InitMethod(Rublon rublon, RESTClient client) {
+			super(rublon, Fixtures.CALLBACK_URL, Fixtures.USER_NAME, Fixtures.USER_EMAIL, null, client);
+		}
+
+		byte[] postBody() {
+			return getPostBody();
+		}
+
+		InitMethod validate(RESTResponse response) throws APIException {
+			restResponse = response;
+			validateResponse();
+			return this;
+		}
+
+	}
+
+	/**
+	 * The transaction/credentials method.
+	 */
+	static final class CredentialsMethod extends Credentials {
+
+		CredentialsMethod(Rublon rublon, RESTClient client) throws RublonException {
+			super(rublon, Fixtures.ACCESS_TOKEN, client);
+		}
+
+		byte[] postBody() {
+			return getPostBody();
+		}
+
+		CredentialsMethod validate(RESTResponse response) throws APIException {
+			restResponse = response;
+			validateResponse();
+			return this;
+		}
+
+	}
+
+	/**
+	 * The app/init method.
+	 */
+	static final class AppInitMethod extends CheckApplication {
+
+		AppInitMethod(Rublon rublon, RESTClient client) {
+			super(rublon, client, "1.0.0");
+		}
+
+		byte[] postBody() {
+			return getPostBody();
+		}
+
+	}
+
+}
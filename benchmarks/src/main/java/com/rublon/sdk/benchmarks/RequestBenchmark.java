@@ -0,0 +1,75 @@
+package com.rublon.sdk.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.twofactor.Rublon;
+
+/**
+ * Benchmarks of the request body builders.
+ * <p>
+ * Each operation builds the method's parameters and serializes them
+ * into the request body, as done before every request.
+ *
+ * @author Rublon Developers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBenchmark {
+
+	private RESTClient client;
+
+	private Methods.InitMethod init;
+
+	private Methods.CredentialsMethod credentials;
+
+	private Methods.AppInitMethod appInit;
+
+	@Setup
+	public void setup() throws RublonException {
+		client = new RESTClient(Fixtures.SECRET_KEY);
+		Rublon rublon = new Rublon(Fixtures.SYSTEM_TOKEN, Fixtures.SECRET_KEY, "http://127.0.0.1:1", client);
+		init = new Methods.InitMethod(rublon, client);
+		credentials = new Methods.CredentialsMethod(rublon, client);
+		appInit = new Methods.AppInitMethod(rublon, client);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		client.close();
+	}
+
+	@Benchmark
+	public byte[] transactionInit() {
+		return init.postBody();
+	}
+
+	@Benchmark
+	public byte[] transactionCredentials() {
+		return credentials.postBody();
+	}
+
+	@Benchmark
+	public byte[] appInit() {
+		return appInit.postBody();
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.rublon.sdk.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rublon.sdk.core.APIResponse;
+import com.rublon.sdk.core.exception.APIException;
+import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.RESTResponse;
+import com.rublon.sdk.twofactor.Rublon;
+
+/**
+ * Benchmarks of the response validation.
+ * <p>
+ * Validation covers the parsing, the status check and the signature
+ * verification of a response already read from the network.
+ *
+ * @author Rublon Developers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBenchmark {
+
+	private RESTClient client;
+
+	private Methods.InitMethod init;
+
+	private Methods.CredentialsMethod credentials;
+
+	private RESTResponse initResponse;
+
+	private RESTResponse credentialsResponse;
+
+	private RESTResponse errorResponse;
+
+	@Setup
+	public void setup() throws RublonException {
+		client = new RESTClient(Fixtures.SECRET_KEY);
+		Rublon rublon = new Rublon(Fixtures.SYSTEM_TOKEN, Fixtures.SECRET_KEY, "http://127.0.0.1:1", client);
+		init = new Methods.InitMethod(rublon, client);
+		credentials = new Methods.CredentialsMethod(rublon, client);
+		initResponse = Fixtures.signedResponse(200, Fixtures.INIT_RESPONSE);
+		credentialsResponse = Fixtures.signedResponse(200, Fixtures.CREDENTIALS_RESPONSE);
+		errorResponse = Fixtures.signedResponse(400, Fixtures.ERROR_RESPONSE);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		client.close();
+	}
+
+	@Benchmark
+	public Object validateInit() throws APIException {
+		return init.validate(initResponse);
+	}
+
+	@Benchmark
+	public Object validateCredentials() throws APIException {
+		return credentials.validate(credentialsResponse);
+	}
+
+	/**
+	 * Error response, validated until the API exception is thrown.
+	 */
+	@Benchmark
+	public Object validateError() {
+		try {
+			return credentials.validate(errorResponse);
+		} catch (APIException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public APIException exceptionFactory() {
+		return APIException.factory(errorResponse);
+	}
+
+	@Benchmark
+	public APIResponse parse() {
+		return APIResponse.parse(credentialsResponse);
+	}
+
+}
@@ -0,0 +1,87 @@
+package com.rublon.sdk.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.rublon.sdk.core.exception.RublonSignatureException;
+import com.rublon.sdk.core.message.RublonMessage;
+import com.rublon.sdk.core.message.RublonSignature;
+
+/**
+ * Benchmarks of the signed messages.
+ *
+ * @author Rublon Developers
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureBenchmark {
+
+	private String dataSignature;
+
+	private String rawMessage;
+
+	private String rawSignedMessage;
+
+	/**
+	 * Messages are signed once per trial, well within the message lifetime.
+	 */
+	@Setup
+	public void setup() {
+		JSONObject signed = new RublonSignature(Fixtures.SECRET_KEY)
+				.setMessage(new RublonMessage().setBody(Fixtures.CREDENTIALS_RESPONSE))
+				.getJSONObject();
+		rawMessage = signed.getString(RublonSignature.FIELD_DATA);
+		dataSignature = signed.getString(RublonSignature.FIELD_SIGNATURE);
+		rawSignedMessage = signed.toString();
+	}
+
+	@Benchmark
+	public String sign() {
+		return RublonSignature.sign(rawMessage, Fixtures.SECRET_KEY);
+	}
+
+	@Benchmark
+	public boolean verifyData() {
+		return RublonSignature.verifyData(rawMessage, Fixtures.SECRET_KEY, dataSignature);
+	}
+
+	@Benchmark
+	public RublonMessage parse() throws RublonMessage.InvalidMessageException, RublonSignatureException,
+			RublonMessage.InvalidMessageTimeException {
+		return new RublonSignature(Fixtures.SECRET_KEY).parse(rawSignedMessage).getMessage();
+	}
+
+	@Benchmark
+	public String signMessage() {
+		return new RublonSignature(Fixtures.SECRET_KEY)
+				.setMessage(new RublonMessage().setBody(Fixtures.CREDENTIALS_RESPONSE))
+				.toString();
+	}
+
+	@Benchmark
+	public String messageBuild() {
+		return new RublonMessage().setBody(Fixtures.CREDENTIALS_RESPONSE).toString();
+	}
+
+	@Benchmark
+	public RublonMessage messageParse() throws RublonMessage.InvalidMessageException,
+			RublonMessage.InvalidMessageTimeException {
+		return new RublonMessage(rawMessage);
+	}
+
+}
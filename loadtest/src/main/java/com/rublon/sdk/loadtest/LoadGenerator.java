@@ -0,0 +1,355 @@
+package com.rublon.sdk.loadtest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.twofactor.Rublon;
+
+/**
+ * Load generator class.
+ * <p>
+ * Drives the auth() + getCredentials() flows of a single Rublon instance with given
+ * concurrency. With a target rate every flow has its intended start time and its latency
+ * is measured from it, so a stalled flow is charged for the flows it delayed. In a closed
+ * loop the flows start back to back and have no intended start, so only their service
+ * times are measured. They are not corrected for the coordinated omission: an interval
+ * taken from the measured data would inflate the tail with made-up samples.
+ *
+ * @author Rublon Developers
+ */
+final class LoadGenerator {
+
+	/**
+	 * Callback URL of the transactions.
+	 */
+	static final String CALLBACK_URL = "https://app.example.com/rublon/callback";
+
+	/**
+	 * User name of the transactions.
+	 */
+	static final String USER_NAME = "john.doe";
+
+	/**
+	 * User email of the transactions.
+	 */
+	static final String USER_EMAIL = "John.Doe@example.com";
+
+	/**
+	 * Access token of the credentials requests.
+	 */
+	static final String ACCESS_TOKEN = "a1b2c3d4e5f6a7b8c9d0e1f2a3b4c5d6e7f8a9b0c1d2e3f4a5b6c7d8e9f0";
+
+	/**
+	 * Time in seconds the flows may take to finish after the step.
+	 */
+	private static final long DRAIN_TIMEOUT = 60;
+
+	/**
+	 * Rublon instance under load.
+	 */
+	private final Rublon rublon;
+
+	/**
+	 * Load test options.
+	 */
+	private final LoadOptions options;
+
+	/**
+	 * Create the generator.
+	 *
+	 * @param rublon Rublon instance under load.
+	 * @param options Load test options.
+	 */
+	LoadGenerator(Rublon rublon, LoadOptions options) {
+		this.rublon = rublon;
+		this.options = options;
+	}
+
+	/**
+	 * Run the step: warm up, then measure.
+	 *
+	 * @param mode Concurrency model.
+	 * @param concurrency Concurrent flows.
+	 * @return Step result.
+	 * @throws InterruptedException
+	 */
+	StepResult run(LoadMode mode, int concurrency) throws InterruptedException {
+		Step step = new Step(concurrency);
+		if (mode == LoadMode.ASYNC) {
+			runAsync(step);
+		} else {
+			runBlocking(step, mode.createExecutor(concurrency));
+		}
+		Histogram latency = (step.interval > 0 ? step.latency.copy() : null);
+		return new StepResult(mode, concurrency, latency, step.serviceTime.copy(), step.errors.sum(),
+				step.completed.sum() / options.getDuration());
+	}
+
+	/**
+	 * Run the step on blocking flows, one executor thread per flow.
+	 *
+	 * @param step Step schedule and measurements.
+	 * @param executor Executor with the concurrency threads.
+	 * @throws InterruptedException
+	 */
+	private void runBlocking(Step step, ExecutorService executor) throws InterruptedException {
+		for (int i = 0; i < step.concurrency; i++) {
+			long first = step.start + step.interval * i / step.concurrency;
+			executor.execute(() -> runFlows(step, first));
+		}
+		executor.shutdown();
+		if (!executor.awaitTermination(step.getRemainingSeconds() + DRAIN_TIMEOUT, TimeUnit.SECONDS)) {
+			executor.shutdownNow();
+			throw new IllegalStateException("Flows did not finish in time.");
+		}
+	}
+
+	/**
+	 * Run the flows of one thread until the step ends.
+	 *
+	 * @param step Step schedule and measurements.
+	 * @param first Intended start of the first flow.
+	 */
+	private void runFlows(Step step, long first) {
+		long intended = first;
+		while (true) {
+			if (step.interval > 0) {
+				if (intended - step.end >= 0) {
+					return;
+				}
+				sleepUntil(intended);
+			} else {
+				intended = System.nanoTime();
+				if (intended - step.end >= 0) {
+					return;
+				}
+			}
+			long begin = System.nanoTime();
+			boolean success = flow();
+			step.record(intended, begin, System.nanoTime(), success);
+			intended += step.interval;
+		}
+	}
+
+	/**
+	 * Run the step on asynchronous flows, each chained after the previous one.
+	 *
+	 * @param step Step schedule and measurements.
+	 * @throws InterruptedException
+	 */
+	private void runAsync(Step step) throws InterruptedException {
+		ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+			Thread thread = new Thread(runnable, "rublon-load");
+			thread.setDaemon(true);
+			return thread;
+		});
+		CountDownLatch finished = new CountDownLatch(step.concurrency);
+		try {
+			for (int i = 0; i < step.concurrency; i++) {
+				AsyncFlows flows = new AsyncFlows(step, scheduler, finished, step.start + step.interval * i / step.concurrency);
+				flows.schedule();
+			}
+			if (!finished.await(step.getRemainingSeconds() + DRAIN_TIMEOUT, TimeUnit.SECONDS)) {
+				throw new IllegalStateException("Flows did not finish in time.");
+			}
+		} finally {
+			scheduler.shutdownNow();
+		}
+	}
+
+	/**
+	 * Perform the blocking flow.
+	 *
+	 * @return Whether the flow succeeded.
+	 */
+	private boolean flow() {
+		try {
+			rublon.auth(CALLBACK_URL, USER_NAME, USER_EMAIL);
+			rublon.getCredentials(ACCESS_TOKEN);
+			return true;
+		} catch (RublonException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Perform the asynchronous flow.
+	 */
+	private CompletableFuture<?> flowAsync() {
+		try {
+			return rublon.authAsync(CALLBACK_URL, USER_NAME, USER_EMAIL)
+					.thenCompose(webURI -> rublon.getCredentialsAsync(ACCESS_TOKEN));
+		} catch (RuntimeException e) {
+			CompletableFuture<?> future = new CompletableFuture<Object>();
+			future.completeExceptionally(e);
+			return future;
+		}
+	}
+
+	/**
+	 * Wait until given time.
+	 *
+	 * @param deadline Time by {@link System#nanoTime()}.
+	 */
+	private static void sleepUntil(long deadline) {
+		long remaining;
+		while ((remaining = deadline - System.nanoTime()) > 0) {
+			LockSupport.parkNanos(remaining);
+		}
+	}
+
+	/**
+	 * Asynchronous flows of one concurrency slot.
+	 */
+	private final class AsyncFlows implements Runnable {
+
+		private final Step step;
+
+		private final ScheduledExecutorService scheduler;
+
+		private final CountDownLatch finished;
+
+		/**
+		 * Intended start of the next flow.
+		 */
+		private long intended;
+
+		AsyncFlows(Step step, ScheduledExecutorService scheduler, CountDownLatch finished, long first) {
+			this.step = step;
+			this.scheduler = scheduler;
+			this.finished = finished;
+			this.intended = first;
+		}
+
+		/**
+		 * Start the next flow at its intended time.
+		 * <p>
+		 * The flows are started by the scheduler, not on the completing thread,
+		 * so the futures completed synchronously do not recurse.
+		 */
+		void schedule() {
+			scheduler.schedule(this, (step.interval > 0 ? intended - System.nanoTime() : 0), TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public void run() {
+			long begin = System.nanoTime();
+			if (step.interval == 0) {
+				intended = begin;
+			}
+			if (intended - step.end >= 0) {
+				finished.countDown();
+				return;
+			}
+			flowAsync().whenComplete((result, failure) -> {
+				step.record(intended, begin, System.nanoTime(), failure == null);
+				intended += step.interval;
+				schedule();
+			});
+		}
+
+	}
+
+	/**
+	 * Schedule and measurements of one step.
+	 */
+	private final class Step {
+
+		/**
+		 * Concurrent flows.
+		 */
+		final int concurrency;
+
+		/**
+		 * Interval between the intended starts of each flow slot in nanoseconds, 0 in a closed loop.
+		 */
+		final long interval;
+
+		/**
+		 * Start of the warm-up.
+		 */
+		final long start;
+
+		/**
+		 * Start of the measurement.
+		 */
+		final long measure;
+
+		/**
+		 * End of the measurement, no flows start after it.
+		 */
+		final long end;
+
+		/**
+		 * Latencies in microseconds from the intended starts.
+		 */
+		final Histogram latency = new ConcurrentHistogram(3);
+
+		/**
+		 * Service times in microseconds from the actual starts.
+		 */
+		final Histogram serviceTime = new ConcurrentHistogram(3);
+
+		/**
+		 * Number of the failed flows.
+		 */
+		final LongAdder errors = new LongAdder();
+
+		/**
+		 * Number of the flows completed within the measurement.
+		 */
+		final LongAdder completed = new LongAdder();
+
+		Step(int concurrency) {
+			this.concurrency = concurrency;
+			this.interval = (options.getRate() > 0 ? (long) (concurrency * TimeUnit.SECONDS.toNanos(1) / options.getRate()) : 0);
+			this.start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+			this.measure = start + (long) (options.getWarmup() * TimeUnit.SECONDS.toNanos(1));
+			this.end = measure + (long) (options.getDuration() * TimeUnit.SECONDS.toNanos(1));
+		}
+
+		/**
+		 * Record the flow.
+		 * <p>
+		 * Latencies are recorded for the flows intended to start within the measurement,
+		 * the throughput counts the flows completed within it.
+		 *
+		 * @param intended Intended start.
+		 * @param begin Actual start.
+		 * @param done Completion.
+		 * @param success Whether the flow succeeded.
+		 */
+		void record(long intended, long begin, long done, boolean success) {
+			if (done - measure >= 0 && done - end < 0) {
+				completed.increment();
+			}
+			if (intended - measure < 0) {
+				return;
+			}
+			latency.recordValue(TimeUnit.NANOSECONDS.toMicros(done - intended));
+			serviceTime.recordValue(TimeUnit.NANOSECONDS.toMicros(done - begin));
+			if (!success) {
+				errors.increment();
+			}
+		}
+
+		/**
+		 * Get the seconds until the end of the step.
+		 */
+		long getRemainingSeconds() {
+			return TimeUnit.NANOSECONDS.toSeconds(Math.max(0, end - System.nanoTime())) + 1;
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.rublon.sdk.loadtest;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Concurrency model driving the SDK.
+ *
+ * @author Rublon Developers
+ */
+public enum LoadMode {
+
+	/**
+	 * Blocking calls, one platform thread per concurrent flow.
+	 */
+	PLATFORM,
+
+	/**
+	 * Blocking calls, one virtual thread per concurrent flow. Requires Java 21 or newer.
+	 */
+	VIRTUAL,
+
+	/**
+	 * Asynchronous calls, concurrent flows chained on the SDK futures.
+	 */
+	ASYNC;
+
+	/**
+	 * Check whether the mode is supported by the running JVM.
+	 */
+	public boolean isSupported() {
+		if (this != VIRTUAL) {
+			return true;
+		}
+		try {
+			createExecutor(1).shutdown();
+			return true;
+		} catch (UnsupportedOperationException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Create the executor of the blocking flows.
+	 * <p>
+	 * Virtual threads are created reflectively, the harness is built for Java 8.
+	 *
+	 * @param threads Number of the concurrent flows.
+	 * @throws UnsupportedOperationException When the mode is asynchronous or not supported by the JVM.
+	 */
+	ExecutorService createExecutor(int threads) {
+		switch (this) {
+			case PLATFORM:
+				return Executors.newFixedThreadPool(threads, runnable -> {
+					Thread thread = new Thread(runnable, "rublon-load");
+					thread.setDaemon(true);
+					return thread;
+				});
+			case VIRTUAL:
+				try {
+					return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+				} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+					throw new UnsupportedOperationException("Virtual threads require Java 21 or newer.", e);
+				}
+			default:
+				throw new UnsupportedOperationException("No executor of the asynchronous flows.");
+		}
+	}
+
+}
@@ -0,0 +1,229 @@
+package com.rublon.sdk.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Load test options class.
+ * <p>
+ * Parsed from the "--name=value" command line arguments.
+ *
+ * @author Rublon Developers
+ */
+public class LoadOptions {
+
+	/**
+	 * Usage of the command line.
+	 */
+	static final String USAGE = "Usage: java -jar loadtest.jar [options]\n"
+			+ "  --modes=platform,virtual,async  Concurrency models to drive the SDK with\n"
+			+ "  --concurrency=1,2,4,8,16,32,64  Concurrent flows of the steps\n"
+			+ "  --rate=0                        Target flows per second of each step, 0 for a closed loop\n"
+			+ "                                  measuring only the service times\n"
+			+ "  --warmup=5                      Warm-up of each step in seconds\n"
+			+ "  --duration=10                   Measurement of each step in seconds\n"
+			+ "  --transport=apache              Transport provider, apache or jdk\n"
+			+ "  --stub-latency=0                Median latency of the stub in milliseconds\n"
+			+ "  --stub-sigma=0                  Log-normal sigma of the stub latency, 0 for a fixed latency\n"
+			+ "  --out=loadtest-results          Directory of the report and histograms, empty to skip the files\n";
+
+	/**
+	 * Concurrency models.
+	 */
+	protected List<LoadMode> modes = new ArrayList<LoadMode>();
+
+	/**
+	 * Concurrent flows of the steps.
+	 */
+	protected List<Integer> concurrency = new ArrayList<Integer>();
+
+	/**
+	 * Target flows per second of each step, 0 for a closed loop.
+	 */
+	protected double rate = 0;
+
+	/**
+	 * Warm-up of each step in seconds.
+	 */
+	protected double warmup = 5;
+
+	/**
+	 * Measurement of each step in seconds.
+	 */
+	protected double duration = 10;
+
+	/**
+	 * Transport provider name.
+	 */
+	protected String transport = "apache";
+
+	/**
+	 * Median latency of the stub in milliseconds.
+	 */
+	protected double stubLatency = 0;
+
+	/**
+	 * Log-normal sigma of the stub latency.
+	 */
+	protected double stubSigma = 0;
+
+	/**
+	 * Directory of the report and histograms or empty to skip the files.
+	 */
+	protected String out = "loadtest-results";
+
+	/**
+	 * Create the default options.
+	 */
+	public LoadOptions() {
+		for (LoadMode mode : LoadMode.values()) {
+			modes.add(mode);
+		}
+		for (int count = 1; count <= 64; count *= 2) {
+			concurrency.add(count);
+		}
+	}
+
+	/**
+	 * Parse the command line.
+	 *
+	 * @param args Command line arguments.
+	 * @return Options
+	 * @throws IllegalArgumentException When an argument is invalid.
+	 */
+	public static LoadOptions parse(String[] args) {
+		LoadOptions options = new LoadOptions();
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			if (!arg.startsWith("--") || separator < 0) {
+				throw new IllegalArgumentException("Invalid argument: " + arg);
+			}
+			String name = arg.substring(2, separator);
+			String value = arg.substring(separator + 1);
+			try {
+				options.set(name, value);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid number: " + arg, e);
+			}
+		}
+		if (options.modes.isEmpty() || options.concurrency.isEmpty()) {
+			throw new IllegalArgumentException("No modes or concurrency levels to run.");
+		}
+		return options;
+	}
+
+	/**
+	 * Set the option.
+	 *
+	 * @param name Option name.
+	 * @param value Option value.
+	 */
+	private void set(String name, String value) {
+		switch (name) {
+			case "modes":
+				modes.clear();
+				for (String mode : value.split(",")) {
+					modes.add(LoadMode.valueOf(mode.trim().toUpperCase(Locale.ROOT)));
+				}
+				break;
+			case "concurrency":
+				concurrency.clear();
+				for (String count : value.split(",")) {
+					int parsed = Integer.parseInt(count.trim());
+					if (parsed < 1) {
+						throw new IllegalArgumentException("Invalid concurrency: " + parsed);
+					}
+					concurrency.add(parsed);
+				}
+				break;
+			case "rate":
+				rate = Double.parseDouble(value);
+				break;
+			case "warmup":
+				warmup = Double.parseDouble(value);
+				break;
+			case "duration":
+				duration = Double.parseDouble(value);
+				break;
+			case "transport":
+				transport = value;
+				break;
+			case "stub-latency":
+				stubLatency = Double.parseDouble(value);
+				break;
+			case "stub-sigma":
+				stubSigma = Double.parseDouble(value);
+				break;
+			case "out":
+				out = value;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + name);
+		}
+	}
+
+	/**
+	 * Get the concurrency models.
+	 */
+	public List<LoadMode> getModes() {
+		return modes;
+	}
+
+	/**
+	 * Get the concurrent flows of the steps.
+	 */
+	public List<Integer> getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * Get the target flows per second of each step, 0 for a closed loop.
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * Get the warm-up of each step in seconds.
+	 */
+	public double getWarmup() {
+		return warmup;
+	}
+
+	/**
+	 * Get the measurement of each step in seconds.
+	 */
+	public double getDuration() {
+		return duration;
+	}
+
+	/**
+	 * Get the transport provider name.
+	 */
+	public String getTransport() {
+		return transport;
+	}
+
+	/**
+	 * Get the median latency of the stub in milliseconds.
+	 */
+	public double getStubLatency() {
+		return stubLatency;
+	}
+
+	/**
+	 * Get the log-normal sigma of the stub latency.
+	 */
+	public double getStubSigma() {
+		return stubSigma;
+	}
+
+	/**
+	 * Get the directory of the report and histograms, empty to skip the files.
+	 */
+	public String getOut() {
+		return out;
+	}
+
+}
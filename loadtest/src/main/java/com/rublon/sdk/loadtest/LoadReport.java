@@ -0,0 +1,205 @@
+package com.rublon.sdk.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Throughput-vs-concurrency report.
+ * <p>
+ * Prints a line per step as soon as it finishes. The "scaling" column is the throughput
+ * relative to the first step of the mode divided by the relative concurrency, 1.0 meaning
+ * linear scaling. At a target rate the latencies are measured from the intended starts, so
+ * they include the coordinated omission, and the service time percentile is shown next to
+ * them. A closed loop has no intended starts: only the uncorrected service times are
+ * reported, labelled as such. Optionally writes the report as CSV and the histogram of each
+ * step in the HdrHistogram percentile format (.hgrm), for plotting and comparing releases.
+ *
+ * @author Rublon Developers
+ */
+final class LoadReport {
+
+	/**
+	 * Format of the report lines at a target rate.
+	 */
+	private static final String LINE_FORMAT = "%-9s %6s %11s %8s %9s %9s %9s %9s %11s %8s%n";
+
+	/**
+	 * Format of the report lines in a closed loop.
+	 */
+	private static final String CLOSED_LINE_FORMAT = "%-9s %6s %11s %8s %11s %11s %11s %11s %8s%n";
+
+	/**
+	 * Header of the CSV report at a target rate.
+	 */
+	private static final String CSV_HEADER = "mode,concurrency,flows_per_sec,scaling,p50_ms,p99_ms,p999_ms,max_ms,service_p99_ms,flows,errors";
+
+	/**
+	 * Header of the CSV report in a closed loop.
+	 */
+	private static final String CLOSED_CSV_HEADER = "mode,concurrency,flows_per_sec,scaling,service_p50_ms,service_p99_ms,service_p999_ms,service_max_ms,flows,errors";
+
+	/**
+	 * Output of the report lines.
+	 */
+	private final PrintStream output;
+
+	/**
+	 * Directory of the files or null to skip them.
+	 */
+	private final File directory;
+
+	/**
+	 * Whether the steps run at a target rate, so the latencies are measured.
+	 */
+	private final boolean openLoop;
+
+	/**
+	 * Results of the finished steps.
+	 */
+	private final List<StepResult> results = new ArrayList<StepResult>();
+
+	/**
+	 * Create the report.
+	 *
+	 * @param output Output of the report lines.
+	 * @param directory Directory of the files or null to skip them.
+	 * @param openLoop Whether the steps run at a target rate.
+	 */
+	LoadReport(PrintStream output, File directory, boolean openLoop) {
+		this.output = output;
+		this.directory = directory;
+		this.openLoop = openLoop;
+	}
+
+	/**
+	 * Print the header of the mode's steps.
+	 *
+	 * @param mode Concurrency model.
+	 */
+	void startMode(LoadMode mode) {
+		output.println();
+		if (openLoop) {
+			output.printf(LINE_FORMAT, "mode", "conc", "flows/s", "scaling", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99 ms", "errors");
+		} else {
+			output.printf(CLOSED_LINE_FORMAT, "mode", "conc", "flows/s", "scaling", "svc p50 ms", "svc p99 ms", "svc p99.9", "svc max ms", "errors");
+		}
+	}
+
+	/**
+	 * Add the step result and print its line.
+	 *
+	 * @param result Step result.
+	 */
+	void add(StepResult result) {
+		results.add(result);
+		Histogram histogram = getHistogram(result);
+		String mode = result.getMode().name().toLowerCase(Locale.ROOT);
+		String throughput = String.format(Locale.ROOT, "%.1f", result.getThroughput());
+		String scaling = String.format(Locale.ROOT, "%.2f", getScaling(result));
+		if (openLoop) {
+			output.printf(LINE_FORMAT, mode, result.getConcurrency(), throughput, scaling,
+					millis(histogram.getValueAtPercentile(50)),
+					millis(histogram.getValueAtPercentile(99)),
+					millis(histogram.getValueAtPercentile(99.9)),
+					millis(histogram.getMaxValue()),
+					millis(result.getServiceTime().getValueAtPercentile(99)),
+					result.getErrors());
+		} else {
+			output.printf(CLOSED_LINE_FORMAT, mode, result.getConcurrency(), throughput, scaling,
+					millis(histogram.getValueAtPercentile(50)),
+					millis(histogram.getValueAtPercentile(99)),
+					millis(histogram.getValueAtPercentile(99.9)),
+					millis(histogram.getMaxValue()),
+					result.getErrors());
+		}
+		output.flush();
+	}
+
+	/**
+	 * Write the CSV report and the histograms.
+	 *
+	 * @throws IOException
+	 */
+	void write() throws IOException {
+		if (directory == null) {
+			return;
+		}
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create the directory: " + directory);
+		}
+		try (PrintStream csv = new PrintStream(new File(directory, "throughput.csv"), StandardCharsets.UTF_8.name())) {
+			csv.println(openLoop ? CSV_HEADER : CLOSED_CSV_HEADER);
+			for (StepResult result : results) {
+				Histogram histogram = getHistogram(result);
+				List<String> values = new ArrayList<String>();
+				values.add(result.getMode().name().toLowerCase(Locale.ROOT));
+				values.add(Integer.toString(result.getConcurrency()));
+				values.add(String.format(Locale.ROOT, "%.1f", result.getThroughput()));
+				values.add(String.format(Locale.ROOT, "%.3f", getScaling(result)));
+				values.add(millis(histogram.getValueAtPercentile(50)));
+				values.add(millis(histogram.getValueAtPercentile(99)));
+				values.add(millis(histogram.getValueAtPercentile(99.9)));
+				values.add(millis(histogram.getMaxValue()));
+				if (openLoop) {
+					values.add(millis(result.getServiceTime().getValueAtPercentile(99)));
+				}
+				values.add(Long.toString(result.getFlows()));
+				values.add(Long.toString(result.getErrors()));
+				csv.println(String.join(",", values));
+			}
+		}
+		for (StepResult result : results) {
+			String name = result.getMode().name().toLowerCase(Locale.ROOT) + "-c" + result.getConcurrency()
+					+ (openLoop ? "" : "-service") + ".hgrm";
+			try (PrintStream hgrm = new PrintStream(new File(directory, name), StandardCharsets.UTF_8.name())) {
+				getHistogram(result).outputPercentileDistribution(hgrm, 1000.0);
+			}
+		}
+		output.println();
+		output.println("Report and histograms (ms) written to " + directory.getAbsolutePath());
+	}
+
+	/**
+	 * Get the reported histogram of the step: the latencies at a target rate, the service times in a closed loop.
+	 *
+	 * @param result Step result.
+	 */
+	private Histogram getHistogram(StepResult result) {
+		return (result.isOpenLoop() ? result.getLatency() : result.getServiceTime());
+	}
+
+	/**
+	 * Get the scaling of the step relative to the first step of its mode.
+	 *
+	 * @param result Step result.
+	 */
+	private double getScaling(StepResult result) {
+		for (StepResult first : results) {
+			if (first.getMode() == result.getMode()) {
+				if (first.getThroughput() == 0) {
+					return 0;
+				}
+				return (result.getThroughput() / first.getThroughput())
+						/ ((double) result.getConcurrency() / first.getConcurrency());
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * Format the microseconds as milliseconds.
+	 *
+	 * @param micros
+	 */
+	private static String millis(long micros) {
+		return String.format(Locale.ROOT, "%.3f", micros / 1000.0);
+	}
+
+}
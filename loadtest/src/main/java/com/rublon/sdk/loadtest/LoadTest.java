@@ -0,0 +1,118 @@
+package com.rublon.sdk.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Locale;
+
+import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.TransportConfig;
+import com.rublon.sdk.core.rest.TransportProvider;
+import com.rublon.sdk.stub.Latency;
+import com.rublon.sdk.stub.RublonStub;
+import com.rublon.sdk.twofactor.Rublon;
+
+/**
+ * Entry point of the loadtest.jar.
+ * <p>
+ * Measures how many auth() + getCredentials() flows per second a single Rublon instance
+ * sustains against the in-process {@link RublonStub}, and their tail latencies, as the
+ * concurrency rises. Each mode runs the concurrency levels in order, each step warmed up
+ * and measured separately. The connection pool is sized for the highest concurrency.
+ *
+ * @author Rublon Developers
+ */
+public final class LoadTest {
+
+	/**
+	 * System token of the load test.
+	 */
+	static final String SYSTEM_TOKEN = "1A2B3C4D5E6F7A8B9C0D1E2F3A4B5C6D";
+
+	/**
+	 * Secret key of the load test.
+	 */
+	static final String SECRET_KEY = "bq4m9ZrZTf6PnuBC4q2Wy5Xs3dVaE8gK7hJtLkN1pRsTuVwXyZ2a3b4c5d6e7f8g";
+
+	private LoadTest() {
+	}
+
+	/**
+	 * Run the load test.
+	 *
+	 * @param args Command line, see {@link LoadOptions#USAGE}.
+	 * @throws Exception
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && (args[0].equals("-h") || args[0].equals("--help"))) {
+			System.out.print(LoadOptions.USAGE);
+			return;
+		}
+		LoadOptions options;
+		try {
+			options = LoadOptions.parse(args);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.print(LoadOptions.USAGE);
+			System.exit(2);
+			return;
+		}
+		run(options);
+	}
+
+	/**
+	 * Run the load test with given options.
+	 *
+	 * @param options Load test options.
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	static void run(LoadOptions options) throws IOException, InterruptedException {
+		System.setProperty(TransportProvider.PROPERTY_TRANSPORT, options.getTransport());
+		int connections = Collections.max(options.getConcurrency());
+		Latency latency = (options.getStubSigma() > 0 ? Latency.logNormal(options.getStubLatency(), options.getStubSigma())
+				: Latency.fixed(options.getStubLatency()));
+
+		try (RublonStub stub = new RublonStub(SECRET_KEY).setLatency(latency).start()) {
+			RESTClient client = new RESTClient(SECRET_KEY, new TransportConfig()
+					.setMaxTotal(connections)
+					.setMaxPerRoute(connections));
+			try (Rublon rublon = new Rublon(SYSTEM_TOKEN, SECRET_KEY, stub.getUrl(), client)) {
+				printSettings(options);
+				LoadGenerator generator = new LoadGenerator(rublon, options);
+				File directory = (options.getOut().isEmpty() ? null : new File(options.getOut()));
+				LoadReport report = new LoadReport(System.out, directory, options.getRate() > 0);
+				for (LoadMode mode : options.getModes()) {
+					if (!mode.isSupported()) {
+						System.out.println();
+						System.out.println("Skipping " + mode.name().toLowerCase(Locale.ROOT)
+								+ ": virtual threads require Java 21 or newer.");
+						continue;
+					}
+					report.startMode(mode);
+					for (int concurrency : options.getConcurrency()) {
+						report.add(generator.run(mode, concurrency));
+					}
+				}
+				report.write();
+			}
+		}
+	}
+
+	/**
+	 * Print the settings of the run.
+	 *
+	 * @param options Load test options.
+	 */
+	private static void printSettings(LoadOptions options) {
+		System.out.println("Rublon SDK load test: auth() + getCredentials() flows");
+		System.out.printf(Locale.ROOT, "Java %s, %d cores, %s transport%n", System.getProperty("java.version"),
+				Runtime.getRuntime().availableProcessors(), options.getTransport());
+		System.out.printf(Locale.ROOT, "%s, warm-up %.1f s, measurement %.1f s per step%n",
+				(options.getRate() > 0 ? String.format(Locale.ROOT, "Target rate %.1f flows/s", options.getRate())
+						: "Closed loop, service times only, set --rate for the latencies"),
+				options.getWarmup(), options.getDuration());
+		System.out.printf(Locale.ROOT, "Stub latency median %.1f ms, sigma %.2f%n", options.getStubLatency(), options.getStubSigma());
+	}
+
+}
@@ -0,0 +1,121 @@
+package com.rublon.sdk.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Result of one load test step.
+ * <p>
+ * Latencies are recorded in microseconds.
+ *
+ * @author Rublon Developers
+ */
+public class StepResult {
+
+	/**
+	 * Concurrency model.
+	 */
+	protected final LoadMode mode;
+
+	/**
+	 * Concurrent flows.
+	 */
+	protected final int concurrency;
+
+	/**
+	 * Flow latencies from the intended starts, null in a closed loop.
+	 */
+	protected final Histogram latency;
+
+	/**
+	 * Flow service times, from the actual start of each flow.
+	 */
+	protected final Histogram serviceTime;
+
+	/**
+	 * Number of the failed flows.
+	 */
+	protected final long errors;
+
+	/**
+	 * Flows completed per second.
+	 */
+	protected final double throughput;
+
+	/**
+	 * Create the result.
+	 *
+	 * @param mode Concurrency model.
+	 * @param concurrency Concurrent flows.
+	 * @param latency Flow latencies from the intended starts or null in a closed loop.
+	 * @param serviceTime Flow service times.
+	 * @param errors Number of the failed flows.
+	 * @param throughput Flows completed per second.
+	 */
+	public StepResult(LoadMode mode, int concurrency, Histogram latency, Histogram serviceTime, long errors, double throughput) {
+		this.mode = mode;
+		this.concurrency = concurrency;
+		this.latency = latency;
+		this.serviceTime = serviceTime;
+		this.errors = errors;
+		this.throughput = throughput;
+	}
+
+	/**
+	 * Get the concurrency model.
+	 */
+	public LoadMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Get the concurrent flows.
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * Check whether the flows had intended starts, i.e. the step ran at a target rate.
+	 */
+	public boolean isOpenLoop() {
+		return (latency != null);
+	}
+
+	/**
+	 * Get the flow latencies in microseconds from the intended starts.
+	 *
+	 * @return Latencies or null in a closed loop, which measures only the service times.
+	 */
+	public Histogram getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Get the flow service times in microseconds.
+	 */
+	public Histogram getServiceTime() {
+		return serviceTime;
+	}
+
+	/**
+	 * Get number of the measured flows, including the failed ones.
+	 */
+	public long getFlows() {
+		return serviceTime.getTotalCount();
+	}
+
+	/**
+	 * Get number of the failed flows.
+	 */
+	public long getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Get the flows completed per second, including the failed ones.
+	 */
+	public double getThroughput() {
+		return throughput;
+	}
+
+}
@@ -1,11 +1,21 @@
 package com.rublon.sdk.core;
 
-import com.rublon.sdk.core.util.Settings;
-import org.json.JSONObject;
 
 import com.rublon.sdk.core.exception.APIException;
 import com.rublon.sdk.core.exception.ConnectionException;
+import com.rublon.sdk.core.metrics.RublonMetrics;
+import com.rublon.sdk.core.rest.CircuitBreaker;
+import com.rublon.sdk.core.rest.ConcurrencyLimiter;
+import com.rublon.sdk.core.rest.Endpoint;
+import com.rublon.sdk.core.rest.EndpointPool;
+import com.rublon.sdk.core.rest.HedgePolicy;
 import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.RESTResponse;
+import com.rublon.sdk.core.rest.RetryPolicy;
+import com.rublon.sdk.core.rest.Timeouts;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * API method abstract class.
@@ -23,24 +33,24 @@ abstract public class APIMethod {
 	private RESTClient client;
 	
 	/**
-	 * Raw response body.
+	 * API server endpoint of this method call.
 	 */
-	protected String rawResponseBody;
+	protected Endpoint endpoint;
 	
 	/**
-	 * Response JSON object.
+	 * API method name of the metrics, resolved on the first use.
 	 */
-	protected JSONObject response;
+	private String methodName;
 	
 	/**
-	 * Value of the "status" field of the response.
+	 * HTTP response of this method call.
 	 */
-	protected String responseStatus;
+	protected RESTResponse restResponse;
 	
 	/**
-	 * Value of the "result" field of the response.
+	 * Parsed API response of this method call.
 	 */
-	protected JSONObject responseResult;
+	protected APIResponse apiResponse;
 	
 	/**
 	 * Success status value.
@@ -67,6 +77,21 @@ abstract public class APIMethod {
 	 */
 	public static final String HASH_ALG = "sha256";
 	
+	/**
+	 * Message of the exception thrown when the circuit breaker is open.
+	 */
+	protected static final String CIRCUIT_OPEN_MESSAGE = "Rublon API is unavailable, the circuit breaker is open.";
+	
+	/**
+	 * Message of the exception thrown when the concurrency limit is exceeded.
+	 */
+	protected static final String CONCURRENCY_LIMIT_MESSAGE = "Too many Rublon API calls in flight, the call has been rejected.";
+	
+	/**
+	 * Encoded name of the params field.
+	 */
+	protected static final byte[] NAME_PARAMS = RequestBodyWriter.name(RublonAuthParams.FIELD_PARAMS);
+	
 	/**
 	 * Construct the API method instance.
 	 * @param rublon
@@ -84,47 +109,235 @@ abstract public class APIMethod {
 	 */
 	public void perform() throws ConnectionException, APIException {
 		
-		String rawPostBody = "";
+		// The deadline includes the wait for the concurrency limiter
+		long begin = System.nanoTime();
+		RublonMetrics metrics = client.getMetrics();
+		ConcurrencyLimiter limiter = client.getConcurrencyLimiter();
+		if (!limiter.acquire()) {
+			throw reject(metrics, new ConnectionException.ConcurrencyLimitException(CONCURRENCY_LIMIT_MESSAGE));
+		}
+		CircuitBreaker breaker = client.getCircuitBreaker();
+		long permit = breaker.acquire();
+		if (permit == CircuitBreaker.REJECTED) {
+			limiter.release();
+			throw reject(metrics, new ConnectionException.CircuitOpenException(CIRCUIT_OPEN_MESSAGE));
+		}
 		
-		JSONObject params = getParams();
+		EndpointPool pool = rublon.getEndpointPool();
+		Endpoint endpoint = selectEndpoint(pool);
+		pool.onStart(endpoint);
 		
-		if (params != null && params.keySet().size() > 0) {
-			rawPostBody = params.toString();
+		long start = System.nanoTime();
+		Exception failure = null;
+		try {
+			// Execute request
+			this.restResponse = client.performRequest(getUrl(), getPostBody(), getRetryMode(), getTimeouts(), getHedgePolicy(), begin);
+			
+			// Validate response
+			validateResponse();
+		} catch (ConnectionException | APIException | RuntimeException e) {
+			failure = e;
+			throw e;
+		} finally {
+			long duration = System.nanoTime() - start;
+			boolean failed = isFailure(failure);
+			breaker.onComplete(permit, duration, failed);
+			pool.onComplete(endpoint, duration, failed);
+			limiter.release(duration, failed);
+			metrics.recordCall(getMethodName(), duration, RublonMetrics.getOutcome(failure));
 		}
+	}
+
+	/**
+	 * Perform HTTP request asynchronously
+	 * <p>
+	 * The returned future completes when the response has been validated,
+	 * or exceptionally with {@link ConnectionException} or {@link APIException}.
+	 */
+	public CompletableFuture<Void> performAsync() {
+		
+		final CompletableFuture<Void> result = new CompletableFuture<Void>();
+		
+		final long begin = System.nanoTime();
+		final RublonMetrics metrics = client.getMetrics();
+		final ConcurrencyLimiter limiter = client.getConcurrencyLimiter();
+		if (!limiter.tryAcquire()) {
+			result.completeExceptionally(reject(metrics, new ConnectionException.ConcurrencyLimitException(CONCURRENCY_LIMIT_MESSAGE)));
+			return result;
+		}
+		final CircuitBreaker breaker = client.getCircuitBreaker();
+		final long permit = breaker.acquire();
+		if (permit == CircuitBreaker.REJECTED) {
+			limiter.release();
+			result.completeExceptionally(reject(metrics, new ConnectionException.CircuitOpenException(CIRCUIT_OPEN_MESSAGE)));
+			return result;
+		}
+		final EndpointPool pool = rublon.getEndpointPool();
+		final Endpoint endpoint = selectEndpoint(pool);
+		pool.onStart(endpoint);
+		
+		final long start = System.nanoTime();
+		result.whenComplete((v, e) -> {
+			long duration = System.nanoTime() - start;
+			boolean failed = isFailure(e);
+			breaker.onComplete(permit, duration, failed);
+			pool.onComplete(endpoint, duration, failed);
+			limiter.release(duration, failed);
+			metrics.recordCall(getMethodName(), duration, RublonMetrics.getOutcome(e));
+		});
+		
+		try {
+			// Execute request
+			client.performRequestAsync(getUrl(), getPostBody(), getRetryMode(), getTimeouts(), getHedgePolicy(), begin).whenComplete((restResponse, e) -> {
+				if (e != null) {
+					result.completeExceptionally(e);
+					return;
+				}
+				this.restResponse = restResponse;
+				
+				// Validate response
+				try {
+					validateResponse();
+					result.complete(null);
+				} catch (APIException | RuntimeException ex) {
+					result.completeExceptionally(ex);
+				}
+			});
+		} catch (RuntimeException e) {
+			// Fail the call instead of throwing, so the permit, the slot and the endpoint are released
+			result.completeExceptionally(e);
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Probe the health of given API server endpoint by this method call
+	 * <p>
+	 * The request is sent once, bypassing the circuit breaker, the concurrency limiter,
+	 * the retries, the hedging and the call metrics, so probing a failing endpoint
+	 * does not affect the traffic to the other ones. The outcome is recorded
+	 * only by the endpoint pool.
+	 * 
+	 * @param endpoint API server endpoint.
+	 * @return Future completed when the response has been validated,
+	 * or exceptionally with {@link ConnectionException} or {@link APIException}.
+	 */
+	public CompletableFuture<Void> probeAsync(Endpoint endpoint) {
+		
+		final CompletableFuture<Void> result = new CompletableFuture<Void>();
+		
+		final EndpointPool pool = rublon.getEndpointPool();
+		this.endpoint = endpoint;
+		pool.onStart(endpoint);
 		
-		// Execute request
-		this.rawResponseBody = client.performRequest(getUrl(), rawPostBody);
+		final long start = System.nanoTime();
+		result.whenComplete((v, e) -> pool.onComplete(endpoint, System.nanoTime() - start, isFailure(e)));
 		
-		// Validate response
-		validateResponse();
+		try {
+			client.probeAsync(getUrl(), getPostBody(), getTimeouts()).whenComplete((restResponse, e) -> {
+				if (e != null) {
+					result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+					return;
+				}
+				this.restResponse = restResponse;
+				try {
+					validateResponse();
+					result.complete(null);
+				} catch (APIException | RuntimeException ex) {
+					result.completeExceptionally(ex);
+				}
+			});
+		} catch (RuntimeException e) {
+			result.completeExceptionally(e);
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Get the UTF-8 encoded POST body of the API request.
+	 * <p>
+	 * The body is streamed straight into the thread's reusable buffer
+	 * by {@link #writeFields(RequestBodyWriter)} and {@link #writeParams(RequestBodyWriter)}.
+	 */
+	protected byte[] getPostBody() {
+		RequestBodyWriter body = new RequestBodyWriter(rublon.getSystemToken());
+		writeFields(body);
+		body.beginObject(NAME_PARAMS);
+		writeParams(body);
+		body.endObject();
+		return body.toByteArray();
 	}
 
 	/**
 	 * Validate the API response.
+	 * <p>
+	 * Parsing of the response and verification of its signature are timed by the client's metrics,
+	 * the validation is recorded as a flight recorder event on Java 11+.
+	 * 
 	 * @throws APIException
 	 */
 	protected void validateResponse() throws APIException {
-		if (client.getHTTPStatusCode() == 200 || client.getHTTPStatusCode() == 400) {
+		ValidationEvent event = new ValidationEvent();
+		event.begin();
+		Exception failure = null;
+		try {
+			validateResponse(event);
+		} catch (APIException | RuntimeException e) {
+			failure = e;
+			throw e;
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				byte[] body = restResponse.getBodyBytes();
+				event.method = getMethodName();
+				event.status = restResponse.getStatusCode();
+				event.bytesIn = (body != null ? body.length : 0);
+				event.outcome = RublonMetrics.getOutcome(failure);
+				event.commit();
+			}
+		}
+	}
+
+	/**
+	 * Validate the API response.
+	 * 
+	 * @param event Flight recorder event of the validation, receives the signature verification time.
+	 * @throws APIException
+	 */
+	private void validateResponse(ValidationEvent event) throws APIException {
+		int statusCode = restResponse.getStatusCode();
+		if (statusCode == 200 || statusCode == 400) {
+			byte[] rawResponseBody = restResponse.getBodyBytes();
 			if (rawResponseBody != null) {
-				response = new JSONObject(rawResponseBody);
-				if (response != null && response.length() > 0) {
-					responseResult = response.optJSONObject(FIELD_RESULT);
-					String status = response.optString(FIELD_STATUS, null);
+				RublonMetrics metrics = client.getMetrics();
+				long start = System.nanoTime();
+				APIResponse parsed = APIResponse.parse(restResponse);
+				boolean empty = parsed.isEmpty();
+				String status = (empty ? null : parsed.getStatus());
+				metrics.recordPhase(getMethodName(), RublonMetrics.Phase.PARSE, System.nanoTime() - start);
+				if (!empty) {
+					apiResponse = parsed;
 					if (status != null) {
 						if (status.equals(STATUS_OK)) {
-							String signature = client.getSignature();
+							String signature = restResponse.getSignature();
 							if (signature != null) {
-								if (validateSignature(signature, rawResponseBody)) {
+								start = System.nanoTime();
+								boolean valid = validateSignature(signature, rawResponseBody);
+								event.verificationTime = System.nanoTime() - start;
+								metrics.recordPhase(getMethodName(), RublonMetrics.Phase.VERIFY, event.verificationTime);
+								if (valid) {
 									// OK
-								} else throw new APIException.InvalidSignatureException(client, "Invalid response signature: "+ signature);
+								} else throw new APIException.InvalidSignatureException(restResponse, "Invalid response signature: "+ signature);
 							}
 						} else if (status.equals(STATUS_ERROR)) {
-							throw APIException.factory(client);
-						} else throw new APIException.InvalidFieldException(client, "Invalid status field", status);
-					} else throw new APIException.MissingFieldException(client, FIELD_STATUS);
-				} else throw new APIException.InvalidJSONException(client);
-			} else throw new APIException(client, "Empty response body.");
-		} else throw new APIException(client, "Unexpected response HTTP status code: " + client.getHTTPStatusCode());
+							throw APIException.factory(parsed);
+						} else throw new APIException.InvalidFieldException(restResponse, "Invalid status field", status);
+					} else throw new APIException.MissingFieldException(restResponse, FIELD_STATUS);
+				} else throw new APIException.InvalidJSONException(restResponse);
+			} else throw new APIException(restResponse, "Empty response body.");
+		} else throw new APIException(restResponse, "Unexpected response HTTP status code: " + statusCode);
 	}
 	
 	/**
@@ -136,8 +349,29 @@ abstract public class APIMethod {
 	 * @return True if the signature is valid.
 	 */
 	protected boolean validateSignature(String signature, String input, String secretKey) {
-		String check = signMessage(input, secretKey);
-		return (check != null && signature != null && check.equals(signature));
+		return (signature != null && Codec.hmac_verify(HASH_ALG, secretKey, input, signature));
+	}
+
+	/**
+	 * Validate given signature for given raw input.
+	 * 
+	 * Get the secret key from the Rublon instance, verify by the REST client's signer
+	 * when it is bound to the same key.
+	 * 
+	 * @param signature
+	 * @param input Raw response body bytes.
+	 * @return True if the signature is valid.
+	 */
+	protected boolean validateSignature(String signature, byte[] input) {
+		if (signature == null) {
+			return false;
+		}
+		String secretKey = rublon.getSecretKey();
+		HmacSigner signer = client.getSigner();
+		if (signer != null && secretKey != null && secretKey.equals(client.getSecretKey())) {
+			return signer.verify(input, 0, input.length, signature);
+		}
+		return Codec.hmac_verify(HASH_ALG, secretKey, input, signature);
 	}
 
 	/**
@@ -164,6 +398,85 @@ abstract public class APIMethod {
 		return Codec.hmac(HASH_ALG, secretKey, input);
 	}
 	
+	/**
+	 * Get the HTTP response of this method call.
+	 */
+	public RESTResponse getRESTResponse() {
+		return restResponse;
+	}
+	
+	/**
+	 * Get the string value of given field of the response's result object.
+	 * 
+	 * @param name Field name.
+	 * @return Field value or null if not present.
+	 */
+	protected String getResultString(String name) {
+		return apiResponse.getResultString(name);
+	}
+	
+	/**
+	 * Get the raw response body string.
+	 */
+	protected String getRawResponseBody() {
+		return (restResponse != null ? restResponse.getBody() : null);
+	}
+	
+	/**
+	 * Get the API server URL of this method call.
+	 * <p>
+	 * Server selected from the Rublon instance's endpoint pool, or the primary server before the call.
+	 */
+	protected String getAPIServer() {
+		Endpoint current = endpoint;
+		return (current != null ? current.getUrl() : rublon.getAPIServer());
+	}
+	
+	/**
+	 * Send this method call to given endpoint instead of the selected one, e.g. to probe its health.
+	 * 
+	 * @param endpoint API server endpoint.
+	 */
+	public void setEndpoint(Endpoint endpoint) {
+		this.endpoint = endpoint;
+	}
+	
+	/**
+	 * Select the endpoint of this method call, unless already set.
+	 * 
+	 * @param pool Endpoint pool.
+	 */
+	private Endpoint selectEndpoint(EndpointPool pool) {
+		if (endpoint == null) {
+			endpoint = pool.select();
+		}
+		return endpoint;
+	}
+	
+	/**
+	 * Get the API method name of the metrics, e.g. "transaction/init".
+	 */
+	protected String getMethodName() {
+		String result = methodName;
+		if (result == null) {
+			result = RublonMetrics.getMethodName(getUrl());
+			methodName = result;
+		}
+		return result;
+	}
+	
+	/**
+	 * Record the call rejected without contacting the server.
+	 * 
+	 * @param metrics Metrics of the API calls.
+	 * @param e Exception rejecting the call.
+	 * @return Given exception.
+	 */
+	private ConnectionException reject(RublonMetrics metrics, ConnectionException e) {
+		metrics.recordCall(getMethodName(), 0, RublonMetrics.getOutcome(e));
+		return e;
+	}
+	
 	/**
 	 * Get Rublon instance.
 	 */
@@ -173,15 +486,79 @@ abstract public class APIMethod {
 	
 
 	/**
-	 * Get the API request's parameters object.
+	 * Write the API request's top-level fields.
+	 * <p>
+	 * The system token field has already been written.
+	 * 
+	 * @param body Request body writer.
+	 */
+	protected void writeFields(RequestBodyWriter body) {
+	}
+	
+	/**
+	 * Write the fields of the API request's params object.
+	 * 
+	 * @param body Request body writer.
+	 */
+	protected void writeParams(RequestBodyWriter body) {
+		body.sdkVer();
+	}
+	
+	/**
+	 * Check whether given failure of the call counts against the circuit breaker.
+	 * <p>
+	 * Connection failures, server errors and unexpected exceptions count,
+	 * errors returned by the API for the request itself do not.
+	 * 
+	 * @param e Failure or null if the call succeeded.
+	 */
+	protected boolean isFailure(Throwable e) {
+		if (e == null) {
+			return false;
+		} else if (e instanceof APIException) {
+			RESTResponse response = ((APIException) e).getResponse();
+			return (response == null || response.getStatusCode() >= 500);
+		} else {
+			return true;
+		}
+	}
+	
+	/**
+	 * Get the retry mode of the API request.
+	 * <p>
+	 * Requests are not retried by default, override for the idempotent methods.
+	 */
+	protected RetryPolicy.Mode getRetryMode() {
+		return RetryPolicy.Mode.NEVER;
+	}
+	
+	/**
+	 * Get the timeouts of the API request.
+	 * <p>
+	 * Timeouts set on the REST client for this method's class, or the client's default timeouts.
+	 */
+	protected Timeouts getTimeouts() {
+		return client.getTimeouts(getClass());
+	}
+	
+	/**
+	 * Check whether the API request is safe to duplicate.
+	 * <p>
+	 * Requests are not hedged by default, override for the methods whose duplicates are harmless.
+	 */
+	protected boolean isHedgeable() {
+		return false;
+	}
+	
+	/**
+	 * Get the hedging policy of the API request.
+	 * <p>
+	 * Policy set on the REST client for this method's class, only when the request is hedgeable.
+	 * 
+	 * @return Hedging policy or null if the request is not hedged.
 	 */
-	protected JSONObject getParams() {
-		return new JSONObject(){{
-			put(RublonAuthParams.FIELD_SYSTEM_TOKEN, rublon.getSystemToken());
-			put(RublonAuthParams.FIELD_PARAMS, new JSONObject() {{
-				put(RublonAuthParams.FIELD_SDK_VER, Settings.getInstance().getSdkVer());
-			}});
-		}};
+	protected HedgePolicy getHedgePolicy() {
+		return (isHedgeable() ? client.getHedgePolicy(getClass()) : null);
 	}
 	
 	/**
@@ -0,0 +1,157 @@
+package com.rublon.sdk.core;
+
+import java.util.Arrays;
+
+import org.json.JSONObject;
+
+import com.rublon.sdk.core.rest.RESTResponse;
+import com.rublon.sdk.core.util.JsonScanner;
+
+/**
+ * Parsed API response class.
+ * <p>
+ * The response body is scanned on demand: the status and single result fields
+ * are read straight from the raw bytes, without building the JSON object tree.
+ * The full tree is decoded only when {@link #getJSON()} or {@link #getResult()}
+ * is called. The same instance is shared by the response validation and the
+ * exception factory.
+ *
+ * @author Rublon Developers
+ */
+public class APIResponse {
+
+	/**
+	 * Offset not scanned yet.
+	 */
+	private static final int NOT_SCANNED = -2;
+
+	/**
+	 * HTTP response.
+	 */
+	protected final RESTResponse restResponse;
+
+	/**
+	 * Raw response body.
+	 */
+	private final byte[] body;
+
+	/**
+	 * Scanner of the raw response body.
+	 */
+	private final JsonScanner scanner;
+
+	/**
+	 * Offset of the root object or -1 if the body is not an object.
+	 */
+	private final int root;
+
+	/**
+	 * Offset of the result field's value or -1 if not present.
+	 */
+	private int result = NOT_SCANNED;
+
+	/**
+	 * Decoded response JSON object.
+	 */
+	private JSONObject json;
+
+	/**
+	 * Decoded result JSON object.
+	 */
+	private JSONObject resultJSON;
+
+	/**
+	 * Construct the parsed response instance.
+	 *
+	 * @param restResponse HTTP response.
+	 * @param body Raw response body.
+	 */
+	public APIResponse(RESTResponse restResponse, byte[] body) {
+		this.restResponse = restResponse;
+		this.body = body;
+		this.scanner = new JsonScanner(body);
+		int offset = scanner.root();
+		this.root = (scanner.isObject(offset) ? offset : -1);
+	}
+
+	/**
+	 * Create the response view of the HTTP response body.
+	 *
+	 * @param restResponse HTTP response with a non-empty body.
+	 */
+	public static APIResponse parse(RESTResponse restResponse) {
+		return new APIResponse(restResponse, restResponse.getBodyBytes());
+	}
+
+	/**
+	 * Get the HTTP response.
+	 */
+	public RESTResponse getRESTResponse() {
+		return restResponse;
+	}
+
+	/**
+	 * Get the response JSON object.
+	 * <p>
+	 * Decodes the whole body on first call.
+	 */
+	public JSONObject getJSON() {
+		if (json == null && root >= 0) {
+			json = Codec.json_decode(body);
+		}
+		return json;
+	}
+
+	/**
+	 * Check whether the response body is not a JSON object with any fields.
+	 */
+	public boolean isEmpty() {
+		return (scanner.countFields(root) <= 0);
+	}
+
+	/**
+	 * Get the value of the "status" field or null if not present.
+	 */
+	public String getStatus() {
+		return scanner.readString(scanner.findField(root, APIMethod.FIELD_STATUS));
+	}
+
+	/**
+	 * Get the value of the "result" field or null if not present.
+	 * <p>
+	 * Decodes the result object on first call.
+	 */
+	public JSONObject getResult() {
+		if (resultJSON == null) {
+			int offset = getResultOffset();
+			int end = scanner.valueEnd(offset);
+			if (scanner.isObject(offset) && end > offset) {
+				resultJSON = Codec.json_decode(Arrays.copyOfRange(body, offset, end));
+			}
+		}
+		return resultJSON;
+	}
+
+	/**
+	 * Get the string value of given field of the "result" object.
+	 * <p>
+	 * Reads the field straight from the raw body.
+	 *
+	 * @param name Field name.
+	 * @return Field value or null if not present.
+	 */
+	public String getResultString(String name) {
+		return scanner.readString(scanner.findField(getResultOffset(), name));
+	}
+
+	/**
+	 * Get the offset of the "result" field's value.
+	 */
+	private int getResultOffset() {
+		if (result == NOT_SCANNED) {
+			result = scanner.findField(root, APIMethod.FIELD_RESULT);
+		}
+		return result;
+	}
+
+}
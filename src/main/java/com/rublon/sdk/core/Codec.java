@@ -1,10 +1,6 @@
 package com.rublon.sdk.core;
 
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import org.apache.commons.codec.binary.Hex;
+import java.security.GeneralSecurityException;
 import org.json.JSONObject;
 
 
@@ -16,6 +12,17 @@ import org.json.JSONObject;
  */
 public abstract class Codec {
 
+	/**
+	 * Get the JSON codec in use
+	 * <p>
+	 * The codec is looked up by {@link JsonCodec#load()} on first use.
+	 * 
+	 * @return JSON codec
+	 */
+	static public JsonCodec json_codec() {
+		return JsonCodecHolder.INSTANCE;
+	}
+
 	/**
 	 * Get string that represents an object encoded to JSON
 	 * 
@@ -23,7 +30,7 @@ public abstract class Codec {
 	 * @return JSON string
 	 */
 	static public String json_encode(Object input) {
-		return JSONObject.valueToString(input);
+		return JsonCodecHolder.INSTANCE.encode(input);
 	}
 	
 	
@@ -34,29 +41,149 @@ public abstract class Codec {
 	 * @return Decoded object
 	 */
 	static public JSONObject json_decode(String input) {
-		return new JSONObject(input);
+		return JsonCodecHolder.INSTANCE.decode(input);
+	}
+
+	/**
+	 * Get object encoded as UTF-8 JSON bytes
+	 * <p>
+	 * The bytes are decoded while parsing, without creating the intermediate string.
+	 * 
+	 * @param input UTF-8 encoded JSON
+	 * @return Decoded object
+	 */
+	static public JSONObject json_decode(byte[] input) {
+		return JsonCodecHolder.INSTANCE.decode(input);
+	}
+
+	/**
+	 * Lowercase hex digits.
+	 */
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	/**
+	 * Get lowercase hex string of given bytes
+	 * 
+	 * @param input bytes
+	 * @return Hex string
+	 */
+	static public String hex_encode(byte[] input) {
+		char[] result = new char[input.length * 2];
+		for (int i = 0, j = 0; i < input.length; i++) {
+			result[j++] = HEX_DIGITS[(input[i] >> 4) & 0x0F];
+			result[j++] = HEX_DIGITS[input[i] & 0x0F];
+		}
+		return new String(result);
+	}
+
+	/**
+	 * Decode hex string into given buffer
+	 * 
+	 * @param input hex string
+	 * @param output buffer, its length must match the decoded length
+	 * @return False if the input is not a valid hex string of the buffer's length
+	 */
+	static public boolean hex_decode(CharSequence input, byte[] output) {
+		if (input.length() != output.length * 2) {
+			return false;
+		}
+		for (int i = 0, j = 0; i < output.length; i++) {
+			int high = hex_digit(input.charAt(j++));
+			int low = hex_digit(input.charAt(j++));
+			if (high < 0 || low < 0) {
+				return false;
+			}
+			output[i] = (byte) ((high << 4) | low);
+		}
+		return true;
+	}
+
+	/**
+	 * Get the value of the ASCII hex digit
+	 * <p>
+	 * Unlike {@link Character#digit(char, int)}, the digits of other scripts are rejected.
+	 * 
+	 * @param c character
+	 * @return Value from 0 to 15 or -1 if not a hex digit
+	 */
+	private static int hex_digit(char c) {
+		if (c >= '0' && c <= '9') {
+			return c - '0';
+		} else if (c >= 'a' && c <= 'f') {
+			return c - 'a' + 10;
+		} else if (c >= 'A' && c <= 'F') {
+			return c - 'A' + 10;
+		}
+		return -1;
 	}
 
 	/**
 	 * Get the HMAC hash of given secret and input using specified hash method
+	 * <p>
+	 * Uses the shared {@link HmacSigner} for the secret key, so the Mac instance
+	 * is not looked up and initialized on every call.
 	 * 
 	 * @param hashMethod eg. SHA256
 	 * @param secretKey
 	 * @param input
 	 */
 	public static String hmac(String hashMethod, String secretKey, String input) {
-		String algo = "Hmac"+ hashMethod;
 		try {
-			Mac sha256_HMAC = Mac.getInstance(algo);
-			SecretKeySpec secret_key = new SecretKeySpec(secretKey.getBytes(), algo);
-			sha256_HMAC.init(secret_key);
-			return Hex.encodeHexString(sha256_HMAC.doFinal(input.getBytes()));
-		} catch (NoSuchAlgorithmException e) {
-			
-		} catch (InvalidKeyException e) {
+			return HmacSigner.getInstance(hashMethod, secretKey).signHex(input);
+		} catch (GeneralSecurityException e) {
 			
 		}
 		return null;
 	}
+
+	/**
+	 * Verify the hex encoded HMAC hash of given secret and input using specified hash method
+	 * <p>
+	 * The raw HMAC bytes are compared in constant time.
+	 * 
+	 * @param hashMethod eg. SHA256
+	 * @param secretKey
+	 * @param input
+	 * @param signature hex encoded HMAC to verify
+	 * @return True if the signature is valid.
+	 */
+	public static boolean hmac_verify(String hashMethod, String secretKey, String input, String signature) {
+		try {
+			return HmacSigner.getInstance(hashMethod, secretKey).verify(input, signature);
+		} catch (GeneralSecurityException e) {
+			
+		}
+		return false;
+	}
+
+	/**
+	 * Verify the hex encoded HMAC hash of given secret and raw input using specified hash method
+	 * 
+	 * @param hashMethod eg. SHA256
+	 * @param secretKey
+	 * @param input raw bytes
+	 * @param signature hex encoded HMAC to verify
+	 * @return True if the signature is valid.
+	 */
+	public static boolean hmac_verify(String hashMethod, String secretKey, byte[] input, String signature) {
+		try {
+			return HmacSigner.getInstance(hashMethod, secretKey).verify(input, 0, input.length, signature);
+		} catch (GeneralSecurityException e) {
+			
+		}
+		return false;
+	}
+	
+	/**
+	 * Holder of the JSON codec, loaded on first use.
+	 */
+	private static final class JsonCodecHolder {
+		
+		/**
+		 * JSON codec in use.
+		 */
+		static final JsonCodec INSTANCE = JsonCodec.load();
+		
+	}
 	
 }
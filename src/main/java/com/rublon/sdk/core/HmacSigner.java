@@ -0,0 +1,262 @@
+package com.rublon.sdk.core;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * HMAC signer bound to a secret key.
+ * <p>
+ * The provider lookup and key initialization are done once, when the signer is created.
+ * Each thread then works on its own clone of the initialized {@link Mac}
+ * and its own scratch buffers, so a single signer may be shared between threads.
+ * <p>
+ * Signatures are verified by comparing raw HMAC bytes in constant time.
+ * <p>
+ * Long-lived components should create their own signer and keep it,
+ * {@link #getInstance(String, String)} serves the static helpers of {@link Codec}.
+ * 
+ * @author Rublon Developers
+ */
+public final class HmacSigner {
+
+	/**
+	 * Maximum number of signers kept by {@link #getInstance(String, String)}.
+	 */
+	private static final int CACHE_SIZE = 16;
+
+	/**
+	 * Signers cache in the access order, keyed by the hash method and the digest
+	 * of the secret key, evicting the least recently used signer.
+	 */
+	private static final Map<String, HmacSigner> CACHE = new LinkedHashMap<String, HmacSigner>(CACHE_SIZE, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, HmacSigner> eldest) {
+			return size() > CACHE_SIZE;
+		}
+
+	};
+
+	/**
+	 * HMAC algorithm name, eg. HmacSHA256.
+	 */
+	private final String algorithm;
+
+	/**
+	 * Secret key.
+	 */
+	private final SecretKeySpec key;
+
+	/**
+	 * Initialized Mac instance cloned for each thread.
+	 */
+	private final Mac prototype;
+
+	/**
+	 * Mac instance and buffers of the current thread.
+	 */
+	private final ThreadLocal<Scratch> scratch;
+
+	/**
+	 * Construct the signer.
+	 * 
+	 * @param hashMethod eg. SHA256
+	 * @param secretKey
+	 * @throws GeneralSecurityException When the algorithm is not available or the key is invalid.
+	 */
+	public HmacSigner(String hashMethod, String secretKey) throws GeneralSecurityException {
+		this.algorithm = "Hmac" + hashMethod.toUpperCase(Locale.ROOT);
+		this.key = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), algorithm);
+		this.prototype = Mac.getInstance(algorithm);
+		this.prototype.init(key);
+		this.scratch = ThreadLocal.withInitial(() -> new Scratch(newMac()));
+	}
+
+	/**
+	 * Get the shared signer for given hash method and secret key.
+	 * <p>
+	 * The signers of the {@value #CACHE_SIZE} most recently used keys are kept.
+	 * 
+	 * @param hashMethod eg. SHA256
+	 * @param secretKey
+	 * @throws GeneralSecurityException When the algorithm is not available or the key is invalid.
+	 */
+	public static HmacSigner getInstance(String hashMethod, String secretKey) throws GeneralSecurityException {
+		String cacheKey = hashMethod.toUpperCase(Locale.ROOT) + ":" + fingerprint(secretKey);
+		HmacSigner signer;
+		synchronized (CACHE) {
+			signer = CACHE.get(cacheKey);
+		}
+		if (signer == null) {
+			signer = new HmacSigner(hashMethod, secretKey);
+			synchronized (CACHE) {
+				HmacSigner current = CACHE.putIfAbsent(cacheKey, signer);
+				if (current != null) {
+					signer = current;
+				}
+			}
+		}
+		return signer;
+	}
+
+	/**
+	 * Get the hex encoded SHA-256 digest of the secret key, so the cache does not keep the key itself.
+	 * 
+	 * @param secretKey
+	 * @throws GeneralSecurityException When the digest is not available.
+	 */
+	private static String fingerprint(String secretKey) throws GeneralSecurityException {
+		return Codec.hex_encode(MessageDigest.getInstance("SHA-256").digest(secretKey.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Get the HMAC of given input.
+	 * 
+	 * @param input
+	 * @return Raw HMAC bytes.
+	 */
+	public byte[] sign(byte[] input) {
+		return sign(input, 0, input.length);
+	}
+
+	/**
+	 * Get the HMAC of given part of the input.
+	 * 
+	 * @param input
+	 * @param offset
+	 * @param length
+	 * @return Raw HMAC bytes.
+	 */
+	public byte[] sign(byte[] input, int offset, int length) {
+		Mac mac = scratch.get().mac;
+		mac.update(input, offset, length);
+		return mac.doFinal();
+	}
+
+	/**
+	 * Get the HMAC of the remaining bytes of given buffer.
+	 * 
+	 * @param input
+	 * @return Raw HMAC bytes.
+	 */
+	public byte[] sign(ByteBuffer input) {
+		Mac mac = scratch.get().mac;
+		mac.update(input);
+		return mac.doFinal();
+	}
+
+	/**
+	 * Get the hex encoded HMAC of given UTF-8 encoded input.
+	 * 
+	 * @param input
+	 * @return Hex encoded HMAC.
+	 */
+	public String signHex(String input) {
+		return Codec.hex_encode(sign(input.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Verify the hex encoded signature of given UTF-8 encoded input.
+	 * 
+	 * @param input
+	 * @param hexSignature Hex encoded signature to verify.
+	 * @return True if the signature is valid.
+	 */
+	public boolean verify(String input, String hexSignature) {
+		byte[] data = input.getBytes(StandardCharsets.UTF_8);
+		return verify(data, 0, data.length, hexSignature);
+	}
+
+	/**
+	 * Verify the hex encoded signature of given part of the input.
+	 * <p>
+	 * The signature is decoded into a reusable buffer and compared with the computed
+	 * HMAC in constant time, without creating any intermediate strings.
+	 * 
+	 * @param input
+	 * @param offset
+	 * @param length
+	 * @param hexSignature Hex encoded signature to verify.
+	 * @return True if the signature is valid.
+	 */
+	public boolean verify(byte[] input, int offset, int length, String hexSignature) {
+		if (hexSignature == null) {
+			return false;
+		}
+		Scratch scratch = this.scratch.get();
+		if (!Codec.hex_decode(hexSignature, scratch.expected)) {
+			return false;
+		}
+		try {
+			scratch.mac.update(input, offset, length);
+			scratch.mac.doFinal(scratch.computed, 0);
+		} catch (GeneralSecurityException e) {
+			return false;
+		}
+		return MessageDigest.isEqual(scratch.computed, scratch.expected);
+	}
+
+	/**
+	 * Get the HMAC algorithm name.
+	 */
+	public String getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * Create the Mac instance for the current thread.
+	 */
+	private Mac newMac() {
+		try {
+			return (Mac) prototype.clone();
+		} catch (CloneNotSupportedException e) {
+			try {
+				Mac mac = Mac.getInstance(algorithm);
+				mac.init(key);
+				return mac;
+			} catch (GeneralSecurityException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+	}
+
+
+	/**
+	 * Mac instance and buffers owned by a single thread.
+	 */
+	private static final class Scratch {
+
+		/**
+		 * Initialized Mac instance.
+		 */
+		final Mac mac;
+
+		/**
+		 * Buffer for the computed HMAC.
+		 */
+		final byte[] computed;
+
+		/**
+		 * Buffer for the decoded signature.
+		 */
+		final byte[] expected;
+
+		Scratch(Mac mac) {
+			this.mac = mac;
+			this.computed = new byte[mac.getMacLength()];
+			this.expected = new byte[mac.getMacLength()];
+		}
+
+	}
+
+}
@@ -0,0 +1,219 @@
+package com.rublon.sdk.core;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * JSON codec using the Jackson streaming parser and generator.
+ * <p>
+ * Decodes into the same org.json objects as {@link OrgJsonCodec}, but tokenizes
+ * the input without the character-by-character org.json tokenizer. Available when
+ * jackson-core is on the classpath, but used only when selected by the
+ * {@value JsonCodec#PROPERTY_JSON_CODEC} system property, e.g. -Drublon.json=jackson,
+ * so adding Jackson to the application for other purposes does not change
+ * how the SDK parses the API responses.
+ *
+ * @author Rublon Developers
+ */
+public class JacksonJsonCodec implements JsonCodec {
+
+	/**
+	 * Codec name.
+	 */
+	public static final String NAME = "jackson";
+
+	/**
+	 * Shared thread-safe parser and generator factory.
+	 */
+	private static final JsonFactory FACTORY = JsonFactory.builder()
+			.disable(JsonFactory.Feature.INTERN_FIELD_NAMES)
+			.build()
+			.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	/**
+	 * Lower than the default codec, the codec is opt-in.
+	 */
+	@Override
+	public int getPriority() {
+		return -10;
+	}
+
+	@Override
+	public JSONObject decode(String input) {
+		try (JsonParser parser = FACTORY.createParser(input)) {
+			return readRoot(parser);
+		} catch (IOException e) {
+			throw new JSONException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public JSONObject decode(byte[] input) {
+		try (JsonParser parser = FACTORY.createParser(input)) {
+			return readRoot(parser);
+		} catch (IOException e) {
+			throw new JSONException(e.getMessage(), e);
+		}
+	}
+
+	@Override
+	public String encode(Object value) {
+		StringWriter output = new StringWriter();
+		write(value, output);
+		return output.toString();
+	}
+
+	@Override
+	public void write(Object value, Writer output) {
+		try (JsonGenerator generator = FACTORY.createGenerator(output)) {
+			writeValue(generator, value);
+		} catch (IOException e) {
+			throw new JSONException(e.getMessage(), e);
+		}
+	}
+
+
+	/**
+	 * Read the root JSON object.
+	 *
+	 * @param parser
+	 * @throws IOException
+	 */
+	private static JSONObject readRoot(JsonParser parser) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new JSONException("A JSONObject text must begin with '{'");
+		}
+		return readObject(parser);
+	}
+
+
+	/**
+	 * Read the object whose start token has already been consumed.
+	 *
+	 * @param parser
+	 * @throws IOException
+	 */
+	private static JSONObject readObject(JsonParser parser) throws IOException {
+		JSONObject result = new JSONObject();
+		String name;
+		while ((name = parser.nextFieldName()) != null) {
+			if (result.has(name)) {
+				throw new JSONException("Duplicate key \"" + name + "\"");
+			}
+			result.put(name, readValue(parser, parser.nextToken()));
+		}
+		return result;
+	}
+
+
+	/**
+	 * Read the array whose start token has already been consumed.
+	 *
+	 * @param parser
+	 * @throws IOException
+	 */
+	private static JSONArray readArray(JsonParser parser) throws IOException {
+		JSONArray result = new JSONArray();
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			result.put(readValue(parser, token));
+		}
+		return result;
+	}
+
+
+	/**
+	 * Read the value starting with given token.
+	 *
+	 * @param parser
+	 * @param token
+	 * @throws IOException
+	 */
+	private static Object readValue(JsonParser parser, JsonToken token) throws IOException {
+		switch (token) {
+			case START_OBJECT:
+				return readObject(parser);
+			case START_ARRAY:
+				return readArray(parser);
+			case VALUE_STRING:
+				return parser.getText();
+			case VALUE_NUMBER_INT:
+				return parser.getNumberValue();
+			case VALUE_NUMBER_FLOAT:
+				return parser.getDecimalValue();
+			case VALUE_TRUE:
+				return Boolean.TRUE;
+			case VALUE_FALSE:
+				return Boolean.FALSE;
+			case VALUE_NULL:
+				return JSONObject.NULL;
+			default:
+				throw new JSONException("Unexpected token: " + token);
+		}
+	}
+
+
+	/**
+	 * Write any JSON value.
+	 *
+	 * @param generator
+	 * @param value
+	 * @throws IOException
+	 */
+	private static void writeValue(JsonGenerator generator, Object value) throws IOException {
+		if (value == null || JSONObject.NULL.equals(value)) {
+			generator.writeNull();
+		} else if (value instanceof String) {
+			generator.writeString((String) value);
+		} else if (value instanceof JSONObject) {
+			JSONObject object = (JSONObject) value;
+			generator.writeStartObject();
+			for (String key : object.keySet()) {
+				generator.writeFieldName(key);
+				writeValue(generator, object.opt(key));
+			}
+			generator.writeEndObject();
+		} else if (value instanceof JSONArray) {
+			JSONArray array = (JSONArray) value;
+			generator.writeStartArray();
+			for (int i = 0; i < array.length(); i++) {
+				writeValue(generator, array.opt(i));
+			}
+			generator.writeEndArray();
+		} else if (value instanceof Boolean) {
+			generator.writeBoolean((Boolean) value);
+		} else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			generator.writeNumber(((Number) value).longValue());
+		} else if (value instanceof BigInteger) {
+			generator.writeNumber((BigInteger) value);
+		} else if (value instanceof BigDecimal) {
+			generator.writeNumber((BigDecimal) value);
+		} else if (value instanceof Map) {
+			writeValue(generator, new JSONObject((Map<?, ?>) value));
+		} else if (value instanceof Collection) {
+			writeValue(generator, new JSONArray((Collection<?>) value));
+		} else {
+			generator.writeRawValue(JSONObject.valueToString(value));
+		}
+	}
+
+}
@@ -0,0 +1,110 @@
+package com.rublon.sdk.core;
+
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.json.JSONObject;
+
+/**
+ * JSON codec interface.
+ * <p>
+ * Codecs are discovered with {@link ServiceLoader}. The codec named by
+ * the {@value #PROPERTY_JSON_CODEC} system property is used when set, otherwise
+ * the available codec with the highest priority is used. The org.json codec
+ * has the highest priority of the bundled codecs, so the optional ones, e.g.
+ * {@link JacksonJsonCodec}, are used only when selected by the property.
+ * The codec in use is available by {@link Codec#json_codec()}.
+ * <p>
+ * Implementations must be thread-safe and throw {@link org.json.JSONException}
+ * on invalid input, the same as org.json does.
+ *
+ * @author Rublon Developers
+ */
+public interface JsonCodec {
+
+	/**
+	 * Name of the system property selecting the JSON codec.
+	 */
+	String PROPERTY_JSON_CODEC = "rublon.json";
+
+	/**
+	 * Get the codec name.
+	 */
+	String getName();
+
+	/**
+	 * Get the codec priority, higher is preferred.
+	 */
+	int getPriority();
+
+	/**
+	 * Decode the JSON object.
+	 *
+	 * @param input JSON string
+	 * @return Decoded object
+	 */
+	JSONObject decode(String input);
+
+	/**
+	 * Decode the JSON object.
+	 *
+	 * @param input UTF-8 encoded JSON
+	 * @return Decoded object
+	 */
+	JSONObject decode(byte[] input);
+
+	/**
+	 * Encode the value.
+	 *
+	 * @param value JSONObject, JSONArray, string, number, boolean or null
+	 * @return JSON string
+	 */
+	String encode(Object value);
+
+	/**
+	 * Encode the value into given writer.
+	 *
+	 * @param value JSONObject, JSONArray, string, number, boolean or null
+	 * @param output Writer
+	 */
+	void write(Object value, Writer output);
+
+	/**
+	 * Find the JSON codec.
+	 * <p>
+	 * Codecs which cannot be loaded in the current runtime are skipped.
+	 *
+	 * @return Codec selected by the system property, the one with the highest priority
+	 * or the default org.json codec.
+	 */
+	static JsonCodec load() {
+		String name = System.getProperty(PROPERTY_JSON_CODEC);
+		JsonCodec result = null;
+		Iterator<JsonCodec> it = ServiceLoader.load(JsonCodec.class,
+				JsonCodec.class.getClassLoader()).iterator();
+		while (true) {
+			JsonCodec codec;
+			try {
+				if (!it.hasNext()) {
+					break;
+				}
+				codec = it.next();
+			} catch (ServiceConfigurationError e) {
+				continue;
+			} catch (LinkageError e) {
+				continue;
+			}
+			if (name != null) {
+				if (name.equals(codec.getName())) {
+					return codec;
+				}
+			} else if (result == null || codec.getPriority() > result.getPriority()) {
+				result = codec;
+			}
+		}
+		return (result != null ? result : new OrgJsonCodec());
+	}
+
+}
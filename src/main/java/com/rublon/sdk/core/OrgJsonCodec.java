@@ -0,0 +1,71 @@
+package com.rublon.sdk.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * JSON codec using the org.json tree model.
+ * <p>
+ * The default codec, always available.
+ *
+ * @author Rublon Developers
+ */
+public class OrgJsonCodec implements JsonCodec {
+
+	/**
+	 * Codec name.
+	 */
+	public static final String NAME = "orgjson";
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public int getPriority() {
+		return 0;
+	}
+
+	@Override
+	public JSONObject decode(String input) {
+		return new JSONObject(input);
+	}
+
+	/**
+	 * The bytes are decoded while parsing, without creating the intermediate string.
+	 */
+	@Override
+	public JSONObject decode(byte[] input) {
+		return new JSONObject(new JSONTokener(new ByteArrayInputStream(input)));
+	}
+
+	@Override
+	public String encode(Object value) {
+		return JSONObject.valueToString(value);
+	}
+
+	@Override
+	public void write(Object value, Writer output) {
+		try {
+			if (value instanceof JSONObject) {
+				((JSONObject) value).write(output);
+			} else if (value instanceof JSONArray) {
+				((JSONArray) value).write(output);
+			} else if (value instanceof String) {
+				JSONObject.quote((String) value, output);
+			} else {
+				output.write(JSONObject.valueToString(value));
+			}
+		} catch (IOException e) {
+			throw new JSONException(e);
+		}
+	}
+
+}
@@ -0,0 +1,260 @@
+package com.rublon.sdk.core;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.json.JSONObject;
+
+import com.rublon.sdk.core.util.Settings;
+import com.rublon.sdk.core.util.Utf8Buffer;
+
+/**
+ * Streaming writer of the API request's JSON body.
+ * <p>
+ * Constant parts of the body (the system token and the SDK version) are
+ * encoded once and copied as bytes, only the variable fields are encoded
+ * per request. The body is written into the thread's reusable buffer.
+ *
+ * @author Rublon Developers
+ */
+public final class RequestBodyWriter {
+
+	/**
+	 * JSON codec encoding the variable fields.
+	 */
+	private static final JsonCodec CODEC = Codec.json_codec();
+
+	/**
+	 * Maximum number of cached body prefixes.
+	 */
+	private static final int CACHE_SIZE = 16;
+
+	/**
+	 * Encoded body prefixes by the system token.
+	 */
+	private static final ConcurrentMap<String, byte[]> PREFIX_CACHE = new ConcurrentHashMap<String, byte[]>();
+
+	/**
+	 * Encoded body prefix without the system token.
+	 */
+	private static final byte[] EMPTY_PREFIX = new byte[] {'{'};
+
+	/**
+	 * Encoded name of the SDK version field.
+	 */
+	private static final byte[] NAME_SDK_VER = name(RublonAuthParams.FIELD_SDK_VER);
+
+	/**
+	 * Output buffer.
+	 */
+	private final Utf8Buffer buffer;
+
+	/**
+	 * Writer encoding characters into the output buffer.
+	 */
+	private final Writer writer;
+
+	/**
+	 * Whether no member has been written to the current object yet.
+	 */
+	private boolean first;
+
+
+	/**
+	 * Start the request body with the system token field.
+	 *
+	 * @param systemToken System token or null to omit the field.
+	 */
+	public RequestBodyWriter(String systemToken) {
+		this.buffer = Utf8Buffer.acquire();
+		this.writer = buffer.asWriter();
+		if (systemToken != null) {
+			buffer.write(getPrefix(systemToken));
+			this.first = false;
+		} else {
+			buffer.write(EMPTY_PREFIX);
+			this.first = true;
+		}
+	}
+
+
+	/**
+	 * Encode the field name including the colon.
+	 * <p>
+	 * Intended for the field names kept in static constants.
+	 *
+	 * @param name Field name.
+	 */
+	static public byte[] name(String name) {
+		return (CODEC.encode(name) + ":").getBytes(StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Write the string field.
+	 *
+	 * @param name Encoded field name.
+	 * @param value Field value or null to omit the field.
+	 */
+	public RequestBodyWriter field(byte[] name, String value) {
+		if (value != null) {
+			separator();
+			buffer.write(name);
+			writeValue(value);
+		}
+		return this;
+	}
+
+
+	/**
+	 * Write the field of any JSON value.
+	 *
+	 * @param name Field name.
+	 * @param value Field value or null to omit the field.
+	 */
+	public RequestBodyWriter field(String name, Object value) {
+		if (value != null) {
+			separator();
+			writeValue(name);
+			buffer.write(':');
+			writeValue(value);
+		}
+		return this;
+	}
+
+
+	/**
+	 * Write all fields of given object.
+	 *
+	 * @param object JSON object or null.
+	 * @param skip Name of the field to skip or null.
+	 */
+	public RequestBodyWriter fields(JSONObject object, String skip) {
+		if (object != null) {
+			for (String key : object.keySet()) {
+				if (skip == null || !skip.equals(key)) {
+					field(key, object.opt(key));
+				}
+			}
+		}
+		return this;
+	}
+
+
+	/**
+	 * Write the SDK version field.
+	 */
+	public RequestBodyWriter sdkVer() {
+		byte[] field = SdkVer.FIELD;
+		if (field != null) {
+			separator();
+			buffer.write(field);
+		}
+		return this;
+	}
+
+
+	/**
+	 * Start the nested object field.
+	 *
+	 * @param name Encoded field name.
+	 */
+	public RequestBodyWriter beginObject(byte[] name) {
+		separator();
+		buffer.write(name).write('{');
+		first = true;
+		return this;
+	}
+
+
+	/**
+	 * End the nested object field.
+	 */
+	public RequestBodyWriter endObject() {
+		buffer.write('}');
+		first = false;
+		return this;
+	}
+
+
+	/**
+	 * End the request body and get its bytes.
+	 */
+	public byte[] toByteArray() {
+		buffer.write('}');
+		return buffer.toByteArray();
+	}
+
+
+	/**
+	 * Write the members separator if needed.
+	 */
+	private void separator() {
+		if (first) {
+			first = false;
+		} else {
+			buffer.write(',');
+		}
+	}
+
+
+	/**
+	 * Write any JSON value.
+	 *
+	 * @param value
+	 */
+	private void writeValue(Object value) {
+		CODEC.write(value, writer);
+	}
+
+
+	/**
+	 * Get the encoded body prefix for given system token.
+	 *
+	 * @param systemToken
+	 */
+	static private byte[] getPrefix(String systemToken) {
+		byte[] prefix = PREFIX_CACHE.get(systemToken);
+		if (prefix == null) {
+			if (PREFIX_CACHE.size() >= CACHE_SIZE) {
+				PREFIX_CACHE.clear();
+			}
+			prefix = ("{" + CODEC.encode(RublonAuthParams.FIELD_SYSTEM_TOKEN) + ":" + CODEC.encode(systemToken))
+					.getBytes(StandardCharsets.UTF_8);
+			PREFIX_CACHE.put(systemToken, prefix);
+		}
+		return prefix;
+	}
+
+
+	/**
+	 * Holder of the encoded SDK version field, read from the settings on first use.
+	 */
+	static private final class SdkVer {
+
+		/**
+		 * Encoded SDK version field or null if the version is unknown.
+		 */
+		static final byte[] FIELD = encode(Settings.getInstance().getSdkVer());
+
+		/**
+		 * Encode the SDK version field.
+		 *
+		 * @param sdkVer
+		 */
+		static private byte[] encode(String sdkVer) {
+			if (sdkVer == null) {
+				return null;
+			}
+			byte[] value = CODEC.encode(sdkVer).getBytes(StandardCharsets.UTF_8);
+			byte[] field = new byte[NAME_SDK_VER.length + value.length];
+			System.arraycopy(NAME_SDK_VER, 0, field, 0, NAME_SDK_VER.length);
+			System.arraycopy(value, 0, field, NAME_SDK_VER.length, value.length);
+			return field;
+		}
+
+	}
+
+}
@@ -1,6 +1,9 @@
 package com.rublon.sdk.core;
 
+import java.util.List;
+
 import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.rest.EndpointPool;
 
 
 /**
@@ -41,6 +44,13 @@ abstract public class RublonConsumer {
 	 */
 	protected String apiServer = null;
 	
+	/**
+	 * Pool of the Rublon API servers.
+	 * <p>
+	 * Requests are routed between the servers, the first one is the primary server.
+	 */
+	protected EndpointPool endpointPool = null;
+	
 	/**
 	 * Language code.
 	 * <p>
@@ -70,12 +80,33 @@ abstract public class RublonConsumer {
 		this.systemToken = systemToken;
 		this.secretKey = secretKey;
 		this.apiServer = apiServer;
+		this.endpointPool = new EndpointPool(apiServer);
+		this.lang = DEFAULT_LANG;
+	}
+
+
+	/**
+	 * Initialize RublonConsumer with multiple API servers.
+	 * <p>
+	 * Requests are routed to the fastest available server, e.g. between regional proxies.
+	 * 
+	 * @param systemToken
+	 * @param secretKey
+	 * @param apiServers API servers, the first one is the primary server.
+	 */
+	public RublonConsumer(String systemToken, String secretKey, List<String> apiServers) {
+		this.systemToken = systemToken;
+		this.secretKey = secretKey;
+		this.endpointPool = new EndpointPool(apiServers);
+		this.apiServer = endpointPool.getPrimary().getUrl();
 		this.lang = DEFAULT_LANG;
 	}
 
 
 	/**
 	 * Get Rublon API server.
+	 * <p>
+	 * The primary server when multiple servers are used.
 	 * 
 	 * @return String
 	 */
@@ -91,9 +122,19 @@ abstract public class RublonConsumer {
 	 */
 	public RublonConsumer setAPIServer(String domain) {
 		this.apiServer = domain;
+		this.endpointPool = new EndpointPool(domain);
 		return this;
 	}
 
+	/**
+	 * Get the pool of Rublon API servers.
+	 * 
+	 * @return EndpointPool
+	 */
+	public EndpointPool getEndpointPool() {
+		return endpointPool;
+	}
+
 	/**
 	 * Get secret key.
 	 * 
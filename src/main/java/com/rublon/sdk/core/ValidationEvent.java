@@ -0,0 +1,63 @@
+package com.rublon.sdk.core;
+
+/**
+ * Flight recorder event of the API response validation.
+ * <p>
+ * This version records nothing, the Java 11+ version of the multi-release jar
+ * is a JDK Flight Recorder event. Set the fields only when {@link #shouldCommit()}.
+ *
+ * @author Rublon Developers
+ */
+final class ValidationEvent {
+
+	/**
+	 * API method name.
+	 */
+	String method;
+
+	/**
+	 * HTTP status code.
+	 */
+	int status;
+
+	/**
+	 * Size of the response body in bytes.
+	 */
+	long bytesIn;
+
+	/**
+	 * Time in nanoseconds spent verifying the response signature.
+	 */
+	long verificationTime;
+
+	/**
+	 * {@link com.rublon.sdk.core.metrics.RublonMetrics#OUTCOME_OK} or the simple name of the exception class.
+	 */
+	String outcome;
+
+	/**
+	 * Start timing the event.
+	 */
+	public void begin() {
+	}
+
+	/**
+	 * Stop timing the event.
+	 */
+	public void end() {
+	}
+
+	/**
+	 * Check whether the event should be committed.
+	 */
+	public boolean shouldCommit() {
+		return false;
+	}
+
+	/**
+	 * Commit the event.
+	 */
+	public void commit() {
+	}
+
+}
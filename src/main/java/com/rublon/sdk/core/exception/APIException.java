@@ -1,13 +1,15 @@
 package com.rublon.sdk.core.exception;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.json.JSONObject;
 
 import com.rublon.sdk.core.APIMethod;
-import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.APIResponse;
+import com.rublon.sdk.core.rest.RESTResponse;
 
 /**
  * API exception class.
@@ -33,49 +35,49 @@ public class APIException extends RublonException {
 	public static final String FIELD_ITEM_NAME = "name";
 	
 	/**
-	 * REST client instance.
+	 * HTTP response which caused the exception.
 	 */
-	protected RESTClient client;
+	protected RESTResponse response;
 
 	/**
 	 * Construct the exception instance.
 	 * 
-	 * @param client REST client instance.
+	 * @param response HTTP response instance.
 	 * @param message Exception message.
 	 * @param cause Throwable cause.
 	 */
-	public APIException(RESTClient client, String message, Throwable cause) {
+	public APIException(RESTResponse response, String message, Throwable cause) {
 		super(message, cause);
-		this.client = client;
+		this.response = response;
 	}
 	
 
 	/**
 	 * Construct the exception instance.
 	 * 
-	 * @param client REST client instance.
+	 * @param response HTTP response instance.
 	 * @param message Exception message.
 	 */
-	public APIException(RESTClient client, String message) {
-		this(client, message, null);
+	public APIException(RESTResponse response, String message) {
+		this(response, message, null);
 	}
 	
 
 	/**
 	 * Construct the exception instance.
 	 * 
-	 * @param client REST client instance.
+	 * @param response HTTP response instance.
 	 */	
-	public APIException(RESTClient client) {
-		this(client, "", null);
+	public APIException(RESTResponse response) {
+		this(response, "", null);
 	}
 	
 	
 	/**
-	 * Get REST client instance.
+	 * Get the HTTP response instance.
 	 */
-	public RESTClient getClient() {
-		return client;
+	public RESTResponse getResponse() {
+		return response;
 	}
 	
 
@@ -86,42 +88,114 @@ public class APIException extends RublonException {
 	// ---------------------------------------------------------------------------------------------
 	
 	
+	/**
+	 * Factory creating the exception instance from the API error response.
+	 */
+	public interface Factory {
+		
+		/**
+		 * Create the exception instance.
+		 * 
+		 * @param response HTTP response instance.
+		 * @param message Error message or null if not present.
+		 * @param itemName Name of the invalid/missing field or null if not present.
+		 */
+		APIException create(RESTResponse response, String message, String itemName);
+		
+	}
+	
+	/**
+	 * Factories of the built-in exceptions by the exception name returned by the API.
+	 */
+	private static final Map<String, Factory> FACTORIES;
+	
+	/**
+	 * Factories registered by {@link #register(String, Factory)}.
+	 */
+	private static final ConcurrentMap<String, Factory> REGISTERED_FACTORIES = new ConcurrentHashMap<String, Factory>();
+	
+	/**
+	 * Factory of the generic exception used for unknown exception names.
+	 */
+	private static final Factory DEFAULT_FACTORY = (response, message, itemName) ->
+			(message != null ? new APIException(response, message) : new APIException(response));
+	
+	static {
+		Map<String, Factory> factories = new HashMap<String, Factory>();
+		factories.put("ApplicationNotFoundException", (response, message, itemName) -> new ApplicationNotFoundException(response, message));
+		factories.put("MissingFieldException", (response, message, itemName) ->
+				(itemName != null ? new MissingFieldException(response, message, itemName) : new MissingFieldException(response, message)));
+		factories.put("MissingHeaderException", (response, message, itemName) ->
+				(itemName != null ? new MissingHeaderException(response, message, itemName) : new MissingHeaderException(response, message)));
+		factories.put("EmptyInputIException", (response, message, itemName) -> new EmptyInputException(response, message));
+		factories.put("InvalidJSONException", (response, message, itemName) -> new InvalidJSONException(response, message));
+		factories.put("InvalidSignatureException", (response, message, itemName) -> new InvalidSignatureException(response, message));
+		factories.put("UnsupportedVersionException", (response, message, itemName) -> new UnsupportedVersionException(response, message));
+		factories.put("UserNotFoundException", (response, message, itemName) -> new UserNotFoundException(response, message));
+		factories.put("AccessTokenExpiredException", (response, message, itemName) -> new AccessTokenExpiredException(response, message));
+		factories.put("UnknownAccessTokenException", (response, message, itemName) -> new UnknownAccessTokenException(response, message));
+		factories.put("UnauthorizedUserException", (response, message, itemName) -> new UnauthorizedUserException(response, message));
+		factories.put("ForbiddenMethodException", (response, message, itemName) -> new ForbiddenMethodException(response, message));
+		factories.put("UserBypassedException", (response, message, itemName) -> new UserBypassedException(response, message));
+		factories.put("ApplicationDeniedException", (response, message, itemName) -> new ApplicationDeniedException(response, message));
+		factories.put("ApplicationDisabledException", (response, message, itemName) -> new ApplicationDisabledException(response, message));
+		factories.put("SubscriptionExpiredException", (response, message, itemName) -> new SubscriptionExpiredException(response, message));
+		factories.put("UserDeniedException", (response, message, itemName) -> new UserDeniedException(response, message));
+		factories.put("TransactionLockedException", (response, message, itemName) -> new TransactionLockedException(response, message));
+		FACTORIES = Collections.unmodifiableMap(factories);
+	}
+	
+	
+	/**
+	 * Register the factory of an additional exception returned by the API.
+	 * <p>
+	 * Built-in exceptions cannot be replaced.
+	 * 
+	 * @param name Exception name returned by the API.
+	 * @param factory Exception factory.
+	 */
+	static public void register(String name, Factory factory) {
+		if (FACTORIES.containsKey(name)) {
+			throw new IllegalArgumentException("Built-in exception cannot be replaced: " + name);
+		}
+		REGISTERED_FACTORIES.put(name, factory);
+	}
+	
+	
 	/**
 	 * Create the APIException instance by the API response.
 	 * 
-	 * @param client REST client instance.
+	 * @param response HTTP response instance.
 	 */
-	static public APIException factory(RESTClient client) {
+	static public APIException factory(RESTResponse response) {
+		return factory(APIResponse.parse(response));
+	}
+	
+	
+	/**
+	 * Create the APIException instance by the parsed API response.
+	 * 
+	 * @param parsed Parsed API response.
+	 */
+	static public APIException factory(APIResponse parsed) {
 		
 		APIException resultException = null;
+		RESTResponse response = parsed.getRESTResponse();
 		
-		String rawResponse = client.getRawResponse();
-		JSONObject response = new JSONObject(rawResponse);
-		if (response != null) {
-			String status = response.optString(APIMethod.FIELD_STATUS, null);
+		if (!parsed.isEmpty()) {
+			String status = parsed.getStatus();
 			if (status != null && status.equals(APIMethod.STATUS_ERROR)) {
-				JSONObject result = response.optJSONObject(APIMethod.FIELD_RESULT);
-				if (result != null) {
-					String exception = result.optString(FIELD_EXCEPTION, null);
-					if (exception != null) {
-						String message = result.optString(FIELD_MESSAGE, null);
-						String itemName = result.optString(FIELD_ITEM_NAME, null);
-						if (message != null && itemName != null) {
-							resultException = factory(exception, new Object[]{client, message, itemName});
-						}
-						else if (message != null) {
-							resultException = factory(exception, new Object[]{client, message});
-						} else {
-							resultException = factory(exception, new Object[]{client});
-						}
-						
-					}
+				String exception = parsed.getResultString(FIELD_EXCEPTION);
+				if (exception != null) {
+					String message = parsed.getResultString(FIELD_MESSAGE);
+					String itemName = parsed.getResultString(FIELD_ITEM_NAME);
+					resultException = factory(exception, response, message, itemName);
 				}
 			}
 		}
 		
 		if (resultException == null) {
-			resultException = new APIException(client);
+			resultException = new APIException(response);
 		}
 		
 		return resultException;
@@ -132,84 +206,50 @@ public class APIException extends RublonException {
 	/**
 	 * Get the exception instance by given name and arguments.
 	 * 
-	 * @param name Exception class name.
-	 * @param args Arguments array.
-	 * @return
+	 * @param name Exception name returned by the API.
+	 * @param response HTTP response instance.
+	 * @param message Error message or null if not present.
+	 * @param itemName Name of the invalid/missing field or null if not present.
+	 */
+	static public APIException factory(String name, RESTResponse response, String message, String itemName) {
+		return factoryGet(name).create(response, message, itemName);
+	}
+	
+	
+	/**
+	 * Get the exception instance by given name and arguments.
+	 * 
+	 * @param name Exception name returned by the API.
+	 * @param args Arguments array: response, optional message and optional item name.
+	 * @return Exception or null if the arguments do not match.
 	 */
-	@SuppressWarnings("unchecked")
 	static public APIException factory(String name, Object[] args) {
-		@SuppressWarnings("rawtypes")
-		Class[] typesArray = new Class[args.length];
-		for (int i=0; i<args.length; i++) {
-			if (args[i] instanceof RESTClient){
-				typesArray[i] = RESTClient.class;
-			}else {
-				typesArray[i] = args[i].getClass();
-			}
-		}
-		
-		@SuppressWarnings("rawtypes")
-		Constructor constructor;
-		try {
-			constructor = factoryGetClass(name).getConstructor(typesArray);
-		} catch (SecurityException e) {
-			return null;
-		} catch (NoSuchMethodException e) {
-			return null;
-		}
-		Object instance;
-		try {
-			instance = constructor.newInstance(args);
-		} catch (IllegalArgumentException e) {
-			return null;
-		} catch (InstantiationException e) {
-			return null;
-		} catch (IllegalAccessException e) {
-			return null;
-		} catch (InvocationTargetException e) {
+		if (args.length < 1 || args.length > 3 || !(args[0] instanceof RESTResponse)) {
 			return null;
 		}
-		if (instance instanceof APIException) {
-			return (APIException)instance;
-		} else {
-			return null;
+		for (int i=1; i<args.length; i++) {
+			if (!(args[i] instanceof String)) {
+				return null;
+			}
 		}
+		return factory(name, (RESTResponse) args[0],
+				(args.length > 1 ? (String) args[1] : null),
+				(args.length > 2 ? (String) args[2] : null));
 	}
 	
 
 	/**
-	 * Get the Class object by given name.
+	 * Get the exception factory by given name.
 	 * 
-	 * @param name Exception class name.
+	 * @param name Exception name returned by the API.
+	 * @return Built-in, registered or the generic exception factory.
 	 */
-	@SuppressWarnings("rawtypes")
-	static public Class factoryGetClass(String name) {
-		
-		HashMap<String,Class> map = new HashMap<String, Class>();
-		map.put("ApplicationNotFoundException", APIException.ApplicationNotFoundException.class);
-		map.put("MissingFieldException", APIException.MissingFieldException.class);
-		map.put("MissingHeaderException", APIException.MissingHeaderException.class);
-		map.put("EmptyInputIException", APIException.EmptyInputException.class);
-		map.put("InvalidJSONException", APIException.InvalidJSONException.class);
-		map.put("InvalidSignatureException", APIException.InvalidSignatureException.class);
-		map.put("UnsupportedVersionException", APIException.UnsupportedVersionException.class);
-		map.put("UserNotFoundException", APIException.UserNotFoundException.class);
-		map.put("AccessTokenExpiredException", APIException.AccessTokenExpiredException.class);
-		map.put("UnknownAccessTokenException", APIException.UnknownAccessTokenException.class);
-		map.put("UnauthorizedUserException", APIException.UnauthorizedUserException.class);
-		map.put("ForbiddenMethodException", APIException.ForbiddenMethodException.class);
-		map.put("UserBypassedException", APIException.UserBypassedException.class);
-		map.put("ApplicationDeniedException", APIException.ApplicationDeniedException.class);
-		map.put("ApplicationDisabledException", APIException.ApplicationDisabledException.class);
-		map.put("SubscriptionExpiredException", SubscriptionExpiredException.class);
-		map.put("UserDeniedException", APIException.UserDeniedException.class);
-		map.put("TransactionLockedException", APIException.TransactionLockedException.class);
-		
-		if (map.containsKey(name)) {
-			return map.get(name);
-		} else {
-			return APIException.class;
+	static public Factory factoryGet(String name) {
+		Factory factory = FACTORIES.get(name);
+		if (factory == null) {
+			factory = REGISTERED_FACTORIES.get(name);
 		}
+		return (factory != null ? factory : DEFAULT_FACTORY);
 	}
 	
 	
@@ -218,146 +258,146 @@ public class APIException extends RublonException {
 	// ---------------------------------------------------------------------------------------------
 
 	static public class ApplicationNotFoundException extends APIException {
-		public ApplicationNotFoundException(RESTClient client, String message) {
-			super(client, message);
+		public ApplicationNotFoundException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public ApplicationNotFoundException(RESTClient client) {
-			this(client, null);
+		public ApplicationNotFoundException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
 	static public class EmptyInputException extends APIException {
-		public EmptyInputException(RESTClient client, String message) {
-			super(client, message);
+		public EmptyInputException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public EmptyInputException(RESTClient client) {
-			this(client, null);
+		public EmptyInputException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 	
 	static public class InvalidJSONException extends APIException {
-		public InvalidJSONException(RESTClient client, String message) {
-			super(client, message);
+		public InvalidJSONException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public InvalidJSONException(RESTClient client) {
-			this(client, null);
+		public InvalidJSONException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 	
 	static public class UserBypassedException extends APIException {
-		public UserBypassedException(RESTClient client, String message) {
-			super(client, message);
+		public UserBypassedException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public UserBypassedException(RESTClient client) {
-			this(client, null);
+		public UserBypassedException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
 	static public class InvalidSignatureException extends APIException {
-		public InvalidSignatureException(RESTClient client, String message) {
-			super(client, message);
+		public InvalidSignatureException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public InvalidSignatureException(RESTClient client) {
-			this(client, null);
+		public InvalidSignatureException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
 	static public class UnsupportedVersionException extends APIException {
-		public UnsupportedVersionException(RESTClient client, String message) {
-			super(client, message);
+		public UnsupportedVersionException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public UnsupportedVersionException(RESTClient client) {
-			this(client, null);
+		public UnsupportedVersionException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 	
 	static public class UserNotFoundException extends APIException {
-		public UserNotFoundException(RESTClient client, String message) {
-			super(client, message);
+		public UserNotFoundException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public UserNotFoundException(RESTClient client) {
-			this(client, null);
+		public UserNotFoundException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 	
 	static public class AccessTokenExpiredException extends APIException {
-		public AccessTokenExpiredException(RESTClient client, String message) {
-			super(client, message);
+		public AccessTokenExpiredException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public AccessTokenExpiredException(RESTClient client) {
-			this(client, null);
+		public AccessTokenExpiredException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 	
 	static public class UnknownAccessTokenException extends APIException {
-		public UnknownAccessTokenException(RESTClient client, String message) {
-			super(client, message);
+		public UnknownAccessTokenException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public UnknownAccessTokenException(RESTClient client) {
-			this(client, null);
+		public UnknownAccessTokenException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
 	static public class UnauthorizedUserException extends APIException {
-		public UnauthorizedUserException(RESTClient client, String message) {
-			super(client, message);
+		public UnauthorizedUserException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public UnauthorizedUserException(RESTClient client) {
-			this(client, null);
+		public UnauthorizedUserException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 	
 	static public class ForbiddenMethodException extends APIException {
-		public ForbiddenMethodException(RESTClient client, String message) {
-			super(client, message);
+		public ForbiddenMethodException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public ForbiddenMethodException(RESTClient client) {
-			this(client, null);
+		public ForbiddenMethodException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
 	static public class ApplicationDeniedException extends APIException {
-		public ApplicationDeniedException(RESTClient client, String message) {
-			super(client, message);
+		public ApplicationDeniedException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public ApplicationDeniedException(RESTClient client) {
-			this(client, null);
+		public ApplicationDeniedException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
 	static public class ApplicationDisabledException extends APIException {
-		public ApplicationDisabledException(RESTClient client, String message) {
-			super(client, message);
+		public ApplicationDisabledException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public ApplicationDisabledException(RESTClient client) {
-			this(client, null);
+		public ApplicationDisabledException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
 	static public class SubscriptionExpiredException extends APIException {
-		public SubscriptionExpiredException(RESTClient client, String message) {
-			super(client, message);
+		public SubscriptionExpiredException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public SubscriptionExpiredException(RESTClient client) {
-			this(client, null);
+		public SubscriptionExpiredException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
 	static public class UserDeniedException extends APIException {
-		public UserDeniedException(RESTClient client, String message) {
-			super(client, message);
+		public UserDeniedException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public UserDeniedException(RESTClient client) {
-			this(client, null);
+		public UserDeniedException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
 	static public class TransactionLockedException extends APIException{
-		public TransactionLockedException(RESTClient client, String message) {
-			super(client, message);
+		public TransactionLockedException(RESTResponse response, String message) {
+			super(response, message);
 		}
-		public TransactionLockedException(RESTClient client) {
-			this(client, null);
+		public TransactionLockedException(RESTResponse response) {
+			this(response, null);
 		}
 	}
 
@@ -366,14 +406,14 @@ public class APIException extends RublonException {
 		private static final long serialVersionUID = 3485239679798013817L;
 		String itemName;
 		
-		public MissingFieldException(RESTClient client, String message, String itemName) {
-			super(client, "Missing field: " + itemName);
+		public MissingFieldException(RESTResponse response, String message, String itemName) {
+			super(response, "Missing field: " + itemName);
 			this.itemName = itemName;
 		}
 		
 		
-		public MissingFieldException(RESTClient client, String itemName) {
-			this(client, null, itemName);
+		public MissingFieldException(RESTResponse response, String itemName) {
+			this(response, null, itemName);
 		}
 		
 		public String getName() {
@@ -384,22 +424,22 @@ public class APIException extends RublonException {
 	
 	static public class MissingHeaderException extends MissingFieldException {
 		private static final long serialVersionUID = 2217502508340486741L;
-		public MissingHeaderException(RESTClient client, String message, String itemName) {
-			super(client, message, itemName);
+		public MissingHeaderException(RESTResponse response, String message, String itemName) {
+			super(response, message, itemName);
 		}
-		public MissingHeaderException(RESTClient client, String itemName) {
-			this(client, null, itemName);
+		public MissingHeaderException(RESTResponse response, String itemName) {
+			this(response, null, itemName);
 		}
 	}
 	
 	
 	static public class InvalidFieldException extends MissingFieldException {
 		private static final long serialVersionUID = 221750250834486741L;
-		public InvalidFieldException(RESTClient client, String message, String itemName) {
-			super(client, message, itemName);
+		public InvalidFieldException(RESTResponse response, String message, String itemName) {
+			super(response, message, itemName);
 		}
-		public InvalidFieldException(RESTClient client, String itemName) {
-			this(client, null, itemName);
+		public InvalidFieldException(RESTResponse response, String itemName) {
+			this(response, null, itemName);
 		}
 	}
 
@@ -1,6 +1,6 @@
 package com.rublon.sdk.core.exception;
 
-import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.RESTResponse;
 
 /**
  * Client exception class.
@@ -10,46 +10,46 @@ public class ClientException extends RublonException {
 	private static final long serialVersionUID = -4584271816101329116L;
 	
 	/**
-	 * REST client instance.
+	 * HTTP response which caused the exception.
 	 */
-	protected RESTClient client;
+	protected RESTResponse response;
 
 	/**
 	 * Construct the client exception instance.
 	 * 
-	 * @param client REST client instance.
+	 * @param response HTTP response instance.
 	 * @param message Error message.
 	 * @param cause Throwable cause.
 	 */
-	public ClientException(RESTClient client, String message, Throwable cause) {
+	public ClientException(RESTResponse response, String message, Throwable cause) {
 		super(message, cause);
-		this.client = client;
+		this.response = response;
 	}
 	
 	/**
 	 * Construct the client exception instance.
 	 * 
-	 * @param client REST client instance.
+	 * @param response HTTP response instance.
 	 * @param message Error message.
 	 */
-	public ClientException(RESTClient client, String message) {
-		this(client, message, null);
+	public ClientException(RESTResponse response, String message) {
+		this(response, message, null);
 	}
 	
 	/**
 	 * Construct the client exception instance.
 	 * 
-	 * @param client REST client instance.
+	 * @param response HTTP response instance.
 	 */
-	public ClientException(RESTClient client) {
-		this(client, null, null);
+	public ClientException(RESTResponse response) {
+		this(response, null, null);
 	}
 	
 	/**
-	 * Get the REST client instance.
+	 * Get the HTTP response instance.
 	 */
-	public RESTClient getClient() {
-		return client;
+	public RESTResponse getResponse() {
+		return response;
 	}
 	
 	
@@ -60,45 +60,45 @@ public class ClientException extends RublonException {
 	
 	static public class ResponseException extends ClientException {
 		private static final long serialVersionUID = -1209138997735327403L;
-		public ResponseException(RESTClient client) {
-			super(client);
+		public ResponseException(RESTResponse response) {
+			super(response);
 		}
 	}
 	
 	
 	static public class InvalidSignatureException extends ResponseException {
 		private static final long serialVersionUID = -120913899773527403L;
-		public InvalidSignatureException(RESTClient client) {
-			super(client);
+		public InvalidSignatureException(RESTResponse response) {
+			super(response);
 		}
 	}
 	
 	
 	static public class ErrorResponseException extends ResponseException {
 		private static final long serialVersionUID = -1998935794111665471L;
-		public ErrorResponseException(RESTClient client) {
-			super(client);
+		public ErrorResponseException(RESTResponse response) {
+			super(response);
 		}
 	}
 	
 	static public class EmptyResponseException extends ResponseException {
 		private static final long serialVersionUID = -339778272363084859L;
-		public EmptyResponseException(RESTClient client) {
-			super(client);
+		public EmptyResponseException(RESTResponse response) {
+			super(response);
 		}
 	}
 	
 	static public class InvalidResponseException extends ResponseException {
 		private static final long serialVersionUID = 9146718611923917693L;
-		public InvalidResponseException(RESTClient client) {
-			super(client);
+		public InvalidResponseException(RESTResponse response) {
+			super(response);
 		}
 	}
 	
 	static public class InvalidJSONException extends InvalidResponseException {
 		private static final long serialVersionUID = -1594192671166642559L;
-		public InvalidJSONException(RESTClient client) {
-			super(client);
+		public InvalidJSONException(RESTResponse response) {
+			super(response);
 		}
 	}
 
@@ -107,8 +107,8 @@ public class ClientException extends RublonException {
 		private static final long serialVersionUID = 348523979798013817L;
 		String itemName;
 		
-		public MissingFieldException(RESTClient client, String itemName) {
-			super(client, "Missing field: " + itemName);
+		public MissingFieldException(RESTResponse response, String itemName) {
+			super(response, "Missing field: " + itemName);
 			this.itemName = itemName;
 		}
 		
@@ -120,8 +120,8 @@ public class ClientException extends RublonException {
 	
 	static public class MissingHeaderException extends MissingFieldException {
 		private static final long serialVersionUID = 221750250840486741L;
-		public MissingHeaderException(RESTClient client, String itemName) {
-			super(client, itemName);
+		public MissingHeaderException(RESTResponse response, String itemName) {
+			super(response, itemName);
 		}
 	}
 
@@ -29,7 +29,51 @@ public class ConnectionException extends RublonException {
 	public ConnectionException(String message) {
 		super(message);
 	}
+	
+	
+	/**
+	 * Connection to the server could not be established, so the request has not been sent.
+	 * <p>
+	 * Requests failed this way are safe to retry.
+	 */
+	static public class ConnectFailedException extends ConnectionException {
+		private static final long serialVersionUID = 4830517392761924153L;
+		public ConnectFailedException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+	
+	
+	/**
+	 * Request rejected without contacting the server, because the circuit breaker is open.
+	 */
+	static public class CircuitOpenException extends ConnectionException {
+		private static final long serialVersionUID = -2716408431659286310L;
+		public CircuitOpenException(String message) {
+			super(message);
+		}
+	}
+
+
+	/**
+	 * Request rejected without contacting the server, because too many API calls are in flight.
+	 */
+	static public class ConcurrencyLimitException extends ConnectionException {
+		private static final long serialVersionUID = 3549265617040388172L;
+		public ConcurrencyLimitException(String message) {
+			super(message);
+		}
+	}
 
 
+	/**
+	 * Deadline of the API call expired, the in-flight request has been aborted.
+	 */
+	static public class DeadlineExceededException extends ConnectionException {
+		private static final long serialVersionUID = 6203318944710251586L;
+		public DeadlineExceededException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
 
 }
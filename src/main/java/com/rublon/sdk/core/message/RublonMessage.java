@@ -124,7 +124,7 @@ public class RublonMessage {
 	 * @return Self instance
 	 */
 	public RublonMessage setBody(JSONObject body) {
-		this.setBody(body.toString());
+		this.setBody(Codec.json_encode(body));
 		return this;
 	}
 	
@@ -136,7 +136,7 @@ public class RublonMessage {
 		JSONObject json = new JSONObject();
 		json.put(RublonMessage.FIELD_HEAD, this.head);
 		json.put(RublonMessage.FIELD_BODY, this.body);
-		return json.toString();
+		return Codec.json_encode(json);
 	}
 	
 	
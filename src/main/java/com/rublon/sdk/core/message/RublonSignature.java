@@ -122,7 +122,7 @@ public class RublonSignature {
 	 * Get object as JSON string
 	 */
 	public String toString() {
-		return this.getJSONObject().toString();
+		return Codec.json_encode(this.getJSONObject());
 	}
 	
 	
@@ -198,8 +198,7 @@ public class RublonSignature {
 	 * @return bool
 	 */
 	public static boolean verifyData(String data, String secretKey, String sign) {
-		String dataSign = sign(data, secretKey);
-		return (dataSign.equals(sign));
+		return Codec.hmac_verify("SHA256", secretKey, data, sign);
 	}
 
 	
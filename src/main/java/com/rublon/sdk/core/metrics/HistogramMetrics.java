@@ -0,0 +1,185 @@
+package com.rublon.sdk.core.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory metrics class.
+ * <p>
+ * Keeps a {@link LatencyHistogram} of each phase and of the whole calls,
+ * and the counts of the outcomes, per API method. The metrics of several
+ * clients can be merged.
+ *
+ * @author Rublon Developers
+ */
+public class HistogramMetrics implements RublonMetrics {
+
+	/**
+	 * Metrics of the API methods.
+	 */
+	private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<String, MethodMetrics>();
+
+	@Override
+	public void recordPhase(String method, Phase phase, long duration) {
+		getMethod(method).getPhase(phase).record(duration);
+	}
+
+	@Override
+	public void recordCall(String method, long duration, String outcome) {
+		MethodMetrics metrics = getMethod(method);
+		metrics.calls.record(duration);
+		metrics.outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+	}
+
+	/**
+	 * Get the names of the API methods called so far.
+	 */
+	public Set<String> getMethodNames() {
+		return Collections.unmodifiableSet(methods.keySet());
+	}
+
+	/**
+	 * Get the metrics of given API method.
+	 *
+	 * @param method API method name, e.g. "transaction/init".
+	 */
+	public MethodMetrics getMethod(String method) {
+		MethodMetrics metrics = methods.get(method);
+		return (metrics != null ? metrics : methods.computeIfAbsent(method, key -> new MethodMetrics()));
+	}
+
+	/**
+	 * Add the metrics recorded by given instance to this one.
+	 *
+	 * @param other Metrics.
+	 * @return HistogramMetrics
+	 */
+	public HistogramMetrics merge(HistogramMetrics other) {
+		for (Map.Entry<String, MethodMetrics> entry : other.methods.entrySet()) {
+			getMethod(entry.getKey()).merge(entry.getValue());
+		}
+		return this;
+	}
+
+	/**
+	 * Forget the recorded metrics.
+	 */
+	public void reset() {
+		methods.clear();
+	}
+
+	/**
+	 * Create string from the metrics summary.
+	 */
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		for (Map.Entry<String, MethodMetrics> entry : new TreeMap<String, MethodMetrics>(methods).entrySet()) {
+			result.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+		}
+		return result.toString();
+	}
+
+
+	/**
+	 * Metrics of a single API method.
+	 */
+	static public class MethodMetrics {
+
+		/**
+		 * Histograms of the phases, indexed by the phase ordinal.
+		 */
+		private final LatencyHistogram[] phases = new LatencyHistogram[Phase.values().length];
+
+		/**
+		 * Histogram of the whole calls.
+		 */
+		private final LatencyHistogram calls = new LatencyHistogram();
+
+		/**
+		 * Counts of the outcomes.
+		 */
+		private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<String, LongAdder>();
+
+		/**
+		 * Construct the method metrics.
+		 */
+		MethodMetrics() {
+			for (int i = 0; i < phases.length; i++) {
+				phases[i] = new LatencyHistogram();
+			}
+		}
+
+		/**
+		 * Get the histogram of given phase.
+		 *
+		 * @param phase Phase.
+		 */
+		public LatencyHistogram getPhase(Phase phase) {
+			return phases[phase.ordinal()];
+		}
+
+		/**
+		 * Get the histogram of the whole calls.
+		 */
+		public LatencyHistogram getCalls() {
+			return calls;
+		}
+
+		/**
+		 * Get the number of calls with given outcome.
+		 *
+		 * @param outcome {@link RublonMetrics#OUTCOME_OK} or the simple name of the exception class.
+		 */
+		public long getOutcomeCount(String outcome) {
+			LongAdder count = outcomes.get(outcome);
+			return (count != null ? count.sum() : 0);
+		}
+
+		/**
+		 * Get the numbers of calls by outcome.
+		 */
+		public Map<String, Long> getOutcomeCounts() {
+			Map<String, Long> result = new TreeMap<String, Long>();
+			for (Map.Entry<String, LongAdder> entry : outcomes.entrySet()) {
+				result.put(entry.getKey(), entry.getValue().sum());
+			}
+			return result;
+		}
+
+		/**
+		 * Add the metrics recorded by given instance to this one.
+		 *
+		 * @param other Method metrics.
+		 */
+		void merge(MethodMetrics other) {
+			for (int i = 0; i < phases.length; i++) {
+				phases[i].merge(other.phases[i]);
+			}
+			calls.merge(other.calls);
+			for (Map.Entry<String, LongAdder> entry : other.outcomes.entrySet()) {
+				outcomes.computeIfAbsent(entry.getKey(), key -> new LongAdder()).add(entry.getValue().sum());
+			}
+		}
+
+		/**
+		 * Create string from the method metrics summary.
+		 */
+		public String toString() {
+			StringBuilder result = new StringBuilder();
+			result.append("calls ").append(calls).append(' ').append(getOutcomeCounts());
+			for (Phase phase : Phase.values()) {
+				LatencyHistogram histogram = getPhase(phase);
+				if (histogram.getCount() > 0) {
+					result.append("\n  ").append(phase).append(' ').append(histogram);
+				}
+			}
+			return result.toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,220 @@
+package com.rublon.sdk.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latency histogram class.
+ * <p>
+ * Counts the latencies in log-linear buckets, the same way as HdrHistogram:
+ * each power of two range is split into {@value #SUB_BUCKETS} equal buckets,
+ * so the recorded values keep their first {@value #SIGNIFICANT_BITS} significant
+ * bits and any percentile is reported within about 3% of the exact value.
+ * All histograms have the same buckets, so they can be merged, e.g. the histograms
+ * of several clients or time intervals.
+ * <p>
+ * Recording is lock-free and never allocates. Latencies above about
+ * 18 minutes are counted as the maximum.
+ *
+ * @author Rublon Developers
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Number of significant bits kept by the buckets.
+	 */
+	public static final int SIGNIFICANT_BITS = 5;
+
+	/**
+	 * Number of buckets of each power of two range.
+	 */
+	public static final int SUB_BUCKETS = 1 << SIGNIFICANT_BITS;
+
+	/**
+	 * Highest trackable latency in nanoseconds.
+	 */
+	public static final long MAX_VALUE = (1L << 40) - 1;
+
+	/**
+	 * Number of buckets.
+	 */
+	private static final int BUCKETS = getIndex(MAX_VALUE) + 1;
+
+	/**
+	 * Counts of the buckets.
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * Number of recorded latencies.
+	 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * Sum of the recorded latencies in nanoseconds.
+	 */
+	private final AtomicLong total = new AtomicLong();
+
+	/**
+	 * Highest recorded latency in nanoseconds.
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Record the latency.
+	 *
+	 * @param latency Latency in nanoseconds, negative values are counted as zero.
+	 */
+	public void record(long latency) {
+		long value = Math.min(Math.max(latency, 0), MAX_VALUE);
+		counts.incrementAndGet(getIndex(value));
+		count.incrementAndGet();
+		total.addAndGet(value);
+		updateMax(value);
+	}
+
+	/**
+	 * Add the latencies recorded by given histogram to this one.
+	 *
+	 * @param other Histogram.
+	 * @return LatencyHistogram
+	 */
+	public LatencyHistogram merge(LatencyHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			long bucket = other.counts.get(i);
+			if (bucket > 0) {
+				counts.addAndGet(i, bucket);
+			}
+		}
+		count.addAndGet(other.count.get());
+		total.addAndGet(other.total.get());
+		updateMax(other.max.get());
+		return this;
+	}
+
+	/**
+	 * Create the copy of this histogram, e.g. to report it while the latencies are recorded.
+	 */
+	public LatencyHistogram copy() {
+		return new LatencyHistogram().merge(this);
+	}
+
+	/**
+	 * Forget the recorded latencies.
+	 * <p>
+	 * Latencies recorded concurrently may be partially kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+
+	/**
+	 * Get the number of recorded latencies.
+	 */
+	public long getCount() {
+		return count.get();
+	}
+
+	/**
+	 * Get the sum of the recorded latencies in nanoseconds.
+	 */
+	public long getTotal() {
+		return total.get();
+	}
+
+	/**
+	 * Get the highest recorded latency in nanoseconds.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Get the mean latency in nanoseconds.
+	 *
+	 * @return Mean or 0 if nothing has been recorded.
+	 */
+	public double getMean() {
+		long n = count.get();
+		return (n > 0 ? (double) total.get() / n : 0);
+	}
+
+	/**
+	 * Get the latency at given percentile.
+	 *
+	 * @param percentile Percentile, from 0 to 100.
+	 * @return Highest latency in nanoseconds of the bucket containing the percentile,
+	 * not above the maximum, or 0 if nothing has been recorded.
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long n = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			n += counts.get(i);
+		}
+		if (n == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(getHighestValue(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Get the bucket of given value.
+	 *
+	 * @param value Value from 0 to {@link #MAX_VALUE}.
+	 */
+	private static int getIndex(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SIGNIFICANT_BITS;
+		return ((shift + 1) << SIGNIFICANT_BITS) + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	/**
+	 * Get the highest value counted in given bucket.
+	 *
+	 * @param index Bucket.
+	 */
+	private static long getHighestValue(int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+		int shift = (index >> SIGNIFICANT_BITS) - 1;
+		long lowest = (long) ((index & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * Raise the highest recorded latency to given value.
+	 *
+	 * @param value Latency in nanoseconds.
+	 */
+	private void updateMax(long value) {
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+		}
+	}
+
+	/**
+	 * Create string from the histogram summary.
+	 */
+	public String toString() {
+		return "count=" + getCount() + " mean=" + (long) getMean() + "ns p50=" + getValueAtPercentile(50)
+				+ "ns p99=" + getValueAtPercentile(99) + "ns max=" + getMax() + "ns";
+	}
+
+}
@@ -0,0 +1,207 @@
+package com.rublon.sdk.core.metrics;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import com.rublon.sdk.core.rest.ConcurrencyLimiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer metrics adapter.
+ * <p>
+ * Publishes the phases as the {@value #PHASE_TIMER} timer tagged by
+ * the method and phase, and the calls as the {@value #CALL_TIMER} timer
+ * tagged by the method and outcome, so any registry can scrape them.
+ * Percentile histograms are enabled by the registry's meter filters.
+ * <p>
+ * When the client has a concurrency limiter, its limit, calls in flight and waiting
+ * calls are published as gauges and its rejections as the {@value #LIMITER_REJECTIONS}
+ * counter. The meters follow the limiter currently set on the client.
+ * <p>
+ * Requires micrometer-core on the classpath.
+ *
+ * @author Rublon Developers
+ */
+public class MicrometerMetrics implements RublonMetrics {
+
+	/**
+	 * Name of the timer of the phases.
+	 */
+	public static final String PHASE_TIMER = "rublon.api.phase";
+
+	/**
+	 * Name of the timer of the calls.
+	 */
+	public static final String CALL_TIMER = "rublon.api.calls";
+
+	/**
+	 * Name of the gauge of the concurrency limit.
+	 */
+	public static final String LIMITER_LIMIT = "rublon.limiter.limit";
+
+	/**
+	 * Name of the gauge of the calls in flight.
+	 */
+	public static final String LIMITER_IN_FLIGHT = "rublon.limiter.inflight";
+
+	/**
+	 * Name of the gauge of the waiting calls.
+	 */
+	public static final String LIMITER_QUEUED = "rublon.limiter.queued";
+
+	/**
+	 * Name of the counter of the rejected calls.
+	 */
+	public static final String LIMITER_REJECTIONS = "rublon.limiter.rejections";
+
+	/**
+	 * Meter registry.
+	 */
+	private final MeterRegistry registry;
+
+	/**
+	 * Timers of the phases by method, indexed by the phase ordinal.
+	 */
+	private final Map<String, Timer[]> phaseTimers = new ConcurrentHashMap<String, Timer[]>();
+
+	/**
+	 * Timers of the calls by method and outcome.
+	 */
+	private final Map<String, Map<String, Timer>> callTimers = new ConcurrentHashMap<String, Map<String, Timer>>();
+
+	/**
+	 * Bound concurrency limiter or null.
+	 */
+	private volatile ConcurrencyLimiter limiter;
+
+	/**
+	 * Rejections of the previously bound limiters, so the counter does not decrease.
+	 */
+	private long previousRejections;
+
+	/**
+	 * Whether the meters of the limiter have been registered.
+	 */
+	private boolean limiterMeters;
+
+	/**
+	 * Construct the adapter.
+	 *
+	 * @param registry Meter registry.
+	 */
+	public MicrometerMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Override
+	public void recordPhase(String method, Phase phase, long duration) {
+		Timer[] timers = phaseTimers.get(method);
+		if (timers == null) {
+			timers = phaseTimers.computeIfAbsent(method, this::createPhaseTimers);
+		}
+		timers[phase.ordinal()].record(duration, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void recordCall(String method, long duration, String outcome) {
+		Map<String, Timer> timers = callTimers.get(method);
+		if (timers == null) {
+			timers = callTimers.computeIfAbsent(method, key -> new ConcurrentHashMap<String, Timer>());
+		}
+		Timer timer = timers.get(outcome);
+		if (timer == null) {
+			timer = timers.computeIfAbsent(outcome, key -> Timer.builder(CALL_TIMER)
+					.description("Rublon API calls")
+					.tag("method", method)
+					.tag("outcome", outcome)
+					.register(registry));
+		}
+		timer.record(duration, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public synchronized void bindLimiter(ConcurrencyLimiter limiter) {
+		ConcurrencyLimiter previous = this.limiter;
+		if (previous == limiter) {
+			return;
+		}
+		if (previous != null) {
+			previousRejections += previous.getRejectedCount();
+		}
+		this.limiter = limiter;
+		if (limiter != null && !limiterMeters) {
+			registerLimiterMeters();
+			limiterMeters = true;
+		}
+	}
+
+	/**
+	 * Get the meter registry.
+	 */
+	public MeterRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * Register the meters of the bound limiter, NaN while no limiter is bound.
+	 */
+	private void registerLimiterMeters() {
+		Gauge.builder(LIMITER_LIMIT, this, metrics -> metrics.getLimiterValue(ConcurrencyLimiter::getLimit))
+				.description("Concurrency limit of the Rublon API calls")
+				.register(registry);
+		Gauge.builder(LIMITER_IN_FLIGHT, this, metrics -> metrics.getLimiterValue(ConcurrencyLimiter::getInFlight))
+				.description("Rublon API calls in flight")
+				.register(registry);
+		Gauge.builder(LIMITER_QUEUED, this, metrics -> metrics.getLimiterValue(ConcurrencyLimiter::getQueued))
+				.description("Rublon API calls waiting for the concurrency limiter")
+				.register(registry);
+		FunctionCounter.builder(LIMITER_REJECTIONS, this, MicrometerMetrics::getRejections)
+				.description("Rublon API calls rejected by the concurrency limiter")
+				.register(registry);
+	}
+
+	/**
+	 * Get the value of the bound limiter.
+	 *
+	 * @param value Value of the limiter.
+	 * @return Value or NaN if no limiter is bound.
+	 */
+	private double getLimiterValue(ToDoubleFunction<ConcurrencyLimiter> value) {
+		ConcurrencyLimiter limiter = this.limiter;
+		return (limiter != null ? value.applyAsDouble(limiter) : Double.NaN);
+	}
+
+	/**
+	 * Get the rejections of all bound limiters.
+	 */
+	private synchronized double getRejections() {
+		ConcurrencyLimiter limiter = this.limiter;
+		return previousRejections + (limiter != null ? limiter.getRejectedCount() : 0);
+	}
+
+	/**
+	 * Register the timers of given method's phases.
+	 *
+	 * @param method API method name.
+	 */
+	private Timer[] createPhaseTimers(String method) {
+		Phase[] phases = Phase.values();
+		Timer[] timers = new Timer[phases.length];
+		for (Phase phase : phases) {
+			timers[phase.ordinal()] = Timer.builder(PHASE_TIMER)
+					.description("Phases of the Rublon API calls")
+					.tag("method", method)
+					.tag("phase", phase.name().toLowerCase(Locale.ROOT))
+					.register(registry);
+		}
+		return timers;
+	}
+
+}
@@ -0,0 +1,128 @@
+package com.rublon.sdk.core.metrics;
+
+import java.util.concurrent.CompletionException;
+
+import com.rublon.sdk.core.rest.ConcurrencyLimiter;
+
+/**
+ * Metrics interface of the API calls.
+ * <p>
+ * Receives the timings of the phases of each API call and the call's
+ * outcome, keyed by the API method name, e.g. "transaction/init".
+ * Set the implementation on the REST client, {@link #NOOP} records nothing.
+ * {@link HistogramMetrics} keeps the timings in memory and
+ * {@link MicrometerMetrics} publishes them to a Micrometer registry.
+ * <p>
+ * Implementations must be thread-safe and fast, they are called
+ * on the calling and I/O threads of every API call.
+ *
+ * @author Rublon Developers
+ */
+public interface RublonMetrics {
+
+	/**
+	 * Phase of the API call.
+	 */
+	enum Phase {
+
+		/**
+		 * Waiting for a pooled connection.
+		 */
+		LEASE,
+
+		/**
+		 * Signing the request body.
+		 */
+		SIGN,
+
+		/**
+		 * Network round-trip of the request attempt, excluding the lease.
+		 */
+		NETWORK,
+
+		/**
+		 * Verifying the response signature.
+		 */
+		VERIFY,
+
+		/**
+		 * Parsing the response JSON.
+		 */
+		PARSE
+
+	}
+
+	/**
+	 * Outcome of the successful call.
+	 */
+	String OUTCOME_OK = "OK";
+
+	/**
+	 * Metrics which record nothing.
+	 */
+	RublonMetrics NOOP = new RublonMetrics() {
+	};
+
+	/**
+	 * Record the duration of the call's phase.
+	 *
+	 * @param method API method name.
+	 * @param phase Phase.
+	 * @param duration Duration in nanoseconds.
+	 */
+	default void recordPhase(String method, Phase phase, long duration) {
+	}
+
+	/**
+	 * Record the completed call.
+	 * <p>
+	 * Calls rejected without contacting the server have zero duration.
+	 *
+	 * @param method API method name.
+	 * @param duration Duration in nanoseconds.
+	 * @param outcome {@link #OUTCOME_OK} or the simple name of the exception class.
+	 */
+	default void recordCall(String method, long duration, String outcome) {
+	}
+
+	/**
+	 * Bind the concurrency limiter of the client.
+	 * <p>
+	 * Called when the metrics or the limiter of the client are set, so the
+	 * implementation can publish the limit, the calls in flight and the rejections.
+	 *
+	 * @param limiter Concurrency limiter, null when the calls are not limited.
+	 */
+	default void bindLimiter(ConcurrencyLimiter limiter) {
+	}
+
+	/**
+	 * Get the API method name from the request URL.
+	 *
+	 * @param url Request URL, e.g. "https://core.rublon.net/api/transaction/init".
+	 * @return Path after "/api/", or the whole path if the URL has no such prefix.
+	 */
+	static String getMethodName(String url) {
+		int start = url.indexOf("/api/");
+		if (start >= 0) {
+			return url.substring(start + 5);
+		}
+		start = url.indexOf("://");
+		start = url.indexOf('/', (start >= 0 ? start + 3 : 0));
+		return (start >= 0 ? url.substring(start + 1) : url);
+	}
+
+	/**
+	 * Get the outcome of the call.
+	 *
+	 * @param failure Failure of the call or null if the call succeeded.
+	 * @return {@link #OUTCOME_OK} or the simple name of the exception class.
+	 */
+	static String getOutcome(Throwable failure) {
+		if (failure instanceof CompletionException && failure.getCause() != null) {
+			failure = failure.getCause();
+		}
+		return (failure != null ? failure.getClass().getSimpleName() : OUTCOME_OK);
+	}
+
+}
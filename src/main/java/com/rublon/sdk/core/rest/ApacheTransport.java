@@ -0,0 +1,648 @@
+package com.rublon.sdk.core.rest;
+
+import com.rublon.sdk.core.exception.ConnectionException;
+import com.rublon.sdk.core.util.Scheduler;
+import com.rublon.sdk.core.util.Utf8Buffer;
+import org.apache.http.Header;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.client.utils.URIUtils;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.NHttpClientConnection;
+import org.apache.http.nio.client.methods.HttpAsyncMethods;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Apache HttpClient transport.
+ * <p>
+ * Blocking requests are executed by a client with a long-lived pool of
+ * persistent HTTP/1.1 connections. Asynchronous requests are executed by
+ * a separate non-blocking client, which is started on the first asynchronous
+ * call or by {@link #preconnect(String, int)} and driven by a small fixed set
+ * of I/O dispatcher threads.
+ * <p>
+ * Response bodies are read straight into byte buffers bounded by
+ * the maximum response size.
+ * <p>
+ * The request's timeouts are applied per request, the request is aborted
+ * when its deadline expires.
+ * <p>
+ * The time blocking requests wait for the pooled connection and whether
+ * the connection is reused are reported by the response.
+ * 
+ * @author Rublon Developers
+ */
+public class ApacheTransport implements Transport {
+
+	/**
+	 * Maximum number of pooled connections.
+	 */
+	private final int maxTotal;
+
+	/**
+	 * Maximum number of pooled connections per route.
+	 */
+	private final int maxPerRoute;
+
+	/**
+	 * Maximum size of the response body in bytes.
+	 */
+	private final int maxResponseSize;
+
+	/**
+	 * Read buffer of the I/O dispatcher thread.
+	 */
+	private static final ThreadLocal<ByteBuffer> READ_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(8 * 1024));
+
+	/**
+	 * Lease of the thread's blocking request: the time in nanoseconds it waited
+	 * for the pooled connection, -1 if not leased, and 1 if the connection was reused.
+	 */
+	private static final ThreadLocal<long[]> LEASE = ThreadLocal.withInitial(() -> new long[] {-1, 0});
+
+	/**
+	 * Pooled connection manager shared by all blocking requests.
+	 */
+	protected final PoolingHttpClientConnectionManager connectionManager;
+
+	/**
+	 * HTTP client instance, created on the first request.
+	 */
+	private volatile CloseableHttpClient httpClient;
+
+	/**
+	 * Non-blocking HTTP client instance, created on the first asynchronous request.
+	 */
+	private volatile CloseableHttpAsyncClient httpAsyncClient;
+
+	/**
+	 * Pooled connection manager of the non-blocking client, created with the client.
+	 */
+	private volatile PoolingNHttpClientConnectionManager asyncConnectionManager;
+
+	/**
+	 * Construct the transport with default connection pool limits.
+	 */
+	public ApacheTransport() {
+		this(new TransportConfig());
+	}
+
+	/**
+	 * Construct the transport with custom connection pool limits.
+	 * 
+	 * @param maxTotal Maximum number of pooled connections
+	 * @param maxPerRoute Maximum number of pooled connections per route
+	 */
+	public ApacheTransport(int maxTotal, int maxPerRoute) {
+		this(new TransportConfig().setMaxTotal(maxTotal).setMaxPerRoute(maxPerRoute));
+	}
+
+	/**
+	 * Construct the transport with given configuration.
+	 * 
+	 * @param config Transport configuration
+	 */
+	public ApacheTransport(TransportConfig config) {
+		this.maxTotal = config.getMaxTotal();
+		this.maxPerRoute = config.getMaxPerRoute();
+		this.maxResponseSize = config.getMaxResponseSize();
+		this.connectionManager = createConnectionManager();
+		this.connectionManager.setMaxTotal(maxTotal);
+		this.connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+		this.connectionManager.setValidateAfterInactivity(RESTClient.VALIDATE_AFTER_INACTIVITY);
+	}
+
+	@Override
+	public RESTResponse execute(RESTRequest request) throws ConnectionException {
+		
+		CloseableHttpResponse httpResponse = null;
+		ScheduledFuture<?> deadline = null;
+		try {
+			HttpPost httppost = createRequest(request);
+			if (request.hasDeadline()) {
+				deadline = Scheduler.schedule(httppost::abort, request.getTimeLeft());
+			}
+			LEASE.get()[0] = -1;
+			httpResponse = getHttpClient().execute(httppost);
+			return createResponse(httpResponse);
+		} catch (Exception e) {
+			throw createException(e);
+		}
+		finally {
+			if (deadline != null) {
+				deadline.cancel(false);
+			}
+			if (httpResponse != null) {
+				try {
+					httpResponse.close();
+				} catch (IOException e) {
+					throw new ConnectionException("Error on closing HTTP response. " + e.getLocalizedMessage(), e);
+				}
+			}
+		}
+	}
+
+	@Override
+	public CompletableFuture<RESTResponse> executeAsync(RESTRequest request) {
+		
+		final CompletableFuture<RESTResponse> result = new CompletableFuture<RESTResponse>();
+		HttpPost httppost = createRequest(request);
+		
+		final Future<RESTResponse> future = getHttpAsyncClient().execute(HttpAsyncMethods.create(httppost),
+				new ResponseConsumer(), new FutureCallback<RESTResponse>() {
+			@Override
+			public void completed(RESTResponse response) {
+				result.complete(response);
+			}
+
+			@Override
+			public void failed(Exception e) {
+				result.completeExceptionally(createException(e));
+			}
+
+			@Override
+			public void cancelled() {
+				result.completeExceptionally(new ConnectionException("Request cancelled."));
+			}
+		});
+		final ScheduledFuture<?> deadline = (request.hasDeadline()
+				? Scheduler.schedule(() -> future.cancel(true), request.getTimeLeft()) : null);
+		result.whenComplete((response, e) -> {
+			if (deadline != null) {
+				deadline.cancel(false);
+			}
+			if (result.isCancelled()) {
+				future.cancel(true);
+			}
+		});
+		
+		return result;
+	}
+
+	/**
+	 * Open the connections in the pools of both clients.
+	 * <p>
+	 * The connections of each pool are leased together, so each of them is a new one,
+	 * then released to the pool as reusable. The number of connections is limited
+	 * by the maximum per route. Only direct routes are opened.
+	 * <p>
+	 * The non-blocking client is started, its TLS handshakes complete in the background
+	 * on the I/O dispatcher threads.
+	 */
+	@Override
+	public void preconnect(String url, int connections) throws ConnectionException {
+		HttpRoute route = createRoute(url);
+		preconnectBlocking(route, Math.min(connections, maxPerRoute));
+		preconnectAsync(route, Math.min(connections, maxPerRoute));
+	}
+
+	/**
+	 * Create the direct route to the server of given URL.
+	 * 
+	 * @param url Server URL.
+	 * @throws ConnectionException When the URL is invalid.
+	 */
+	protected static HttpRoute createRoute(String url) throws ConnectionException {
+		try {
+			HttpHost host = URIUtils.extractHost(URI.create(url));
+			if (host == null) {
+				throw new ConnectionException("Invalid server URL: " + url);
+			}
+			HttpHost target = new HttpHost(host.getHostName(),
+					DefaultSchemePortResolver.INSTANCE.resolve(host), host.getSchemeName());
+			return new HttpRoute(target, null, "https".equalsIgnoreCase(target.getSchemeName()));
+		} catch (ConnectionException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new ConnectionException(e.getLocalizedMessage(), e);
+		}
+	}
+
+	/**
+	 * Open the connections in the blocking client's pool.
+	 * 
+	 * @param route Route to the server.
+	 * @param connections Number of connections to open.
+	 * @throws ConnectionException
+	 */
+	private void preconnectBlocking(HttpRoute route, int connections) throws ConnectionException {
+		
+		List<HttpClientConnection> leased = new ArrayList<HttpClientConnection>();
+		try {
+			HttpClientContext context = HttpClientContext.create();
+			for (int i = 0; i < connections; i++) {
+				HttpClientConnection connection = connectionManager.requestConnection(route, null)
+						.get(RESTClient.TIMEOUT, TimeUnit.SECONDS);
+				leased.add(connection);
+				if (!connection.isOpen()) {
+					connectionManager.connect(connection, route, RESTClient.TIMEOUT * 1000, context);
+					connectionManager.routeComplete(connection, route, context);
+				}
+			}
+		} catch (Exception e) {
+			throw createException(e);
+		} finally {
+			for (HttpClientConnection connection : leased) {
+				connectionManager.releaseConnection(connection, null, RESTClient.KEEP_ALIVE, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Open the connections in the non-blocking client's pool.
+	 * 
+	 * @param route Route to the server.
+	 * @param connections Number of connections to open.
+	 * @throws ConnectionException
+	 */
+	private void preconnectAsync(HttpRoute route, int connections) throws ConnectionException {
+		
+		getHttpAsyncClient();
+		PoolingNHttpClientConnectionManager manager = asyncConnectionManager;
+		List<Future<NHttpClientConnection>> requests = new ArrayList<Future<NHttpClientConnection>>();
+		List<NHttpClientConnection> leased = new ArrayList<NHttpClientConnection>();
+		try {
+			HttpClientContext context = HttpClientContext.create();
+			for (int i = 0; i < connections; i++) {
+				requests.add(manager.requestConnection(route, null, RESTClient.TIMEOUT * 1000,
+						RESTClient.TIMEOUT * 1000, TimeUnit.MILLISECONDS, null));
+			}
+			for (Future<NHttpClientConnection> request : requests) {
+				NHttpClientConnection connection = request.get(RESTClient.TIMEOUT, TimeUnit.SECONDS);
+				leased.add(connection);
+				if (!manager.isRouteComplete(connection)) {
+					manager.startRoute(connection, route, context);
+					manager.routeComplete(connection, route, context);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConnectionException(e.getLocalizedMessage(), e);
+		} catch (Exception e) {
+			throw createException(e);
+		} finally {
+			for (Future<NHttpClientConnection> request : requests) {
+				request.cancel(true);
+			}
+			for (NHttpClientConnection connection : leased) {
+				manager.releaseConnection(connection, null, RESTClient.KEEP_ALIVE, TimeUnit.SECONDS);
+			}
+		}
+	}
+
+	/**
+	 * Create the connection exception for given failure.
+	 * <p>
+	 * Failures before the request has been sent (host resolution, connecting,
+	 * leasing the pooled connection) are reported as {@link ConnectionException.ConnectFailedException}.
+	 * 
+	 * @param e Failure.
+	 */
+	protected static ConnectionException createException(Exception e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConnectTimeoutException || cause instanceof ConnectException
+					|| cause instanceof UnknownHostException || cause instanceof NoRouteToHostException) {
+				return new ConnectionException.ConnectFailedException(e.getLocalizedMessage(), e);
+			}
+		}
+		return new ConnectionException(e.getLocalizedMessage(), e);
+	}
+
+	/**
+	 * Create the HTTP POST request.
+	 * 
+	 * @param request Signed request.
+	 */
+	protected HttpPost createRequest(RESTRequest request) {
+		HttpPost httppost = new HttpPost(request.getUrl());
+		for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+			httppost.setHeader(header.getKey(), header.getValue());
+		}
+		
+		RequestConfig reqConfig = RequestConfig.custom().
+				setConnectionRequestTimeout(request.getConnectTimeout()).
+				setConnectTimeout(request.getConnectTimeout()).
+				setSocketTimeout(request.getReadTimeout()).build();
+		httppost.setEntity(new ByteArrayEntity(request.getBody()));
+		httppost.setConfig(reqConfig);
+		return httppost;
+	}
+
+	/**
+	 * Read the HTTP response into the response instance.
+	 * 
+	 * @param httpResponse HTTP response handler
+	 * @throws IOException When reading fails or the body exceeds the maximum size.
+	 */
+	protected RESTResponse createResponse(HttpResponse httpResponse) throws IOException {
+		byte[] body = null;
+		HttpEntity resEntity = httpResponse.getEntity();
+		if (resEntity != null) {
+			checkContentLength(resEntity.getContentLength());
+			InputStream content = resEntity.getContent();
+			try {
+				body = Utf8Buffer.acquire().readFrom(content, maxResponseSize).toByteArray();
+			} finally {
+				content.close();
+			}
+		}
+		// Fully consumed entity releases the connection back to the pool
+		EntityUtils.consume(resEntity);
+
+		long[] lease = LEASE.get();
+		return new RESTResponse(httpResponse.getStatusLine().getStatusCode(),
+				httpResponse.getStatusLine().getReasonPhrase(), createHeaders(httpResponse), body,
+				lease[0], (lease[0] >= 0 && lease[1] == 1));
+	}
+
+	/**
+	 * Get the first value of each response header.
+	 * 
+	 * @param httpResponse HTTP response handler
+	 */
+	protected static Map<String, String> createHeaders(HttpResponse httpResponse) {
+		Map<String, String> headers = new HashMap<String, String>();
+		for (Header header : httpResponse.getAllHeaders()) {
+			if (!headers.containsKey(header.getName())) {
+				headers.put(header.getName(), header.getValue());
+			}
+		}
+		return headers;
+	}
+
+	/**
+	 * Fail early when the declared body length exceeds the maximum response size.
+	 * 
+	 * @param contentLength Declared length or negative if unknown.
+	 * @throws IOException
+	 */
+	private void checkContentLength(long contentLength) throws IOException {
+		if (contentLength > maxResponseSize) {
+			throw new IOException("Response body exceeds the limit of " + maxResponseSize + " bytes.");
+		}
+	}
+
+	/**
+	 * Get the HTTP client instance, create it on the first call.
+	 */
+	protected CloseableHttpClient getHttpClient() {
+		CloseableHttpClient client = httpClient;
+		if (client == null) {
+			synchronized (this) {
+				client = httpClient;
+				if (client == null) {
+					client = createHttpClient();
+					httpClient = client;
+				}
+			}
+		}
+		return client;
+	}
+
+	/**
+	 * Create the HTTP client using the pooled connection manager.
+	 */
+	protected CloseableHttpClient createHttpClient() {
+		return HttpClientBuilder.create().useSystemProperties()
+				.setConnectionManager(connectionManager)
+				.setKeepAliveStrategy(createKeepAliveStrategy())
+				.evictExpiredConnections()
+				.evictIdleConnections(RESTClient.IDLE_TIMEOUT, TimeUnit.SECONDS)
+				.build();
+	}
+
+	/**
+	 * Get the non-blocking HTTP client instance, create and start it on the first call.
+	 */
+	protected CloseableHttpAsyncClient getHttpAsyncClient() {
+		CloseableHttpAsyncClient client = httpAsyncClient;
+		if (client == null) {
+			synchronized (this) {
+				client = httpAsyncClient;
+				if (client == null) {
+					asyncConnectionManager = createAsyncConnectionManager();
+					client = createHttpAsyncClient();
+					client.start();
+					httpAsyncClient = client;
+				}
+			}
+		}
+		return client;
+	}
+
+	/**
+	 * Create the non-blocking HTTP client using its pooled connection manager.
+	 */
+	protected CloseableHttpAsyncClient createHttpAsyncClient() {
+		return HttpAsyncClients.custom().useSystemProperties()
+				.setConnectionManager(asyncConnectionManager)
+				.setKeepAliveStrategy(createKeepAliveStrategy())
+				.build();
+	}
+
+	/**
+	 * Create the pooled connection manager of the non-blocking client with the same pool limits.
+	 * <p>
+	 * TLS sessions honor the standard "javax.net.ssl.*" system properties.
+	 */
+	protected PoolingNHttpClientConnectionManager createAsyncConnectionManager() {
+		Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+				.register("http", NoopIOSessionStrategy.INSTANCE)
+				.register("https", SSLIOSessionStrategy.getSystemDefaultStrategy())
+				.build();
+		try {
+			PoolingNHttpClientConnectionManager manager = new PoolingNHttpClientConnectionManager(
+					new DefaultConnectingIOReactor(IOReactorConfig.DEFAULT), registry);
+			manager.setMaxTotal(maxTotal);
+			manager.setDefaultMaxPerRoute(maxPerRoute);
+			return manager;
+		} catch (IOReactorException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Create the pooled connection manager.
+	 * <p>
+	 * Socket factories honor the standard "javax.net.ssl.*" system properties.
+	 * The time of each lease and whether the connection is reused are kept
+	 * for the response of the leasing thread.
+	 */
+	protected PoolingHttpClientConnectionManager createConnectionManager() {
+		Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory())
+				.register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+				.build();
+		return new PoolingHttpClientConnectionManager(registry) {
+			@Override
+			public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+				final ConnectionRequest request = super.requestConnection(route, state);
+				return new ConnectionRequest() {
+					@Override
+					public HttpClientConnection get(long timeout, TimeUnit unit)
+							throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+						long start = System.nanoTime();
+						HttpClientConnection connection = request.get(timeout, unit);
+						long[] lease = LEASE.get();
+						lease[0] = System.nanoTime() - start;
+						lease[1] = (connection.isOpen() ? 1 : 0);
+						return connection;
+					}
+
+					@Override
+					public boolean cancel() {
+						return request.cancel();
+					}
+				};
+			}
+		};
+	}
+
+	/**
+	 * Create the keep-alive strategy, which falls back to {@link RESTClient#KEEP_ALIVE}
+	 * when the server does not declare the keep-alive time.
+	 */
+	protected ConnectionKeepAliveStrategy createKeepAliveStrategy() {
+		return (response, context) -> {
+			long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return (keepAlive > 0 ? keepAlive : RESTClient.KEEP_ALIVE * 1000L);
+		};
+	}
+
+	/**
+	 * Get the pooled connection manager.
+	 */
+	public PoolingHttpClientConnectionManager getConnectionManager() {
+		return connectionManager;
+	}
+
+	/**
+	 * Close the transport and all pooled connections.
+	 */
+	@Override
+	public void close() throws IOException {
+		CloseableHttpAsyncClient asyncClient = httpAsyncClient;
+		if (asyncClient != null) {
+			asyncClient.close();
+		}
+		CloseableHttpClient client = httpClient;
+		if (client != null) {
+			client.close();
+		} else {
+			connectionManager.close();
+		}
+	}
+
+	/**
+	 * Non-blocking consumer reading the response body into a bounded buffer.
+	 */
+	private class ResponseConsumer extends AbstractAsyncResponseConsumer<RESTResponse> {
+
+		/**
+		 * HTTP response handler.
+		 */
+		private HttpResponse httpResponse;
+
+		/**
+		 * Response body buffer, null if the response has no body.
+		 */
+		private Utf8Buffer body;
+
+		@Override
+		protected void onResponseReceived(HttpResponse response) {
+			this.httpResponse = response;
+		}
+
+		@Override
+		protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) throws IOException {
+			long contentLength = entity.getContentLength();
+			checkContentLength(contentLength);
+			body = new Utf8Buffer(contentLength > 0 ? (int) contentLength : 1024);
+		}
+
+		@Override
+		protected void onContentReceived(ContentDecoder decoder, IOControl ioctrl) throws IOException {
+			ByteBuffer buffer = READ_BUFFER.get();
+			while (true) {
+				buffer.clear();
+				int read = decoder.read(buffer);
+				if (read <= 0) {
+					return;
+				}
+				buffer.flip();
+				if (body.size() + read > maxResponseSize) {
+					throw new IOException("Response body exceeds the limit of " + maxResponseSize + " bytes.");
+				}
+				body.write(buffer);
+			}
+		}
+
+		@Override
+		protected RESTResponse buildResult(HttpContext context) {
+			return new RESTResponse(httpResponse.getStatusLine().getStatusCode(),
+					httpResponse.getStatusLine().getReasonPhrase(), createHeaders(httpResponse),
+					(body != null ? body.toByteArray() : null));
+		}
+
+		@Override
+		protected void releaseResources() {
+			httpResponse = null;
+			body = null;
+		}
+
+	}
+
+}
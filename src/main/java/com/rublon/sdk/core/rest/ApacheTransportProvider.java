@@ -0,0 +1,30 @@
+package com.rublon.sdk.core.rest;
+
+/**
+ * Provider of the Apache HttpClient transport.
+ * 
+ * @author Rublon Developers
+ */
+public class ApacheTransportProvider implements TransportProvider {
+
+	/**
+	 * Provider name.
+	 */
+	public static final String NAME = "apache";
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public int getPriority() {
+		return 0;
+	}
+
+	@Override
+	public Transport create(TransportConfig config) {
+		return new ApacheTransport(config);
+	}
+
+}
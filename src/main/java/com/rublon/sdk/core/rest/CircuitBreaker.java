@@ -0,0 +1,332 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker class.
+ * <p>
+ * Tracks the outcome of the last API calls in a sliding window. When the rate
+ * of failed or slow calls exceeds its threshold, the breaker opens and calls are
+ * rejected immediately instead of waiting for the timeout of an unavailable API.
+ * After the open duration a single probe call is let through (half-open state):
+ * its success closes the breaker, its failure opens it again.
+ * <p>
+ * Each call obtains a permit by {@link #acquire()} and reports its outcome
+ * by {@link #onComplete(long, long, boolean)}. Completions of calls started
+ * before the last state change are ignored.
+ *
+ * @author Rublon Developers
+ */
+public class CircuitBreaker {
+
+	/**
+	 * Circuit breaker state.
+	 */
+	public enum State {
+
+		/**
+		 * Calls are permitted.
+		 */
+		CLOSED,
+
+		/**
+		 * Calls are rejected.
+		 */
+		OPEN,
+
+		/**
+		 * A single probe call is permitted.
+		 */
+		HALF_OPEN
+
+	}
+
+	/**
+	 * Permit value of the rejected call.
+	 */
+	public static final long REJECTED = -1;
+
+	/**
+	 * Default number of calls in the sliding window.
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 20;
+
+	/**
+	 * Default minimum number of calls in the window before the breaker may open.
+	 */
+	public static final int DEFAULT_MINIMUM_CALLS = 10;
+
+	/**
+	 * Default failure rate threshold in percent.
+	 */
+	public static final int DEFAULT_FAILURE_RATE_THRESHOLD = 50;
+
+	/**
+	 * Default duration in milliseconds above which the call is slow.
+	 */
+	public static final long DEFAULT_SLOW_CALL_DURATION = 10000;
+
+	/**
+	 * Default slow call rate threshold in percent.
+	 */
+	public static final int DEFAULT_SLOW_CALL_RATE_THRESHOLD = 80;
+
+	/**
+	 * Default time in milliseconds the breaker stays open.
+	 */
+	public static final long DEFAULT_OPEN_DURATION = 30000;
+
+	/**
+	 * Outcome flag of the failed call.
+	 */
+	private static final byte FAILED = 1;
+
+	/**
+	 * Outcome flag of the slow call.
+	 */
+	private static final byte SLOW = 2;
+
+	/**
+	 * Whether the breaker may open.
+	 */
+	protected boolean enabled = true;
+
+	/**
+	 * Minimum number of calls in the window before the breaker may open.
+	 */
+	protected int minimumCalls = DEFAULT_MINIMUM_CALLS;
+
+	/**
+	 * Failure rate threshold in percent.
+	 */
+	protected int failureRateThreshold = DEFAULT_FAILURE_RATE_THRESHOLD;
+
+	/**
+	 * Duration in nanoseconds above which the call is slow.
+	 */
+	protected long slowCallDuration = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_CALL_DURATION);
+
+	/**
+	 * Slow call rate threshold in percent.
+	 */
+	protected int slowCallRateThreshold = DEFAULT_SLOW_CALL_RATE_THRESHOLD;
+
+	/**
+	 * Time in nanoseconds the breaker stays open.
+	 */
+	protected long openDuration = TimeUnit.MILLISECONDS.toNanos(DEFAULT_OPEN_DURATION);
+
+	/**
+	 * Current state.
+	 */
+	private State state = State.CLOSED;
+
+	/**
+	 * Number of the state changes, identifies the permits of the current state.
+	 */
+	private long generation;
+
+	/**
+	 * Outcomes of the calls in the sliding window.
+	 */
+	private byte[] outcomes = new byte[DEFAULT_WINDOW_SIZE];
+
+	/**
+	 * Index of the next outcome in the window.
+	 */
+	private int next;
+
+	/**
+	 * Number of the outcomes in the window.
+	 */
+	private int calls;
+
+	/**
+	 * Number of the failed calls in the window.
+	 */
+	private int failedCalls;
+
+	/**
+	 * Number of the slow calls in the window.
+	 */
+	private int slowCalls;
+
+	/**
+	 * Time in nanoseconds when the breaker opened.
+	 */
+	private long openedAt;
+
+	/**
+	 * Whether the probe call of the half-open state is in flight.
+	 */
+	private boolean probing;
+
+	/**
+	 * Create the breaker which never opens.
+	 */
+	static public CircuitBreaker disabled() {
+		return new CircuitBreaker().setEnabled(false);
+	}
+
+	/**
+	 * Check whether the breaker may open.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enable or disable the breaker.
+	 *
+	 * @param enabled
+	 * @return CircuitBreaker
+	 */
+	public synchronized CircuitBreaker setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		transition(State.CLOSED);
+		return this;
+	}
+
+	/**
+	 * Set number of calls in the sliding window.
+	 *
+	 * @param windowSize
+	 * @return CircuitBreaker
+	 */
+	public synchronized CircuitBreaker setWindowSize(int windowSize) {
+		this.outcomes = new byte[windowSize];
+		transition(State.CLOSED);
+		return this;
+	}
+
+	/**
+	 * Set minimum number of calls in the window before the breaker may open.
+	 *
+	 * @param minimumCalls
+	 * @return CircuitBreaker
+	 */
+	public synchronized CircuitBreaker setMinimumCalls(int minimumCalls) {
+		this.minimumCalls = minimumCalls;
+		return this;
+	}
+
+	/**
+	 * Set failure rate threshold in percent.
+	 *
+	 * @param failureRateThreshold
+	 * @return CircuitBreaker
+	 */
+	public synchronized CircuitBreaker setFailureRateThreshold(int failureRateThreshold) {
+		this.failureRateThreshold = failureRateThreshold;
+		return this;
+	}
+
+	/**
+	 * Set slow call duration and slow call rate threshold.
+	 *
+	 * @param duration Duration in milliseconds above which the call is slow.
+	 * @param rateThreshold Slow call rate threshold in percent.
+	 * @return CircuitBreaker
+	 */
+	public synchronized CircuitBreaker setSlowCallThreshold(long duration, int rateThreshold) {
+		this.slowCallDuration = TimeUnit.MILLISECONDS.toNanos(duration);
+		this.slowCallRateThreshold = rateThreshold;
+		return this;
+	}
+
+	/**
+	 * Set time in milliseconds the breaker stays open.
+	 *
+	 * @param openDuration
+	 * @return CircuitBreaker
+	 */
+	public synchronized CircuitBreaker setOpenDuration(long openDuration) {
+		this.openDuration = TimeUnit.MILLISECONDS.toNanos(openDuration);
+		return this;
+	}
+
+	/**
+	 * Get the current state.
+	 */
+	public synchronized State getState() {
+		return state;
+	}
+
+	/**
+	 * Get the permit to perform the call.
+	 *
+	 * @return Permit passed to {@link #onComplete(long, long, boolean)} or {@link #REJECTED}.
+	 */
+	public synchronized long acquire() {
+		if (state == State.OPEN) {
+			if (System.nanoTime() - openedAt < openDuration) {
+				return REJECTED;
+			}
+			transition(State.HALF_OPEN);
+		}
+		if (state == State.HALF_OPEN) {
+			if (probing) {
+				return REJECTED;
+			}
+			probing = true;
+		}
+		return generation;
+	}
+
+	/**
+	 * Record the outcome of the permitted call.
+	 *
+	 * @param permit Permit returned by {@link #acquire()}.
+	 * @param duration Call duration in nanoseconds.
+	 * @param failed Whether the call failed.
+	 */
+	public synchronized void onComplete(long permit, long duration, boolean failed) {
+		if (permit != generation) {
+			return;
+		}
+		boolean slow = (duration > slowCallDuration);
+		if (state == State.HALF_OPEN) {
+			transition(failed || slow ? State.OPEN : State.CLOSED);
+			return;
+		}
+		if (outcomes.length == 0) {
+			return;
+		}
+		if (calls == outcomes.length) {
+			byte old = outcomes[next];
+			failedCalls -= (old & FAILED);
+			slowCalls -= (old & SLOW) >> 1;
+		} else {
+			calls++;
+		}
+		byte outcome = (byte) ((failed ? FAILED : 0) | (slow ? SLOW : 0));
+		outcomes[next] = outcome;
+		next = (next + 1) % outcomes.length;
+		failedCalls += (outcome & FAILED);
+		slowCalls += (outcome & SLOW) >> 1;
+
+		if (enabled && calls >= minimumCalls && (failedCalls * 100 >= failureRateThreshold * calls
+				|| slowCalls * 100 >= slowCallRateThreshold * calls)) {
+			transition(State.OPEN);
+		}
+	}
+
+	/**
+	 * Change the state and reset the window.
+	 *
+	 * @param newState
+	 */
+	private void transition(State newState) {
+		state = newState;
+		generation++;
+		probing = false;
+		next = 0;
+		calls = 0;
+		failedCalls = 0;
+		slowCalls = 0;
+		if (newState == State.OPEN) {
+			openedAt = System.nanoTime();
+		}
+	}
+
+}
@@ -0,0 +1,335 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adaptive concurrency limiter class.
+ * <p>
+ * Caps the number of API calls in flight, so when the API degrades the
+ * application threads are not all stuck waiting for it. The limit adapts
+ * to the observed latency by the AIMD algorithm: calls slower than the
+ * latency threshold or failed decrease it multiplicatively, at most once per
+ * round of calls, and successful calls increase it by one per round while
+ * at least half of it is used.
+ * <p>
+ * Blocking calls over the limit wait briefly in a bounded queue, asynchronous
+ * calls never wait. Calls which cannot get a permit are rejected immediately.
+ *
+ * @author Rublon Developers
+ */
+public class ConcurrencyLimiter {
+
+	/**
+	 * Default initial limit.
+	 */
+	public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+	/**
+	 * Default minimum limit.
+	 */
+	public static final int DEFAULT_MIN_LIMIT = 1;
+
+	/**
+	 * Default maximum limit.
+	 */
+	public static final int DEFAULT_MAX_LIMIT = 200;
+
+	/**
+	 * Default factor decreasing the limit.
+	 */
+	public static final double DEFAULT_BACKOFF_RATIO = 0.9;
+
+	/**
+	 * Default latency threshold in milliseconds above which the call decreases the limit.
+	 */
+	public static final long DEFAULT_LATENCY_THRESHOLD = 1000;
+
+	/**
+	 * Default maximum time in milliseconds a blocking call waits for a permit.
+	 */
+	public static final long DEFAULT_MAX_WAIT = 50;
+
+	/**
+	 * Default maximum number of waiting calls.
+	 */
+	public static final int DEFAULT_MAX_QUEUE = 50;
+
+	/**
+	 * Whether the calls are limited.
+	 */
+	private final boolean enabled;
+
+	/**
+	 * Minimum limit.
+	 */
+	protected int minLimit = DEFAULT_MIN_LIMIT;
+
+	/**
+	 * Maximum limit.
+	 */
+	protected int maxLimit = DEFAULT_MAX_LIMIT;
+
+	/**
+	 * Factor decreasing the limit.
+	 */
+	protected double backoffRatio = DEFAULT_BACKOFF_RATIO;
+
+	/**
+	 * Latency threshold in nanoseconds above which the call decreases the limit.
+	 */
+	protected long latencyThreshold = TimeUnit.MILLISECONDS.toNanos(DEFAULT_LATENCY_THRESHOLD);
+
+	/**
+	 * Maximum time in milliseconds a blocking call waits for a permit.
+	 */
+	protected long maxWait = DEFAULT_MAX_WAIT;
+
+	/**
+	 * Maximum number of waiting calls.
+	 */
+	protected int maxQueue = DEFAULT_MAX_QUEUE;
+
+	/**
+	 * Current limit, fractional between the additive increases.
+	 * <p>
+	 * The counters are changed under the monitor and volatile,
+	 * so the getters read them without taking it.
+	 */
+	private volatile double limit = DEFAULT_INITIAL_LIMIT;
+
+	/**
+	 * Time in nanoseconds of the last decrease.
+	 */
+	private long lastDecrease = System.nanoTime();
+
+	/**
+	 * Number of calls in flight.
+	 */
+	private volatile int inFlight;
+
+	/**
+	 * Number of waiting calls.
+	 */
+	private volatile int queued;
+
+	/**
+	 * Number of rejected calls.
+	 */
+	private volatile long rejected;
+
+	/**
+	 * Construct the limiter.
+	 */
+	public ConcurrencyLimiter() {
+		this(true);
+	}
+
+	/**
+	 * Construct the limiter.
+	 *
+	 * @param enabled Whether the calls are limited.
+	 */
+	private ConcurrencyLimiter(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Create the limiter which never limits the calls.
+	 */
+	static public ConcurrencyLimiter unlimited() {
+		return new ConcurrencyLimiter(false);
+	}
+
+	/**
+	 * Check whether the calls are limited.
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Set bounds and initial value of the limit.
+	 *
+	 * @param initialLimit
+	 * @param minLimit
+	 * @param maxLimit
+	 * @return ConcurrencyLimiter
+	 */
+	public synchronized ConcurrencyLimiter setLimit(int initialLimit, int minLimit, int maxLimit) {
+		this.limit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		notifyAll();
+		return this;
+	}
+
+	/**
+	 * Set factor decreasing the limit.
+	 *
+	 * @param backoffRatio Factor between 0 and 1.
+	 * @return ConcurrencyLimiter
+	 */
+	public synchronized ConcurrencyLimiter setBackoffRatio(double backoffRatio) {
+		this.backoffRatio = backoffRatio;
+		return this;
+	}
+
+	/**
+	 * Set latency threshold above which the call decreases the limit.
+	 *
+	 * @param latencyThreshold Threshold in milliseconds.
+	 * @return ConcurrencyLimiter
+	 */
+	public synchronized ConcurrencyLimiter setLatencyThreshold(long latencyThreshold) {
+		this.latencyThreshold = TimeUnit.MILLISECONDS.toNanos(latencyThreshold);
+		return this;
+	}
+
+	/**
+	 * Set the queue of the blocking calls.
+	 *
+	 * @param maxWait Maximum time in milliseconds a call waits for a permit.
+	 * @param maxQueue Maximum number of waiting calls.
+	 * @return ConcurrencyLimiter
+	 */
+	public synchronized ConcurrencyLimiter setQueue(long maxWait, int maxQueue) {
+		this.maxWait = maxWait;
+		this.maxQueue = maxQueue;
+		return this;
+	}
+
+	/**
+	 * Get the current limit.
+	 */
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	/**
+	 * Get the number of calls in flight.
+	 */
+	public int getInFlight() {
+		return inFlight;
+	}
+
+	/**
+	 * Get the number of waiting calls.
+	 */
+	public int getQueued() {
+		return queued;
+	}
+
+	/**
+	 * Get the number of rejected calls.
+	 */
+	public long getRejectedCount() {
+		return rejected;
+	}
+
+	/**
+	 * Get the permit of the blocking call, waiting briefly when over the limit.
+	 *
+	 * @return False if the call is rejected.
+	 */
+	public boolean acquire() {
+		if (!enabled) {
+			return true;
+		}
+		synchronized (this) {
+			if (inFlight < limit) {
+				inFlight++;
+				return true;
+			}
+			if (queued >= maxQueue || maxWait <= 0) {
+				rejected++;
+				return false;
+			}
+			queued++;
+			try {
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWait);
+				long remaining = TimeUnit.MILLISECONDS.toNanos(maxWait);
+				while (inFlight >= limit && remaining > 0) {
+					TimeUnit.NANOSECONDS.timedWait(this, remaining);
+					remaining = deadline - System.nanoTime();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				queued--;
+			}
+			if (inFlight < limit && !Thread.currentThread().isInterrupted()) {
+				inFlight++;
+				return true;
+			}
+			rejected++;
+			return false;
+		}
+	}
+
+	/**
+	 * Get the permit of the asynchronous call without waiting.
+	 *
+	 * @return False if the call is rejected.
+	 */
+	public boolean tryAcquire() {
+		if (!enabled) {
+			return true;
+		}
+		synchronized (this) {
+			if (inFlight < limit) {
+				inFlight++;
+				return true;
+			}
+			rejected++;
+			return false;
+		}
+	}
+
+	/**
+	 * Release the permit of the call which has not been performed.
+	 */
+	public void release() {
+		if (!enabled) {
+			return;
+		}
+		synchronized (this) {
+			inFlight--;
+			notify();
+		}
+	}
+
+	/**
+	 * Release the permit of the performed call and adapt the limit.
+	 *
+	 * @param duration Call duration in nanoseconds.
+	 * @param failed Whether the call failed.
+	 */
+	public void release(long duration, boolean failed) {
+		if (!enabled) {
+			return;
+		}
+		synchronized (this) {
+			inFlight--;
+			if (failed || duration > latencyThreshold) {
+				long now = System.nanoTime();
+				// Calls started before the last decrease have already been accounted for
+				if (now - duration - lastDecrease >= 0) {
+					limit = Math.max(minLimit, Math.floor(limit * backoffRatio));
+					lastDecrease = now;
+				}
+				notify();
+			} else if ((inFlight + 1) * 2 >= limit && limit < maxLimit) {
+				int previous = (int) limit;
+				limit = Math.min(maxLimit, limit + 1 / limit);
+				if ((int) limit > previous) {
+					notifyAll();
+				} else {
+					notify();
+				}
+			} else {
+				notify();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,160 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API server endpoint class.
+ * <p>
+ * Tracks the load and health of a single API server of the {@link EndpointPool}:
+ * the number of outstanding requests, the exponentially weighted moving average
+ * (EWMA) of the latency and the consecutive failures.
+ *
+ * @author Rublon Developers
+ */
+public class Endpoint {
+
+	/**
+	 * Weight of the latest latency in the moving average.
+	 */
+	private static final double EWMA_WEIGHT = 0.2;
+
+	/**
+	 * API server URL.
+	 */
+	private final String url;
+
+	/**
+	 * Number of outstanding requests.
+	 */
+	private final AtomicInteger outstanding = new AtomicInteger();
+
+	/**
+	 * Moving average of the latency in nanoseconds, 0 until the first response.
+	 */
+	private volatile double latency;
+
+	/**
+	 * Number of consecutive failures.
+	 */
+	private int failures;
+
+	/**
+	 * Time in nanoseconds until which the endpoint is ejected.
+	 */
+	private volatile long ejectedUntil;
+
+	/**
+	 * Whether the endpoint is ejected.
+	 */
+	private volatile boolean ejected;
+
+	/**
+	 * Time in nanoseconds of the last completed request.
+	 */
+	private volatile long lastCompleted = System.nanoTime();
+
+	/**
+	 * Construct the endpoint.
+	 *
+	 * @param url API server URL.
+	 */
+	public Endpoint(String url) {
+		this.url = url;
+	}
+
+	/**
+	 * Get the API server URL.
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * Get the number of outstanding requests.
+	 */
+	public int getOutstanding() {
+		return outstanding.get();
+	}
+
+	/**
+	 * Get the moving average of the latency in nanoseconds.
+	 */
+	public double getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Check whether the endpoint has been ejected after consecutive failures.
+	 */
+	public boolean isEjected() {
+		return ejected;
+	}
+
+	/**
+	 * Check whether the endpoint may receive requests.
+	 * <p>
+	 * Ejected endpoint is readmitted on trial when its ejection time has passed.
+	 *
+	 * @param now Current {@link System#nanoTime()} value.
+	 */
+	public boolean isAvailable(long now) {
+		return (!ejected || now - ejectedUntil >= 0);
+	}
+
+	/**
+	 * Get the time in nanoseconds of the last completed request.
+	 */
+	public long getLastCompleted() {
+		return lastCompleted;
+	}
+
+	/**
+	 * Record the start of the request.
+	 */
+	public void onStart() {
+		outstanding.incrementAndGet();
+	}
+
+	/**
+	 * Record the outcome of the request.
+	 *
+	 * @param duration Request duration in nanoseconds.
+	 * @param failed Whether the request failed.
+	 * @param maxFailures Number of consecutive failures ejecting the endpoint.
+	 * @param ejectionTime Ejection time in nanoseconds.
+	 */
+	public synchronized void onComplete(long duration, boolean failed, int maxFailures, long ejectionTime) {
+		outstanding.decrementAndGet();
+		long now = System.nanoTime();
+		lastCompleted = now;
+		if (failed) {
+			// Failed requests weigh as slow ones, so the endpoint is avoided before it is ejected
+			updateLatency(Math.max(duration, 2 * latency));
+			if (++failures >= maxFailures) {
+				ejectedUntil = now + ejectionTime;
+				ejected = true;
+			}
+		} else {
+			updateLatency(duration);
+			failures = 0;
+			ejected = false;
+		}
+	}
+
+	/**
+	 * Update the moving average of the latency.
+	 *
+	 * @param sample Latency in nanoseconds.
+	 */
+	private void updateLatency(double sample) {
+		latency = (latency == 0 ? sample : latency + EWMA_WEIGHT * (sample - latency));
+	}
+
+	/**
+	 * Create string from the endpoint data.
+	 */
+	public String toString() {
+		return url;
+	}
+
+}
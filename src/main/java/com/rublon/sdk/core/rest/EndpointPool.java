@@ -0,0 +1,316 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.rublon.sdk.core.util.Scheduler;
+
+/**
+ * Pool of the API server endpoints.
+ * <p>
+ * Each request is routed to the better of two randomly chosen endpoints
+ * (power of two choices), compared by the {@link Routing} cost. Endpoints
+ * failing repeatedly are ejected for the ejection time, then readmitted
+ * on trial. Optional health checks probe the ejected and idle endpoints
+ * in the background, so their state is known before the traffic returns.
+ * <p>
+ * With a single endpoint the pool always routes to it.
+ *
+ * @author Rublon Developers
+ */
+public class EndpointPool {
+
+	/**
+	 * Routing cost of the endpoints.
+	 */
+	public enum Routing {
+
+		/**
+		 * Moving average of the latency weighted by the outstanding requests.
+		 */
+		EWMA,
+
+		/**
+		 * Number of outstanding requests.
+		 */
+		LEAST_OUTSTANDING
+
+	}
+
+	/**
+	 * Health probe of the endpoint.
+	 * <p>
+	 * Sends a request to given endpoint and records its outcome by {@link EndpointPool#onComplete},
+	 * bypassing the circuit breaker, so a failing endpoint does not affect the other ones.
+	 * Called on the shared scheduler thread, so it must not block.
+	 */
+	public interface Probe {
+
+		/**
+		 * Probe given endpoint.
+		 *
+		 * @param endpoint Endpoint.
+		 */
+		void probe(Endpoint endpoint);
+
+	}
+
+	/**
+	 * Default number of consecutive failures ejecting the endpoint.
+	 */
+	public static final int DEFAULT_MAX_FAILURES = 3;
+
+	/**
+	 * Default ejection time in milliseconds.
+	 */
+	public static final long DEFAULT_EJECTION_TIME = 30000;
+
+	/**
+	 * Default interval of the health checks in milliseconds.
+	 */
+	public static final long DEFAULT_HEALTH_CHECK_INTERVAL = 10000;
+
+	/**
+	 * Endpoints.
+	 */
+	private final Endpoint[] endpoints;
+
+	/**
+	 * Routing cost of the endpoints.
+	 */
+	protected volatile Routing routing = Routing.EWMA;
+
+	/**
+	 * Number of consecutive failures ejecting the endpoint.
+	 */
+	protected volatile int maxFailures = DEFAULT_MAX_FAILURES;
+
+	/**
+	 * Ejection time in nanoseconds.
+	 */
+	protected volatile long ejectionTime = TimeUnit.MILLISECONDS.toNanos(DEFAULT_EJECTION_TIME);
+
+	/**
+	 * Health probe or null if the health checks are stopped.
+	 */
+	private Probe probe;
+
+	/**
+	 * Interval of the health checks in milliseconds.
+	 */
+	private long healthCheckInterval;
+
+	/**
+	 * Next scheduled health check.
+	 */
+	private ScheduledFuture<?> healthCheck;
+
+	/**
+	 * Construct the pool of given API servers.
+	 *
+	 * @param urls API server URLs, the first one is the primary server.
+	 */
+	public EndpointPool(List<String> urls) {
+		if (urls == null || urls.isEmpty()) {
+			throw new IllegalArgumentException("At least one API server is required.");
+		}
+		this.endpoints = new Endpoint[urls.size()];
+		for (int i = 0; i < endpoints.length; i++) {
+			endpoints[i] = new Endpoint(urls.get(i));
+		}
+	}
+
+	/**
+	 * Construct the pool of a single API server.
+	 *
+	 * @param url API server URL.
+	 */
+	public EndpointPool(String url) {
+		this(Collections.singletonList(url));
+	}
+
+	/**
+	 * Get the endpoints.
+	 */
+	public List<Endpoint> getEndpoints() {
+		return Collections.unmodifiableList(Arrays.asList(endpoints));
+	}
+
+	/**
+	 * Get the API server URLs.
+	 */
+	public List<String> getUrls() {
+		List<String> urls = new ArrayList<String>(endpoints.length);
+		for (Endpoint endpoint : endpoints) {
+			urls.add(endpoint.getUrl());
+		}
+		return urls;
+	}
+
+	/**
+	 * Get the primary endpoint.
+	 */
+	public Endpoint getPrimary() {
+		return endpoints[0];
+	}
+
+	/**
+	 * Set routing cost of the endpoints.
+	 *
+	 * @param routing
+	 * @return EndpointPool
+	 */
+	public EndpointPool setRouting(Routing routing) {
+		this.routing = routing;
+		return this;
+	}
+
+	/**
+	 * Set ejection of the failing endpoints.
+	 *
+	 * @param maxFailures Number of consecutive failures ejecting the endpoint.
+	 * @param ejectionTime Ejection time in milliseconds.
+	 * @return EndpointPool
+	 */
+	public EndpointPool setEjection(int maxFailures, long ejectionTime) {
+		this.maxFailures = maxFailures;
+		this.ejectionTime = TimeUnit.MILLISECONDS.toNanos(ejectionTime);
+		return this;
+	}
+
+	/**
+	 * Select the endpoint of the next request.
+	 * <p>
+	 * When no endpoint is available, the requests are routed anyway.
+	 */
+	public Endpoint select() {
+		if (endpoints.length == 1) {
+			return endpoints[0];
+		}
+		long now = System.nanoTime();
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int i = random.nextInt(endpoints.length);
+		int j = random.nextInt(endpoints.length - 1);
+		if (j >= i) {
+			j++;
+		}
+		Endpoint first = endpoints[i];
+		Endpoint second = endpoints[j];
+		boolean firstAvailable = first.isAvailable(now);
+		boolean secondAvailable = second.isAvailable(now);
+		if (firstAvailable && secondAvailable) {
+			return (getCost(first) <= getCost(second) ? first : second);
+		} else if (firstAvailable) {
+			return first;
+		} else if (secondAvailable) {
+			return second;
+		}
+		Endpoint best = null;
+		for (Endpoint endpoint : endpoints) {
+			if (endpoint.isAvailable(now) && (best == null || getCost(endpoint) < getCost(best))) {
+				best = endpoint;
+			}
+		}
+		return (best != null ? best : first);
+	}
+
+	/**
+	 * Record the start of the request.
+	 *
+	 * @param endpoint Endpoint of the request.
+	 */
+	public void onStart(Endpoint endpoint) {
+		endpoint.onStart();
+	}
+
+	/**
+	 * Record the outcome of the request.
+	 *
+	 * @param endpoint Endpoint of the request.
+	 * @param duration Request duration in nanoseconds.
+	 * @param failed Whether the request failed.
+	 */
+	public void onComplete(Endpoint endpoint, long duration, boolean failed) {
+		endpoint.onComplete(duration, failed, maxFailures, ejectionTime);
+	}
+
+	/**
+	 * Start the background health checks.
+	 * <p>
+	 * Every interval the endpoints which are ejected or have not completed
+	 * any request since the last check are probed.
+	 *
+	 * @param probe Health probe.
+	 * @param interval Interval in milliseconds.
+	 */
+	public synchronized void startHealthChecks(Probe probe, long interval) {
+		stopHealthChecks();
+		this.probe = probe;
+		this.healthCheckInterval = interval;
+		scheduleHealthCheck();
+	}
+
+	/**
+	 * Stop the background health checks.
+	 */
+	public synchronized void stopHealthChecks() {
+		probe = null;
+		if (healthCheck != null) {
+			healthCheck.cancel(false);
+			healthCheck = null;
+		}
+	}
+
+	/**
+	 * Get the routing cost of the endpoint.
+	 *
+	 * @param endpoint
+	 */
+	protected double getCost(Endpoint endpoint) {
+		if (routing == Routing.LEAST_OUTSTANDING) {
+			return endpoint.getOutstanding();
+		}
+		return endpoint.getLatency() * (endpoint.getOutstanding() + 1);
+	}
+
+	/**
+	 * Schedule the next health check.
+	 */
+	private synchronized void scheduleHealthCheck() {
+		if (probe != null) {
+			healthCheck = Scheduler.schedule(this::checkHealth, healthCheckInterval);
+		}
+	}
+
+	/**
+	 * Probe the ejected and idle endpoints.
+	 */
+	private void checkHealth() {
+		Probe current;
+		long interval;
+		synchronized (this) {
+			current = probe;
+			interval = TimeUnit.MILLISECONDS.toNanos(healthCheckInterval);
+		}
+		if (current == null) {
+			return;
+		}
+		long now = System.nanoTime();
+		for (Endpoint endpoint : endpoints) {
+			if (endpoint.isEjected() || now - endpoint.getLastCompleted() >= interval) {
+				try {
+					current.probe(endpoint);
+				} catch (RuntimeException e) {
+					// Failed probe is recorded by the request, keep checking the other endpoints
+				}
+			}
+		}
+		scheduleHealthCheck();
+	}
+
+}
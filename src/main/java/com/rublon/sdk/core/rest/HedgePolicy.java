@@ -0,0 +1,207 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedging policy class.
+ * <p>
+ * When the request has not been answered within the hedge delay, a second
+ * identical request is sent on another connection. The first response wins
+ * and the other request is cancelled. The delay follows a percentile of the
+ * recent latencies, so only the slowest requests are hedged, and the hedges
+ * are limited by the hedge budget shared by all requests using the policy.
+ * <p>
+ * Applies only to the API methods which are safe to duplicate.
+ *
+ * @author Rublon Developers
+ */
+public class HedgePolicy {
+
+	/**
+	 * Default latency percentile of the hedge delay.
+	 */
+	public static final double DEFAULT_PERCENTILE = 95;
+
+	/**
+	 * Default minimum hedge delay in milliseconds.
+	 */
+	public static final long DEFAULT_MIN_DELAY = 10;
+
+	/**
+	 * Default maximum hedge delay in milliseconds, used until the latencies are known.
+	 */
+	public static final long DEFAULT_MAX_DELAY = 1000;
+
+	/**
+	 * Default fraction of a hedge deposited in the budget by each request.
+	 */
+	public static final double DEFAULT_BUDGET_RATIO = 0.05;
+
+	/**
+	 * Default maximum number of hedges kept in the budget.
+	 */
+	public static final int DEFAULT_BUDGET_MAX_HEDGES = 10;
+
+	/**
+	 * Minimum hedge delay in milliseconds.
+	 */
+	protected long minDelay = DEFAULT_MIN_DELAY;
+
+	/**
+	 * Maximum hedge delay in milliseconds.
+	 */
+	protected long maxDelay = DEFAULT_MAX_DELAY;
+
+	/**
+	 * Tracker of the request latencies.
+	 */
+	protected volatile LatencyTracker latencyTracker = new LatencyTracker(DEFAULT_PERCENTILE);
+
+	/**
+	 * Hedge budget.
+	 */
+	protected final RequestBudget budget = new RequestBudget(DEFAULT_BUDGET_RATIO, DEFAULT_BUDGET_MAX_HEDGES);
+
+	/**
+	 * Number of hedges sent.
+	 */
+	private final AtomicLong hedges = new AtomicLong();
+
+	/**
+	 * Number of hedges which answered first.
+	 */
+	private final AtomicLong wins = new AtomicLong();
+
+	/**
+	 * Set latency percentile of the hedge delay.
+	 * <p>
+	 * Resets the recorded latencies.
+	 *
+	 * @param percentile Percentile, from 0 to 100.
+	 * @return HedgePolicy
+	 */
+	public HedgePolicy setPercentile(double percentile) {
+		this.latencyTracker = new LatencyTracker(percentile);
+		return this;
+	}
+
+	/**
+	 * Set bounds of the hedge delay.
+	 *
+	 * @param minDelay Minimum delay in milliseconds.
+	 * @param maxDelay Maximum delay in milliseconds, used until the latencies are known.
+	 * @return HedgePolicy
+	 */
+	public HedgePolicy setDelay(long minDelay, long maxDelay) {
+		this.minDelay = minDelay;
+		this.maxDelay = maxDelay;
+		return this;
+	}
+
+	/**
+	 * Set the hedge budget.
+	 * <p>
+	 * The budget starts full.
+	 *
+	 * @param ratio Fraction of a hedge deposited by each request, e.g. 0.05 allows hedging 5% of requests.
+	 * @param maxHedges Maximum number of hedges kept in the budget.
+	 * @return HedgePolicy
+	 */
+	public HedgePolicy setBudget(double ratio, int maxHedges) {
+		this.budget.set(ratio, maxHedges);
+		return this;
+	}
+
+	/**
+	 * Get the number of hedges left in the budget.
+	 */
+	public int getBudgetHedges() {
+		return budget.getAvailable();
+	}
+
+	/**
+	 * Get the tracker of the request latencies.
+	 */
+	public LatencyTracker getLatencyTracker() {
+		return latencyTracker;
+	}
+
+	/**
+	 * Get the number of hedges sent.
+	 */
+	public long getHedgeCount() {
+		return hedges.get();
+	}
+
+	/**
+	 * Get the number of hedges which answered first.
+	 */
+	public long getWinCount() {
+		return wins.get();
+	}
+
+	/**
+	 * Get the current hedge delay.
+	 *
+	 * @return Delay in milliseconds.
+	 */
+	public long getDelay() {
+		long estimate = latencyTracker.getEstimate();
+		if (estimate < 0) {
+			return maxDelay;
+		}
+		return Math.max(minDelay, Math.min(maxDelay, TimeUnit.NANOSECONDS.toMillis(estimate)));
+	}
+
+	/**
+	 * Deposit the share of the request in the hedge budget.
+	 */
+	public void onRequest() {
+		budget.deposit();
+	}
+
+	/**
+	 * Withdraw the hedge from the budget.
+	 *
+	 * @return False if the hedge should not be sent.
+	 */
+	public boolean tryHedge() {
+		if (budget.withdraw()) {
+			hedges.incrementAndGet();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Record the answered request.
+	 * <p>
+	 * Only the latencies of the primary requests are recorded, the hedges start
+	 * after the delay and would bias the estimate towards the faster responses.
+	 *
+	 * @param latency Latency in nanoseconds from the start of the request.
+	 * @param hedge Whether the request was the hedge.
+	 * @param won Whether the request answered first.
+	 */
+	public void onResponse(long latency, boolean hedge, boolean won) {
+		if (!hedge) {
+			latencyTracker.record(latency);
+		} else if (won) {
+			wins.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Record the primary request cancelled after the hedge has answered first.
+	 * <p>
+	 * Its latency is at least the time elapsed until the cancellation, recording
+	 * the lower bound keeps the slow requests in the estimate.
+	 *
+	 * @param elapsed Time in nanoseconds from the start of the request to its cancellation.
+	 */
+	public void onCancel(long elapsed) {
+		latencyTracker.record(elapsed);
+	}
+
+}
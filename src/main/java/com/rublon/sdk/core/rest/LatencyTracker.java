@@ -0,0 +1,112 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.Arrays;
+
+/**
+ * Latency tracker class.
+ * <p>
+ * Keeps the latencies of the last requests in a sliding window and estimates
+ * their percentile. The estimate is refreshed every few recorded samples,
+ * so reading it is cheap.
+ *
+ * @author Rublon Developers
+ */
+public class LatencyTracker {
+
+	/**
+	 * Default number of samples in the window.
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 256;
+
+	/**
+	 * Number of recorded samples between refreshes of the estimate.
+	 */
+	private static final int REFRESH_INTERVAL = 16;
+
+	/**
+	 * Tracked percentile, from 0 to 100.
+	 */
+	private final double percentile;
+
+	/**
+	 * Latencies in nanoseconds.
+	 */
+	private final long[] samples;
+
+	/**
+	 * Index of the next sample in the window.
+	 */
+	private int next;
+
+	/**
+	 * Number of samples in the window.
+	 */
+	private int count;
+
+	/**
+	 * Number of samples recorded since the last refresh.
+	 */
+	private int recorded;
+
+	/**
+	 * Current estimate in nanoseconds or -1 if not estimated yet.
+	 */
+	private volatile long estimate = -1;
+
+	/**
+	 * Construct the tracker with the default window size.
+	 *
+	 * @param percentile Tracked percentile, from 0 to 100.
+	 */
+	public LatencyTracker(double percentile) {
+		this(percentile, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Construct the tracker.
+	 *
+	 * @param percentile Tracked percentile, from 0 to 100.
+	 * @param windowSize Number of samples in the window.
+	 */
+	public LatencyTracker(double percentile, int windowSize) {
+		this.percentile = percentile;
+		this.samples = new long[windowSize];
+	}
+
+	/**
+	 * Get the tracked percentile.
+	 */
+	public double getPercentile() {
+		return percentile;
+	}
+
+	/**
+	 * Record the latency of the request.
+	 *
+	 * @param latency Latency in nanoseconds.
+	 */
+	public synchronized void record(long latency) {
+		samples[next] = latency;
+		next = (next + 1) % samples.length;
+		if (count < samples.length) {
+			count++;
+		}
+		if (++recorded >= REFRESH_INTERVAL) {
+			recorded = 0;
+			long[] sorted = Arrays.copyOf(samples, count);
+			Arrays.sort(sorted);
+			int index = (int) Math.ceil(percentile / 100 * count) - 1;
+			estimate = sorted[Math.max(0, Math.min(index, count - 1))];
+		}
+	}
+
+	/**
+	 * Get the estimated latency percentile.
+	 *
+	 * @return Latency in nanoseconds or -1 if too few samples have been recorded.
+	 */
+	public long getEstimate() {
+		return estimate;
+	}
+
+}
@@ -1,35 +1,81 @@
 package com.rublon.sdk.core.rest;
 
 
+import com.rublon.sdk.core.Codec;
+import com.rublon.sdk.core.HmacSigner;
 import com.rublon.sdk.core.RublonConsumer;
 import com.rublon.sdk.core.exception.ConnectionException;
-import com.rublon.sdk.core.message.RublonSignature;
-import org.apache.http.Header;
-import org.apache.http.HttpEntity;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
+import com.rublon.sdk.core.metrics.RublonMetrics;
+import com.rublon.sdk.core.util.Scheduler;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * REST client class.
  * <p>
  * Object provides an interface to perform an HTTP REST request.
+ * Requests are signed by the client and executed by a pluggable {@link Transport},
+ * which keeps persistent connections to the API server, so the client should be
+ * created once and closed when no longer needed.
+ * <p>
+ * The client does not keep any per-request state, each call returns its own
+ * {@link RESTResponse}, so a single instance may be shared between threads.
+ * <p>
+ * On Java 11+ each request attempt is recorded as a JDK Flight Recorder event
+ * named "com.rublon.sdk.Request", which costs nothing while disabled.
  * 
  * @author Rublon Developers
  */
-public class RESTClient {
+public class RESTClient implements Closeable {
 	
 	/**
 	 * Connection timeout in seconds.
 	 */
 	public static final int TIMEOUT = 30;
 	
+	/**
+	 * Default maximum number of pooled connections.
+	 */
+	public static final int DEFAULT_MAX_TOTAL = 50;
+	
+	/**
+	 * Default maximum number of pooled connections per route.
+	 */
+	public static final int DEFAULT_MAX_PER_ROUTE = 20;
+	
+	/**
+	 * Keep-alive time in seconds used when the server does not send the "Keep-Alive" header.
+	 */
+	public static final int KEEP_ALIVE = 60;
+	
+	/**
+	 * Time in seconds after which idle pooled connections are evicted.
+	 */
+	public static final int IDLE_TIMEOUT = 30;
+	
+	/**
+	 * Time in milliseconds of inactivity after which a pooled connection is re-validated before reuse.
+	 */
+	public static final int VALIDATE_AFTER_INACTIVITY = 2000;
+	
+	/**
+	 * Default maximum size of the response body in bytes.
+	 */
+	public static final int DEFAULT_MAX_RESPONSE_SIZE = 1024 * 1024;
+	
 	/**
 	 * User agent string.
 	 */
@@ -52,22 +98,62 @@ public class RESTClient {
 	 */
 	public static final String HEADER_NAME_SIGNATURE = "X-Rublon-Signature";
 
+	/**
+	 * Hash method of the request signature.
+	 */
+	public static final String SIGNATURE_HASH_METHOD = "SHA256";
+
+	/**
+	 * Message of the exception thrown when the request deadline expires.
+	 */
+	public static final String DEADLINE_MESSAGE = "Request deadline exceeded.";
+
 	private String secretKey;
 
 	/**
-	 * HTTP POST request handler.
+	 * Request signer bound to the secret key.
+	 */
+	private volatile HmacSigner signer;
+
+	/**
+	 * HTTP transport instance.
+	 */
+	private final Transport transport;
+
+	/**
+	 * Retry policy of the requests.
+	 */
+	private volatile RetryPolicy retryPolicy = new RetryPolicy();
+
+	/**
+	 * Circuit breaker of the API calls, disabled unless set.
 	 */
-	HttpPost httppost;
+	private volatile CircuitBreaker circuitBreaker = CircuitBreaker.disabled();
 
 	/**
-	 * Raw response string.
+	 * Concurrency limiter of the API calls.
 	 */
-	protected String rawResponse;
+	private volatile ConcurrencyLimiter concurrencyLimiter = ConcurrencyLimiter.unlimited();
 
 	/**
-	 * Response handler.
+	 * Metrics of the API calls.
 	 */
-	protected HttpResponse response;
+	private volatile RublonMetrics metrics = RublonMetrics.NOOP;
+
+	/**
+	 * Default timeouts of the requests.
+	 */
+	private volatile Timeouts timeouts = new Timeouts();
+
+	/**
+	 * Timeouts of the API methods overriding the defaults.
+	 */
+	private final Map<Class<?>, Timeouts> methodTimeouts = new ConcurrentHashMap<Class<?>, Timeouts>();
+
+	/**
+	 * Hedging policies of the API methods.
+	 */
+	private final Map<Class<?>, HedgePolicy> hedgePolicies = new ConcurrentHashMap<Class<?>, HedgePolicy>();
 	
 	/**
 	 * Construct REST client instance
@@ -75,11 +161,47 @@ public class RESTClient {
 	 * @param rublon instance
 	 */
 	public RESTClient(RublonConsumer rublon) {
-		this.secretKey =  rublon.getSecretKey();
+		this(rublon.getSecretKey());
 	}
 
 	public RESTClient(String secretKey) {
-		this.secretKey = secretKey;
+		this(secretKey, DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE);
+	}
+
+	/**
+	 * Construct REST client instance with custom connection pool limits
+	 * 
+	 * @param secretKey Secret key
+	 * @param maxTotal Maximum number of pooled connections
+	 * @param maxPerRoute Maximum number of pooled connections per route
+	 */
+	public RESTClient(String secretKey, int maxTotal, int maxPerRoute) {
+		this(secretKey, new TransportConfig()
+				.setMaxTotal(maxTotal)
+				.setMaxPerRoute(maxPerRoute));
+	}
+
+	/**
+	 * Construct REST client instance with custom transport configuration
+	 * <p>
+	 * The transport is created by the provider found by {@link TransportProvider#load()}.
+	 * 
+	 * @param secretKey Secret key
+	 * @param config Transport configuration
+	 */
+	public RESTClient(String secretKey, TransportConfig config) {
+		this(secretKey, TransportProvider.load().create(config));
+	}
+
+	/**
+	 * Construct REST client instance with given transport
+	 * 
+	 * @param secretKey Secret key
+	 * @param transport HTTP transport
+	 */
+	public RESTClient(String secretKey, Transport transport) {
+		this.transport = transport;
+		setSecretKey(secretKey);
 	}
 
 
@@ -88,112 +210,757 @@ public class RESTClient {
 	 * 
 	 * @param url URL address
 	 * @param rawPostBody POST body
-	 * @return Raw HTTP response body
+	 * @return HTTP response
 	 * @throws ConnectionException
 	 */
-	public String performRequest(String url, String rawPostBody) throws ConnectionException {
+	public RESTResponse performRequest(String url, String rawPostBody) throws ConnectionException {
+		return performRequest(url, rawPostBody.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Perform the request
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @return HTTP response
+	 * @throws ConnectionException
+	 */
+	public RESTResponse performRequest(String url, byte[] postBody) throws ConnectionException {
+		return performRequest(url, postBody, RetryPolicy.Mode.NEVER);
+	}
+
+	/**
+	 * Perform the request, retrying the failed attempts according to the retry policy
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @param mode Retry mode of the API method
+	 * @return HTTP response
+	 * @throws ConnectionException
+	 */
+	public RESTResponse performRequest(String url, byte[] postBody, RetryPolicy.Mode mode) throws ConnectionException {
+		return performRequest(url, postBody, mode, timeouts);
+	}
+
+	/**
+	 * Perform the request with given timeouts, retrying the failed attempts according to the retry policy
+	 * <p>
+	 * Retries are not attempted when their backoff would exceed the deadline.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @param mode Retry mode of the API method
+	 * @param timeouts Timeouts of the request, the deadline starts now
+	 * @return HTTP response
+	 * @throws ConnectionException
+	 */
+	public RESTResponse performRequest(String url, byte[] postBody, RetryPolicy.Mode mode, Timeouts timeouts) throws ConnectionException {
+		return performRequest(url, postBody, mode, timeouts, null);
+	}
+
+	/**
+	 * Perform the request with given timeouts and hedging, retrying the failed attempts according to the retry policy
+	 * <p>
+	 * Hedged requests are executed asynchronously while the calling thread waits.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @param mode Retry mode of the API method
+	 * @param timeouts Timeouts of the request, the deadline starts now
+	 * @param hedgePolicy Hedging policy or null to not hedge the request
+	 * @return HTTP response
+	 * @throws ConnectionException
+	 */
+	public RESTResponse performRequest(String url, byte[] postBody, RetryPolicy.Mode mode, Timeouts timeouts,
+			HedgePolicy hedgePolicy) throws ConnectionException {
+		return performRequest(url, postBody, mode, timeouts, hedgePolicy, System.nanoTime());
+	}
+
+	/**
+	 * Perform the request of the call started at given time, retrying the failed attempts according to the retry policy
+	 * <p>
+	 * The deadline runs from the start of the call, so it includes e.g. the wait for the concurrency limiter.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @param mode Retry mode of the API method
+	 * @param timeouts Timeouts of the request
+	 * @param hedgePolicy Hedging policy or null to not hedge the request
+	 * @param start Start of the call as {@link System#nanoTime()} value
+	 * @return HTTP response
+	 * @throws ConnectionException
+	 */
+	public RESTResponse performRequest(String url, byte[] postBody, RetryPolicy.Mode mode, Timeouts timeouts,
+			HedgePolicy hedgePolicy, long start) throws ConnectionException {
 		
-		httppost = new HttpPost(url);
-		httppost.setHeader("Content-Type", RESTClient.HEADER_VALUE_CONTENT_TYPE);
-		httppost.setHeader("Accept", RESTClient.HEADER_VALUE_ACCEPT);
-		httppost.setHeader("User-Agent", USER_AGENT);
-		httppost.setHeader(HEADER_NAME_SIGNATURE, RublonSignature.sign(rawPostBody,secretKey));
+		if (hedgePolicy != null) {
+			return await(performRequestAsync(url, postBody, mode, timeouts, hedgePolicy, start));
+		}
 		
-		CloseableHttpClient httpclient = createHttpClient();
+		RESTRequest request = createRequest(url, postBody, timeouts, start);
+		RetryPolicy policy = this.retryPolicy;
+		policy.onRequest();
+		
+		for (int attempt = 1; ; attempt++) {
+			if (request.getTimeLeft() <= 0) {
+				throw new ConnectionException.DeadlineExceededException(DEADLINE_MESSAGE, null);
+			}
+			RESTResponse response;
+			RequestEvent event = new RequestEvent();
+			event.begin();
+			long attemptStart = System.nanoTime();
+			try {
+				response = transport.execute(request);
+			} catch (ConnectionException e) {
+				recordNetwork(request, System.nanoTime() - attemptStart, null);
+				commitEvent(event, request, attempt, null, e);
+				ConnectionException failure = checkDeadline(request, e);
+				long delay = policy.getBackoff(attempt);
+				if (failure == e && delay < request.getTimeLeft() && policy.shouldRetry(mode, attempt, e)) {
+					backoff(delay, e);
+					continue;
+				}
+				throw failure;
+			}
+			recordNetwork(request, System.nanoTime() - attemptStart, response);
+			commitEvent(event, request, attempt, response, null);
+			long delay = policy.getBackoff(attempt);
+			if (delay < request.getTimeLeft() && policy.shouldRetry(mode, attempt, response)) {
+				backoff(delay, null);
+				continue;
+			}
+			return response;
+		}
+	}
+
+	/**
+	 * Perform the request asynchronously
+	 * 
+	 * @param url URL address
+	 * @param rawPostBody POST body
+	 * @return Future of the HTTP response
+	 */
+	public CompletableFuture<RESTResponse> performRequestAsync(String url, String rawPostBody) {
+		return performRequestAsync(url, rawPostBody.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Perform the request asynchronously
+	 * <p>
+	 * The returned future completes with the HTTP response or exceptionally
+	 * with a {@link ConnectionException}. Cancelling the future aborts the request.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @return Future of the HTTP response
+	 */
+	public CompletableFuture<RESTResponse> performRequestAsync(String url, byte[] postBody) {
+		return performRequestAsync(url, postBody, RetryPolicy.Mode.NEVER);
+	}
+
+	/**
+	 * Perform the request asynchronously, retrying the failed attempts according to the retry policy
+	 * <p>
+	 * The returned future completes with the HTTP response or exceptionally
+	 * with a {@link ConnectionException}. Cancelling the future aborts the request
+	 * and stops the retries.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @param mode Retry mode of the API method
+	 * @return Future of the HTTP response
+	 */
+	public CompletableFuture<RESTResponse> performRequestAsync(String url, byte[] postBody, RetryPolicy.Mode mode) {
+		return performRequestAsync(url, postBody, mode, timeouts);
+	}
+
+	/**
+	 * Perform the request asynchronously with given timeouts, retrying the failed attempts according to the retry policy
+	 * <p>
+	 * The returned future completes with the HTTP response or exceptionally
+	 * with a {@link ConnectionException}, at the latest when the deadline expires.
+	 * Cancelling the future aborts the request and stops the retries.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @param mode Retry mode of the API method
+	 * @param timeouts Timeouts of the request, the deadline starts now
+	 * @return Future of the HTTP response
+	 */
+	public CompletableFuture<RESTResponse> performRequestAsync(String url, byte[] postBody, RetryPolicy.Mode mode, Timeouts timeouts) {
+		return performRequestAsync(url, postBody, mode, timeouts, null);
+	}
+
+	/**
+	 * Perform the request asynchronously with given timeouts and hedging, retrying the failed attempts according to the retry policy
+	 * <p>
+	 * The returned future completes with the HTTP response or exceptionally
+	 * with a {@link ConnectionException}, at the latest when the deadline expires.
+	 * Cancelling the future aborts the requests and stops the retries.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @param mode Retry mode of the API method
+	 * @param timeouts Timeouts of the request, the deadline starts now
+	 * @param hedgePolicy Hedging policy or null to not hedge the request
+	 * @return Future of the HTTP response
+	 */
+	public CompletableFuture<RESTResponse> performRequestAsync(String url, byte[] postBody, RetryPolicy.Mode mode, Timeouts timeouts,
+			HedgePolicy hedgePolicy) {
+		return performRequestAsync(url, postBody, mode, timeouts, hedgePolicy, System.nanoTime());
+	}
+
+	/**
+	 * Perform the request of the call started at given time asynchronously, retrying the failed attempts according to the retry policy
+	 * <p>
+	 * The deadline runs from the start of the call, so it includes e.g. the wait for the concurrency limiter.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @param mode Retry mode of the API method
+	 * @param timeouts Timeouts of the request
+	 * @param hedgePolicy Hedging policy or null to not hedge the request
+	 * @param start Start of the call as {@link System#nanoTime()} value
+	 * @return Future of the HTTP response
+	 */
+	public CompletableFuture<RESTResponse> performRequestAsync(String url, byte[] postBody, RetryPolicy.Mode mode, Timeouts timeouts,
+			HedgePolicy hedgePolicy, long start) {
+		CompletableFuture<RESTResponse> result = new CompletableFuture<RESTResponse>();
+		RESTRequest request;
+		try {
+			request = createRequest(url, postBody, timeouts, start);
+		} catch (ConnectionException | RuntimeException e) {
+			result.completeExceptionally(e);
+			return result;
+		}
+		RetryPolicy policy = this.retryPolicy;
+		policy.onRequest();
+		executeAsync(request, mode, policy, hedgePolicy, 1, result);
+		return result;
+	}
+
+	/**
+	 * Send the single attempt of the request asynchronously, e.g. to probe the health of the server
+	 * <p>
+	 * The attempt is not retried nor hedged and does not use the retry budget.
+	 * The returned future completes with the HTTP response or exceptionally
+	 * with a {@link ConnectionException}.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body, signed and sent as is
+	 * @param timeouts Timeouts of the request, the deadline starts now
+	 * @return Future of the HTTP response
+	 */
+	public CompletableFuture<RESTResponse> probeAsync(String url, byte[] postBody, Timeouts timeouts) {
 		try {
-			RequestConfig reqConfig = RequestConfig.custom().
-					setConnectionRequestTimeout(TIMEOUT * 1000).
-					setSocketTimeout(TIMEOUT * 1000).build();
-			StringEntity postBody = new StringEntity(rawPostBody);
-			httppost.setEntity(postBody);
-			httppost.setConfig(reqConfig);
-			response = httpclient.execute(httppost);
-			HttpEntity resEntity = response.getEntity();
-            if (resEntity != null) {
-            	rawResponse = convertStreamToString(resEntity.getContent());
-            }
-            EntityUtils.consume(resEntity);
-
-		} catch (Exception e) {
+			return transport.executeAsync(createRequest(url, postBody, timeouts));
+		} catch (ConnectionException | RuntimeException e) {
+			CompletableFuture<RESTResponse> result = new CompletableFuture<RESTResponse>();
+			result.completeExceptionally(e);
+			return result;
+		}
+	}
+
+	/**
+	 * Execute the attempt of the asynchronous request.
+	 * 
+	 * @param request Signed request
+	 * @param mode Retry mode of the API method
+	 * @param policy Retry policy
+	 * @param hedgePolicy Hedging policy or null
+	 * @param attempt Number of the attempt, starting from 1
+	 * @param result Future of the request's HTTP response
+	 */
+	private void executeAsync(RESTRequest request, RetryPolicy.Mode mode, RetryPolicy policy, HedgePolicy hedgePolicy,
+			int attempt, CompletableFuture<RESTResponse> result) {
+		
+		if (result.isDone()) {
+			return;
+		}
+		if (request.getTimeLeft() <= 0) {
+			result.completeExceptionally(new ConnectionException.DeadlineExceededException(DEADLINE_MESSAGE, null));
+			return;
+		}
+		
+		final RequestEvent event = new RequestEvent();
+		event.begin();
+		final long start = System.nanoTime();
+		CompletableFuture<RESTResponse> future = (hedgePolicy != null
+				? executeHedged(request, hedgePolicy) : transport.executeAsync(request));
+		result.whenComplete((response, e) -> {
+			if (result.isCancelled()) {
+				future.cancel(true);
+			}
+		});
+		future.whenComplete((response, e) -> {
+			recordNetwork(request, System.nanoTime() - start, response);
+			Throwable cause = (e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+			commitEvent(event, request, attempt, response, cause);
+			if (e != null) {
+				if (cause instanceof ConnectionException) {
+					ConnectionException failure = checkDeadline(request, (ConnectionException) cause);
+					long delay = policy.getBackoff(attempt);
+					if (failure == cause && delay < request.getTimeLeft() && policy.shouldRetry(mode, attempt, failure)) {
+						policy.schedule(() -> executeAsync(request, mode, policy, hedgePolicy, attempt + 1, result), delay);
+					} else {
+						result.completeExceptionally(failure);
+					}
+				} else {
+					result.completeExceptionally(cause);
+				}
+			} else {
+				long delay = policy.getBackoff(attempt);
+				if (delay < request.getTimeLeft() && policy.shouldRetry(mode, attempt, response)) {
+					policy.schedule(() -> executeAsync(request, mode, policy, hedgePolicy, attempt + 1, result), delay);
+				} else {
+					result.complete(response);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Execute the request, hedging it when not answered within the hedge delay.
+	 * <p>
+	 * The first response wins and the other request is cancelled.
+	 * The future fails only when all sent requests have failed.
+	 * 
+	 * @param request Signed request
+	 * @param hedgePolicy Hedging policy
+	 * @return Future of the HTTP response
+	 */
+	private CompletableFuture<RESTResponse> executeHedged(RESTRequest request, HedgePolicy hedgePolicy) {
+		
+		final CompletableFuture<RESTResponse> result = new CompletableFuture<RESTResponse>();
+		final AtomicInteger pending = new AtomicInteger(1);
+		final AtomicReference<CompletableFuture<RESTResponse>> hedge = new AtomicReference<CompletableFuture<RESTResponse>>();
+		hedgePolicy.onRequest();
+		
+		final CompletableFuture<RESTResponse> primary = race(request, hedgePolicy, false, pending, result);
+		long delay = hedgePolicy.getDelay();
+		final ScheduledFuture<?> timer = (delay < request.getTimeLeft() ? Scheduler.schedule(() -> {
+			if (!result.isDone() && hedgePolicy.tryHedge()) {
+				pending.incrementAndGet();
+				hedge.set(race(request, hedgePolicy, true, pending, result));
+				if (result.isDone()) {
+					hedge.get().cancel(true);
+				}
+			}
+		}, delay) : null);
+		
+		result.whenComplete((response, e) -> {
+			if (timer != null) {
+				timer.cancel(false);
+			}
+			primary.cancel(true);
+			CompletableFuture<RESTResponse> other = hedge.get();
+			if (other != null) {
+				other.cancel(true);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Execute one of the hedged requests.
+	 * 
+	 * @param request Signed request
+	 * @param hedgePolicy Hedging policy
+	 * @param isHedge Whether the request is the hedge
+	 * @param pending Number of the requests not answered yet
+	 * @param result Future of the first response
+	 * @return Future of the request's HTTP response
+	 */
+	private CompletableFuture<RESTResponse> race(RESTRequest request, HedgePolicy hedgePolicy, boolean isHedge,
+			AtomicInteger pending, CompletableFuture<RESTResponse> result) {
+		
+		final long start = System.nanoTime();
+		CompletableFuture<RESTResponse> future = transport.executeAsync(request);
+		future.whenComplete((response, e) -> {
+			if (e == null) {
+				pending.decrementAndGet();
+				hedgePolicy.onResponse(System.nanoTime() - start, isHedge, result.complete(response));
+				return;
+			}
+			if (!isHedge && e instanceof CancellationException) {
+				hedgePolicy.onCancel(System.nanoTime() - start);
+			}
+			if (pending.decrementAndGet() == 0) {
+				result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+			}
+		});
+		return future;
+	}
+
+	/**
+	 * Wait for the response of the asynchronous request.
+	 * 
+	 * @param future Future of the HTTP response
+	 * @return HTTP response
+	 * @throws ConnectionException When the request failed or the thread was interrupted.
+	 */
+	private static RESTResponse await(CompletableFuture<RESTResponse> future) throws ConnectionException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
 			throw new ConnectionException(e.getLocalizedMessage(), e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof ConnectionException) {
+				throw (ConnectionException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new ConnectionException(cause.getLocalizedMessage(), cause);
 		}
-		finally {
-			try {
-				httpclient.close();
-			} catch (IOException e) {
-				throw new ConnectionException("Error on closing HTTP Client connection. " + e.getLocalizedMessage(), e);
+	}
+
+	/**
+	 * Report the failure of the request whose deadline has expired as exceeding the deadline.
+	 * <p>
+	 * The transport aborts the exchange when the deadline expires, so its failure
+	 * is just the consequence.
+	 * 
+	 * @param request Request
+	 * @param e Failure of the attempt
+	 * @return Given failure or the deadline exceeded exception caused by it
+	 */
+	private static ConnectionException checkDeadline(RESTRequest request, ConnectionException e) {
+		if (request.hasDeadline() && request.getTimeLeft() <= 0
+				&& !(e instanceof ConnectionException.DeadlineExceededException)) {
+			return new ConnectionException.DeadlineExceededException(DEADLINE_MESSAGE, e);
+		}
+		return e;
+	}
+
+	/**
+	 * Record the network round-trip of the attempt.
+	 * <p>
+	 * The time waiting for the pooled connection is recorded separately, when measured by the transport.
+	 * 
+	 * @param request Request
+	 * @param duration Duration of the attempt in nanoseconds
+	 * @param response Response or null if the attempt failed
+	 */
+	private void recordNetwork(RESTRequest request, long duration, RESTResponse response) {
+		RublonMetrics metrics = this.metrics;
+		if (metrics != RublonMetrics.NOOP) {
+			String method = RublonMetrics.getMethodName(request.getUrl());
+			long leaseTime = (response != null ? response.getLeaseTime() : -1);
+			if (leaseTime >= 0) {
+				metrics.recordPhase(method, RublonMetrics.Phase.LEASE, leaseTime);
+				duration -= leaseTime;
 			}
+			metrics.recordPhase(method, RublonMetrics.Phase.NETWORK, duration);
 		}
-		
-		return rawResponse;
 	}
 
-	protected CloseableHttpClient createHttpClient() {
-		return HttpClientBuilder.create().useSystemProperties().build();
+	/**
+	 * Commit the flight recorder event of the attempt, if enabled.
+	 * 
+	 * @param event Event begun with the attempt
+	 * @param request Request
+	 * @param attempt Number of the attempt
+	 * @param response Response or null if the attempt failed
+	 * @param failure Failure or null if the attempt succeeded
+	 */
+	private static void commitEvent(RequestEvent event, RESTRequest request, int attempt, RESTResponse response, Throwable failure) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.method = RublonMetrics.getMethodName(request.getUrl());
+			event.attempt = attempt;
+			event.bytesOut = request.getBody().length;
+			if (response != null) {
+				byte[] body = response.getBodyBytes();
+				event.status = response.getStatusCode();
+				event.bytesIn = (body != null ? body.length : 0);
+				event.connectionReused = response.isConnectionReused();
+			}
+			if (failure != null) {
+				event.failure = failure.getClass().getSimpleName();
+			}
+			event.commit();
+		}
 	}
 
 	/**
-	 * Get the raw response body string.
+	 * Wait before the next attempt.
+	 * 
+	 * @param delay Delay in milliseconds
+	 * @param failure Failure of the previous attempt, thrown when interrupted
+	 * @throws ConnectionException When interrupted.
 	 */
-	public String getRawResponse() {
-		return rawResponse;
+	private static void backoff(long delay, ConnectionException failure) throws ConnectionException {
+		try {
+			Thread.sleep(delay);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			if (failure != null) {
+				throw failure;
+			}
+			throw new ConnectionException(e.getLocalizedMessage(), e);
+		}
 	}
-	
+
 	/**
-	 * Get the HTTP POST request handler.
+	 * Create the signed request with default timeouts.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body
+	 * @throws IllegalStateException When the secret key is missing or invalid.
 	 */
-	public HttpPost getPostHandler() {
-		return httppost;
+	protected RESTRequest createRequest(String url, byte[] postBody) throws ConnectionException {
+		return createRequest(url, postBody, timeouts);
 	}
-	
+
 	/**
-	 * Get the HTTP response status name.
+	 * Create the signed request.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body
+	 * @param timeouts Timeouts of the request
+	 * @throws IllegalStateException When the secret key is missing or invalid.
 	 */
-	public String getHTTPStatus() {
-		return response.getStatusLine().getReasonPhrase();
+	protected RESTRequest createRequest(String url, byte[] postBody, Timeouts timeouts) throws ConnectionException {
+		return createRequest(url, postBody, timeouts, System.nanoTime());
 	}
-	
+
 	/**
-	 * Get the HTTP response status code.
-	 * @return
+	 * Create the signed request of the call started at given time.
+	 * 
+	 * @param url URL address
+	 * @param postBody UTF-8 encoded POST body
+	 * @param timeouts Timeouts of the request
+	 * @param start Start of the call as {@link System#nanoTime()} value, the deadline runs from it
+	 * @throws IllegalStateException When the secret key is missing or invalid, a configuration error
+	 * which is not subject to the bypass policy.
 	 */
-	public int getHTTPStatusCode() {
-		return response.getStatusLine().getStatusCode();
+	protected RESTRequest createRequest(String url, byte[] postBody, Timeouts timeouts, long start) throws ConnectionException {
+		HmacSigner signer = this.signer;
+		if (signer == null) {
+			throw new IllegalStateException("Cannot sign the request, missing or invalid secret key.");
+		}
+		Map<String, String> headers = new LinkedHashMap<String, String>();
+		headers.put("Content-Type", RESTClient.HEADER_VALUE_CONTENT_TYPE);
+		headers.put("Accept", RESTClient.HEADER_VALUE_ACCEPT);
+		headers.put("User-Agent", USER_AGENT);
+		long signStart = System.nanoTime();
+		headers.put(HEADER_NAME_SIGNATURE, Codec.hex_encode(signer.sign(postBody)));
+		RublonMetrics metrics = this.metrics;
+		if (metrics != RublonMetrics.NOOP) {
+			metrics.recordPhase(RublonMetrics.getMethodName(url), RublonMetrics.Phase.SIGN, System.nanoTime() - signStart);
+		}
+		return new RESTRequest(url, headers, postBody, timeouts, start);
 	}
-	
-	
+
+	/**
+	 * Open connections to the server of given URL ahead of the first request.
+	 * 
+	 * @param url Server URL
+	 * @param connections Number of connections to open
+	 * @throws ConnectionException
+	 */
+	public void preconnect(String url, int connections) throws ConnectionException {
+		transport.preconnect(url, connections);
+	}
+
+	/**
+	 * Get the retry policy.
+	 */
+	public RetryPolicy getRetryPolicy() {
+		return retryPolicy;
+	}
+
+	/**
+	 * Set the retry policy.
+	 * 
+	 * @param retryPolicy Retry policy, {@link RetryPolicy#none()} disables the retries
+	 * @return RESTClient
+	 */
+	public RESTClient setRetryPolicy(RetryPolicy retryPolicy) {
+		this.retryPolicy = retryPolicy;
+		return this;
+	}
+
+	/**
+	 * Get the circuit breaker of the API calls.
+	 */
+	public CircuitBreaker getCircuitBreaker() {
+		return circuitBreaker;
+	}
+
+	/**
+	 * Set the circuit breaker of the API calls.
+	 * 
+	 * @param circuitBreaker Circuit breaker, {@link CircuitBreaker#disabled()} by default
+	 * @return RESTClient
+	 */
+	public RESTClient setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+		return this;
+	}
+
+	/**
+	 * Get the concurrency limiter of the API calls.
+	 */
+	public ConcurrencyLimiter getConcurrencyLimiter() {
+		return concurrencyLimiter;
+	}
+
+	/**
+	 * Set the concurrency limiter of the API calls.
+	 * 
+	 * @param concurrencyLimiter Concurrency limiter, {@link ConcurrencyLimiter#unlimited()} never rejects the calls
+	 * @return RESTClient
+	 */
+	public RESTClient setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+		this.concurrencyLimiter = concurrencyLimiter;
+		bindLimiter();
+		return this;
+	}
+
+	/**
+	 * Get the metrics of the API calls.
+	 */
+	public RublonMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Set the metrics of the API calls.
+	 * 
+	 * @param metrics Metrics, {@link RublonMetrics#NOOP} records nothing
+	 * @return RESTClient
+	 */
+	public RESTClient setMetrics(RublonMetrics metrics) {
+		this.metrics = metrics;
+		bindLimiter();
+		return this;
+	}
+
+	/**
+	 * Bind the concurrency limiter to the metrics.
+	 */
+	private synchronized void bindLimiter() {
+		ConcurrencyLimiter limiter = this.concurrencyLimiter;
+		metrics.bindLimiter(limiter.isEnabled() ? limiter : null);
+	}
+
 	/**
-	 * Convert an InputStream into String
+	 * Get the default timeouts of the requests.
+	 */
+	public Timeouts getTimeouts() {
+		return timeouts;
+	}
+
+	/**
+	 * Set the default timeouts of the requests.
 	 * 
-	 * @param is instance
-	 * @return String
+	 * @param timeouts Timeouts
+	 * @return RESTClient
 	 */
-	protected static String convertStreamToString(java.io.InputStream is) {
-	    java.util.Scanner s = new java.util.Scanner(is);
-	    s.useDelimiter("\\A");
-	    String result = (s.hasNext() ? s.next() : "");
-	    s.close();
-	    return result;
+	public RESTClient setTimeouts(Timeouts timeouts) {
+		this.timeouts = timeouts;
+		return this;
 	}
 
+	/**
+	 * Get the timeouts of given API method's requests.
+	 * 
+	 * @param method API method class
+	 * @return Timeouts of the method or the default timeouts
+	 */
+	public Timeouts getTimeouts(Class<?> method) {
+		Timeouts result = methodTimeouts.get(method);
+		return (result != null ? result : timeouts);
+	}
 
 	/**
-	 * Get the Rublon signature header from response.
+	 * Set the timeouts of given API method's requests.
+	 * 
+	 * @param method API method class
+	 * @param timeouts Timeouts or null to use the default timeouts
+	 * @return RESTClient
 	 */
-	public String getSignature() {
-		Header[] headers = response.getHeaders(HEADER_NAME_SIGNATURE);
-		if (headers.length > 0) {
-			return headers[0].getValue();
+	public RESTClient setTimeouts(Class<?> method, Timeouts timeouts) {
+		if (timeouts != null) {
+			methodTimeouts.put(method, timeouts);
 		} else {
-			return null;
+			methodTimeouts.remove(method);
 		}
+		return this;
+	}
+
+	/**
+	 * Get the hedging policy of given API method's requests.
+	 * 
+	 * @param method API method class
+	 * @return Hedging policy or null if the requests are not hedged
+	 */
+	public HedgePolicy getHedgePolicy(Class<?> method) {
+		return hedgePolicies.get(method);
+	}
+
+	/**
+	 * Set the hedging policy of given API method's requests.
+	 * 
+	 * @param method API method class
+	 * @param hedgePolicy Hedging policy or null to not hedge the requests
+	 * @return RESTClient
+	 */
+	public RESTClient setHedgePolicy(Class<?> method, HedgePolicy hedgePolicy) {
+		if (hedgePolicy != null) {
+			hedgePolicies.put(method, hedgePolicy);
+		} else {
+			hedgePolicies.remove(method);
+		}
+		return this;
+	}
+
+	/**
+	 * Get the HTTP transport.
+	 */
+	public Transport getTransport() {
+		return transport;
+	}
+
+	/**
+	 * Close the transport and all pooled connections.
+	 */
+	@Override
+	public void close() throws IOException {
+		transport.close();
 	}
 
 	public String getSecretKey() {
 		return secretKey;
 	}
 
+	/**
+	 * Set the secret key and bind the signer to it.
+	 * <p>
+	 * A missing, empty or otherwise invalid key leaves no signer, so the requests fail
+	 * when they are signed, not when the client is constructed.
+	 * 
+	 * @param secretKey Secret key or null
+	 */
 	public void setSecretKey(String secretKey) {
 		this.secretKey = secretKey;
+		try {
+			this.signer = (secretKey != null && !secretKey.isEmpty() ? new HmacSigner(SIGNATURE_HASH_METHOD, secretKey) : null);
+		} catch (GeneralSecurityException | IllegalArgumentException e) {
+			this.signer = null;
+		}
+	}
+
+	/**
+	 * Get the signer bound to the secret key.
+	 * 
+	 * @return Signer or null if the secret key is missing or invalid.
+	 */
+	public HmacSigner getSigner() {
+		return signer;
 	}
 }
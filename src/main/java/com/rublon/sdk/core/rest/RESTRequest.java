@@ -0,0 +1,166 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST request class.
+ * <p>
+ * Immutable, already signed HTTP POST request passed by the {@link RESTClient}
+ * to the {@link Transport}.
+ * <p>
+ * Carries the timeouts of the attempt and the deadline of the whole call,
+ * which the transport enforces by aborting the in-flight exchange.
+ * 
+ * @author Rublon Developers
+ */
+public final class RESTRequest {
+
+	/**
+	 * Deadline value of the request without deadline.
+	 */
+	private static final long NO_DEADLINE = Long.MIN_VALUE;
+
+	/**
+	 * URL address.
+	 */
+	private final String url;
+
+	/**
+	 * Request headers.
+	 */
+	private final Map<String, String> headers;
+
+	/**
+	 * UTF-8 encoded POST body.
+	 */
+	private final byte[] body;
+
+	/**
+	 * Connect timeout in milliseconds.
+	 */
+	private final int connectTimeout;
+
+	/**
+	 * Read timeout in milliseconds.
+	 */
+	private final int readTimeout;
+
+	/**
+	 * Deadline as {@link System#nanoTime()} value.
+	 */
+	private final long deadline;
+
+	/**
+	 * Construct the request instance with default timeouts and no deadline.
+	 * 
+	 * @param url URL address.
+	 * @param headers Request headers.
+	 * @param body UTF-8 encoded POST body, not copied.
+	 */
+	public RESTRequest(String url, Map<String, String> headers, byte[] body) {
+		this(url, headers, body, new Timeouts());
+	}
+
+	/**
+	 * Construct the request instance.
+	 * <p>
+	 * The deadline, if any, starts now.
+	 * 
+	 * @param url URL address.
+	 * @param headers Request headers.
+	 * @param body UTF-8 encoded POST body, not copied.
+	 * @param timeouts Timeouts, copied.
+	 */
+	public RESTRequest(String url, Map<String, String> headers, byte[] body, Timeouts timeouts) {
+		this(url, headers, body, timeouts, System.nanoTime());
+	}
+
+	/**
+	 * Construct the request instance.
+	 * <p>
+	 * The deadline, if any, runs from given start of the call, e.g. before it waited
+	 * for the concurrency limiter.
+	 * 
+	 * @param url URL address.
+	 * @param headers Request headers.
+	 * @param body UTF-8 encoded POST body, not copied.
+	 * @param timeouts Timeouts, copied.
+	 * @param start Start of the call as {@link System#nanoTime()} value.
+	 */
+	public RESTRequest(String url, Map<String, String> headers, byte[] body, Timeouts timeouts, long start) {
+		this.url = url;
+		this.headers = Collections.unmodifiableMap(new LinkedHashMap<String, String>(headers));
+		this.body = body;
+		this.connectTimeout = timeouts.getConnectTimeout();
+		this.readTimeout = timeouts.getReadTimeout();
+		this.deadline = (timeouts.getDeadline() > 0
+				? start + TimeUnit.MILLISECONDS.toNanos(timeouts.getDeadline()) : NO_DEADLINE);
+	}
+
+	/**
+	 * Get the URL address.
+	 */
+	public String getUrl() {
+		return url;
+	}
+
+	/**
+	 * Get the request headers.
+	 */
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * Get the UTF-8 encoded POST body.
+	 * <p>
+	 * The array is shared with the request and must not be modified.
+	 */
+	public byte[] getBody() {
+		return body;
+	}
+
+	/**
+	 * Get the connect timeout in milliseconds.
+	 */
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Get the read timeout in milliseconds.
+	 */
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * Check whether the request has a deadline.
+	 */
+	public boolean hasDeadline() {
+		return (deadline != NO_DEADLINE);
+	}
+
+	/**
+	 * Get the time left until the deadline.
+	 * 
+	 * @return Time in milliseconds, not positive when expired, {@link Long#MAX_VALUE} without deadline.
+	 */
+	public long getTimeLeft() {
+		if (deadline == NO_DEADLINE) {
+			return Long.MAX_VALUE;
+		}
+		return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+	}
+
+	/**
+	 * Create string from the request data.
+	 */
+	public String toString() {
+		return "POST " + url;
+	}
+
+}
@@ -0,0 +1,187 @@
+package com.rublon.sdk.core.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * REST response class.
+ * <p>
+ * Immutable result of a single HTTP request performed by the {@link RESTClient}.
+ * Instances are safe to share between threads.
+ * <p>
+ * The body is kept as the raw UTF-8 bytes read from the connection
+ * and decoded to a string only when requested.
+ * 
+ * @author Rublon Developers
+ */
+public final class RESTResponse {
+
+	/**
+	 * HTTP status code.
+	 */
+	private final int statusCode;
+
+	/**
+	 * HTTP status reason phrase.
+	 */
+	private final String reasonPhrase;
+
+	/**
+	 * Response headers, names are case-insensitive.
+	 */
+	private final Map<String, String> headers;
+
+	/**
+	 * Raw response body bytes.
+	 */
+	private final byte[] body;
+
+	/**
+	 * Response body string, decoded on the first call to {@link #getBody()}.
+	 */
+	private volatile String bodyString;
+
+	/**
+	 * Time in nanoseconds spent waiting for the pooled connection, -1 if unknown.
+	 */
+	private final long leaseTime;
+
+	/**
+	 * Whether the request was sent on a reused pooled connection.
+	 */
+	private final boolean connectionReused;
+
+	/**
+	 * Construct the response instance.
+	 * 
+	 * @param statusCode HTTP status code.
+	 * @param reasonPhrase HTTP status reason phrase.
+	 * @param headers Response headers, first value of each header.
+	 * @param body Raw response body.
+	 */
+	public RESTResponse(int statusCode, String reasonPhrase, Map<String, String> headers, String body) {
+		this(statusCode, reasonPhrase, headers, (body != null ? body.getBytes(StandardCharsets.UTF_8) : null));
+	}
+
+	/**
+	 * Construct the response instance.
+	 * 
+	 * @param statusCode HTTP status code.
+	 * @param reasonPhrase HTTP status reason phrase.
+	 * @param headers Response headers, first value of each header.
+	 * @param body UTF-8 encoded response body, not copied.
+	 */
+	public RESTResponse(int statusCode, String reasonPhrase, Map<String, String> headers, byte[] body) {
+		this(statusCode, reasonPhrase, headers, body, -1, false);
+	}
+
+	/**
+	 * Construct the response instance.
+	 * 
+	 * @param statusCode HTTP status code.
+	 * @param reasonPhrase HTTP status reason phrase.
+	 * @param headers Response headers, first value of each header.
+	 * @param body UTF-8 encoded response body, not copied.
+	 * @param leaseTime Time in nanoseconds spent waiting for the pooled connection, -1 if unknown.
+	 * @param connectionReused Whether the request was sent on a reused pooled connection.
+	 */
+	public RESTResponse(int statusCode, String reasonPhrase, Map<String, String> headers, byte[] body,
+			long leaseTime, boolean connectionReused) {
+		this.statusCode = statusCode;
+		this.reasonPhrase = reasonPhrase;
+		Map<String, String> map = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+		if (headers != null) {
+			map.putAll(headers);
+		}
+		this.headers = Collections.unmodifiableMap(map);
+		this.body = body;
+		this.leaseTime = leaseTime;
+		this.connectionReused = connectionReused;
+	}
+
+	/**
+	 * Get the HTTP response status code.
+	 */
+	public int getStatusCode() {
+		return statusCode;
+	}
+
+	/**
+	 * Get the HTTP response status name.
+	 */
+	public String getReasonPhrase() {
+		return reasonPhrase;
+	}
+
+	/**
+	 * Get all response headers.
+	 */
+	public Map<String, String> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * Get the response header value or null if not present.
+	 * 
+	 * @param name Header name.
+	 */
+	public String getHeader(String name) {
+		return headers.get(name);
+	}
+
+	/**
+	 * Get the raw response body string.
+	 */
+	public String getBody() {
+		String result = bodyString;
+		if (result == null && body != null) {
+			result = new String(body, StandardCharsets.UTF_8);
+			bodyString = result;
+		}
+		return result;
+	}
+
+	/**
+	 * Get the raw response body bytes or null if the response has no body.
+	 * <p>
+	 * The array is shared with the response and must not be modified.
+	 */
+	public byte[] getBodyBytes() {
+		return body;
+	}
+
+	/**
+	 * Get the Rublon signature header from response.
+	 */
+	public String getSignature() {
+		return getHeader(RESTClient.HEADER_NAME_SIGNATURE);
+	}
+
+	/**
+	 * Get the time in nanoseconds spent waiting for the pooled connection.
+	 * 
+	 * @return Lease time or -1 if not measured by the transport.
+	 */
+	public long getLeaseTime() {
+		return leaseTime;
+	}
+
+	/**
+	 * Check whether the request was sent on a reused pooled connection.
+	 * <p>
+	 * False also when not known by the transport.
+	 */
+	public boolean isConnectionReused() {
+		return connectionReused;
+	}
+
+	/**
+	 * Create string from the response data.
+	 */
+	public String toString() {
+		return "HTTP " + statusCode + " " + reasonPhrase;
+	}
+
+}
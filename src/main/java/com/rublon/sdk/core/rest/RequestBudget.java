@@ -0,0 +1,95 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Budget of the extra requests.
+ * <p>
+ * Each request deposits a fraction of an extra request, e.g. a retry or a hedge,
+ * and each extra request withdraws a whole one, so the extra requests cannot
+ * exceed given share of the traffic. The budget starts full.
+ *
+ * @author Rublon Developers
+ */
+public class RequestBudget {
+
+	/**
+	 * Budget units of a single extra request.
+	 */
+	private static final long COST = 1000;
+
+	/**
+	 * Budget units deposited by each request.
+	 */
+	private volatile long deposit;
+
+	/**
+	 * Maximum budget units.
+	 */
+	private volatile long max;
+
+	/**
+	 * Current budget units.
+	 */
+	private final AtomicLong units = new AtomicLong();
+
+	/**
+	 * Construct the budget.
+	 *
+	 * @param ratio Fraction of an extra request deposited by each request.
+	 * @param maxRequests Maximum number of extra requests kept in the budget.
+	 */
+	public RequestBudget(double ratio, int maxRequests) {
+		set(ratio, maxRequests);
+	}
+
+	/**
+	 * Change the budget and fill it.
+	 *
+	 * @param ratio Fraction of an extra request deposited by each request.
+	 * @param maxRequests Maximum number of extra requests kept in the budget.
+	 */
+	public void set(double ratio, int maxRequests) {
+		this.deposit = (long) (ratio * COST);
+		this.max = maxRequests * COST;
+		this.units.set(max);
+	}
+
+	/**
+	 * Get the number of extra requests left in the budget.
+	 */
+	public int getAvailable() {
+		return (int) (units.get() / COST);
+	}
+
+	/**
+	 * Deposit the share of the request.
+	 */
+	public void deposit() {
+		long current;
+		long limit = max;
+		do {
+			current = units.get();
+			if (current >= limit) {
+				return;
+			}
+		} while (!units.compareAndSet(current, Math.min(limit, current + deposit)));
+	}
+
+	/**
+	 * Withdraw a single extra request.
+	 *
+	 * @return False if the budget is exhausted.
+	 */
+	public boolean withdraw() {
+		long current;
+		do {
+			current = units.get();
+			if (current < COST) {
+				return false;
+			}
+		} while (!units.compareAndSet(current, current - COST));
+		return true;
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.rublon.sdk.core.rest;
+
+/**
+ * Flight recorder event of the HTTP request attempt.
+ * <p>
+ * This version records nothing, the Java 11+ version of the multi-release jar
+ * is a JDK Flight Recorder event. Set the fields only when {@link #shouldCommit()}.
+ *
+ * @author Rublon Developers
+ */
+final class RequestEvent {
+
+	/**
+	 * API method name.
+	 */
+	String method;
+
+	/**
+	 * Number of the attempt, starting from 1.
+	 */
+	int attempt;
+
+	/**
+	 * HTTP status code, 0 if the attempt failed.
+	 */
+	int status;
+
+	/**
+	 * Size of the request body in bytes.
+	 */
+	long bytesOut;
+
+	/**
+	 * Size of the response body in bytes.
+	 */
+	long bytesIn;
+
+	/**
+	 * Whether the request was sent on a reused pooled connection.
+	 */
+	boolean connectionReused;
+
+	/**
+	 * Simple name of the exception class of the failed attempt.
+	 */
+	String failure;
+
+	/**
+	 * Start timing the event.
+	 */
+	public void begin() {
+	}
+
+	/**
+	 * Stop timing the event.
+	 */
+	public void end() {
+	}
+
+	/**
+	 * Check whether the event should be committed.
+	 */
+	public boolean shouldCommit() {
+		return false;
+	}
+
+	/**
+	 * Commit the event.
+	 */
+	public void commit() {
+	}
+
+}
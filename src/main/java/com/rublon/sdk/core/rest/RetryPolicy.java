@@ -0,0 +1,261 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.rublon.sdk.core.exception.ConnectionException;
+import com.rublon.sdk.core.util.Scheduler;
+
+/**
+ * Retry policy class.
+ * <p>
+ * Failed requests are retried with an exponential backoff and jitter, but only
+ * when the API method allows it (see {@link Mode}). Retries are limited by the
+ * retry budget shared by all requests using the policy: each request deposits
+ * a fraction of a retry and each retry withdraws a whole one, so during an outage
+ * retries cannot multiply the load on the API server.
+ *
+ * @author Rublon Developers
+ */
+public class RetryPolicy {
+
+	/**
+	 * Retry mode of the API method.
+	 */
+	public enum Mode {
+
+		/**
+		 * Never retry, e.g. the request consumes a one-time access token.
+		 */
+		NEVER,
+
+		/**
+		 * Retry only when the request has not been sent.
+		 */
+		CONNECT_FAILURE,
+
+		/**
+		 * Retry any connection failure and the 502, 503 and 504 responses, the request is idempotent.
+		 */
+		ALWAYS
+
+	}
+
+	/**
+	 * Default maximum number of attempts, including the first one.
+	 */
+	public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+	/**
+	 * Default backoff before the first retry in milliseconds.
+	 */
+	public static final long DEFAULT_INITIAL_BACKOFF = 50;
+
+	/**
+	 * Default maximum backoff in milliseconds.
+	 */
+	public static final long DEFAULT_MAX_BACKOFF = 2000;
+
+	/**
+	 * Default backoff multiplier.
+	 */
+	public static final double DEFAULT_MULTIPLIER = 2.0;
+
+	/**
+	 * Default fraction of a retry deposited in the budget by each request.
+	 */
+	public static final double DEFAULT_BUDGET_RATIO = 0.1;
+
+	/**
+	 * Default maximum number of retries kept in the budget.
+	 */
+	public static final int DEFAULT_BUDGET_MAX_RETRIES = 10;
+
+	/**
+	 * Maximum number of attempts, including the first one.
+	 */
+	protected int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+
+	/**
+	 * Backoff before the first retry in milliseconds.
+	 */
+	protected long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+
+	/**
+	 * Maximum backoff in milliseconds.
+	 */
+	protected long maxBackoff = DEFAULT_MAX_BACKOFF;
+
+	/**
+	 * Backoff multiplier.
+	 */
+	protected double multiplier = DEFAULT_MULTIPLIER;
+
+	/**
+	 * Retry budget.
+	 */
+	protected final RequestBudget budget = new RequestBudget(DEFAULT_BUDGET_RATIO, DEFAULT_BUDGET_MAX_RETRIES);
+
+	/**
+	 * Create the policy which never retries.
+	 */
+	static public RetryPolicy none() {
+		return new RetryPolicy().setMaxAttempts(1);
+	}
+
+	/**
+	 * Get maximum number of attempts, including the first one.
+	 */
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * Set maximum number of attempts, including the first one.
+	 *
+	 * @param maxAttempts
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setMaxAttempts(int maxAttempts) {
+		this.maxAttempts = maxAttempts;
+		return this;
+	}
+
+	/**
+	 * Get backoff before the first retry in milliseconds.
+	 */
+	public long getInitialBackoff() {
+		return initialBackoff;
+	}
+
+	/**
+	 * Set backoff before the first retry in milliseconds.
+	 *
+	 * @param initialBackoff
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setInitialBackoff(long initialBackoff) {
+		this.initialBackoff = initialBackoff;
+		return this;
+	}
+
+	/**
+	 * Get maximum backoff in milliseconds.
+	 */
+	public long getMaxBackoff() {
+		return maxBackoff;
+	}
+
+	/**
+	 * Set maximum backoff in milliseconds.
+	 *
+	 * @param maxBackoff
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setMaxBackoff(long maxBackoff) {
+		this.maxBackoff = maxBackoff;
+		return this;
+	}
+
+	/**
+	 * Get backoff multiplier.
+	 */
+	public double getMultiplier() {
+		return multiplier;
+	}
+
+	/**
+	 * Set backoff multiplier.
+	 *
+	 * @param multiplier
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setMultiplier(double multiplier) {
+		this.multiplier = multiplier;
+		return this;
+	}
+
+	/**
+	 * Set the retry budget.
+	 * <p>
+	 * The budget starts full.
+	 *
+	 * @param ratio Fraction of a retry deposited by each request, e.g. 0.1 allows retrying 10% of requests.
+	 * @param maxRetries Maximum number of retries kept in the budget.
+	 * @return RetryPolicy
+	 */
+	public RetryPolicy setBudget(double ratio, int maxRetries) {
+		this.budget.set(ratio, maxRetries);
+		return this;
+	}
+
+	/**
+	 * Get the number of retries left in the budget.
+	 */
+	public int getBudgetRetries() {
+		return budget.getAvailable();
+	}
+
+	/**
+	 * Deposit the share of the request in the retry budget.
+	 */
+	public void onRequest() {
+		budget.deposit();
+	}
+
+	/**
+	 * Check whether the failed attempt should be retried and withdraw the retry from the budget.
+	 *
+	 * @param mode Retry mode of the API method.
+	 * @param attempt Number of the failed attempt, starting from 1.
+	 * @param e Failure.
+	 */
+	public boolean shouldRetry(Mode mode, int attempt, ConnectionException e) {
+		boolean retryable = (mode == Mode.ALWAYS
+				|| (mode == Mode.CONNECT_FAILURE && e instanceof ConnectionException.ConnectFailedException));
+		return (retryable && attempt < maxAttempts && budget.withdraw());
+	}
+
+	/**
+	 * Check whether the attempt's response should be retried and withdraw the retry from the budget.
+	 *
+	 * @param mode Retry mode of the API method.
+	 * @param attempt Number of the attempt, starting from 1.
+	 * @param response HTTP response.
+	 */
+	public boolean shouldRetry(Mode mode, int attempt, RESTResponse response) {
+		int status = response.getStatusCode();
+		boolean retryable = (mode == Mode.ALWAYS && (status == 502 || status == 503 || status == 504));
+		return (retryable && attempt < maxAttempts && budget.withdraw());
+	}
+
+	/**
+	 * Get the backoff before the next attempt.
+	 * <p>
+	 * The exponential backoff is capped by the maximum backoff and randomized
+	 * between its half and its full value.
+	 *
+	 * @param attempt Number of the failed attempt, starting from 1.
+	 * @return Backoff in milliseconds.
+	 */
+	public long getBackoff(int attempt) {
+		double backoff = initialBackoff * Math.pow(multiplier, attempt - 1);
+		long cap = (long) Math.min(backoff, maxBackoff);
+		if (cap <= 1) {
+			return Math.max(cap, 0);
+		}
+		return cap / 2 + ThreadLocalRandom.current().nextLong(cap - cap / 2 + 1);
+	}
+
+	/**
+	 * Run the task after given delay.
+	 * <p>
+	 * Used by the asynchronous retries, runs on the shared daemon thread.
+	 *
+	 * @param task Task.
+	 * @param delay Delay in milliseconds.
+	 */
+	public void schedule(Runnable task, long delay) {
+		Scheduler.schedule(task, delay);
+	}
+
+}
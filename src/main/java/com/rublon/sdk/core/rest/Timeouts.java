@@ -0,0 +1,99 @@
+package com.rublon.sdk.core.rest;
+
+/**
+ * Timeouts class.
+ * <p>
+ * Timeouts of the API method's requests. The connect and read timeouts
+ * apply to each attempt, the deadline bounds the whole call including
+ * the wait for the concurrency limiter, the retries and their backoff: when it expires, the in-flight exchange
+ * is aborted and the call fails with {@link com.rublon.sdk.core.exception.ConnectionException.DeadlineExceededException}.
+ *
+ * @author Rublon Developers
+ */
+public class Timeouts {
+
+	/**
+	 * Deadline value meaning no deadline.
+	 */
+	public static final long NO_DEADLINE = 0;
+
+	/**
+	 * Default connect timeout in milliseconds.
+	 */
+	public static final int DEFAULT_CONNECT_TIMEOUT = RESTClient.TIMEOUT * 1000;
+
+	/**
+	 * Default read timeout in milliseconds.
+	 */
+	public static final int DEFAULT_READ_TIMEOUT = RESTClient.TIMEOUT * 1000;
+
+	/**
+	 * Timeout in milliseconds of connecting to the server, including the wait for a pooled connection.
+	 */
+	protected int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+
+	/**
+	 * Timeout in milliseconds of waiting for the response data.
+	 */
+	protected int readTimeout = DEFAULT_READ_TIMEOUT;
+
+	/**
+	 * Time in milliseconds the whole call may take.
+	 */
+	protected long deadline = NO_DEADLINE;
+
+	/**
+	 * Get timeout in milliseconds of connecting to the server.
+	 */
+	public int getConnectTimeout() {
+		return connectTimeout;
+	}
+
+	/**
+	 * Set timeout in milliseconds of connecting to the server, including the wait for a pooled connection.
+	 *
+	 * @param connectTimeout
+	 * @return Timeouts
+	 */
+	public Timeouts setConnectTimeout(int connectTimeout) {
+		this.connectTimeout = connectTimeout;
+		return this;
+	}
+
+	/**
+	 * Get timeout in milliseconds of waiting for the response data.
+	 */
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	/**
+	 * Set timeout in milliseconds of waiting for the response data.
+	 *
+	 * @param readTimeout
+	 * @return Timeouts
+	 */
+	public Timeouts setReadTimeout(int readTimeout) {
+		this.readTimeout = readTimeout;
+		return this;
+	}
+
+	/**
+	 * Get time in milliseconds the whole call may take or {@link #NO_DEADLINE}.
+	 */
+	public long getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Set time in milliseconds the whole call may take.
+	 *
+	 * @param deadline Deadline or {@link #NO_DEADLINE}
+	 * @return Timeouts
+	 */
+	public Timeouts setDeadline(long deadline) {
+		this.deadline = deadline;
+		return this;
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.rublon.sdk.core.rest;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+
+import com.rublon.sdk.core.exception.ConnectionException;
+
+/**
+ * HTTP transport interface.
+ * <p>
+ * Transport executes signed requests prepared by the {@link RESTClient}.
+ * Implementations must be thread-safe and should reuse connections
+ * between requests. Transports are created by a {@link TransportProvider}.
+ * 
+ * @author Rublon Developers
+ */
+public interface Transport extends Closeable {
+
+	/**
+	 * Execute the request and wait for the response.
+	 * 
+	 * @param request Signed request.
+	 * @return HTTP response
+	 * @throws ConnectionException
+	 */
+	RESTResponse execute(RESTRequest request) throws ConnectionException;
+
+	/**
+	 * Execute the request without blocking the calling thread.
+	 * <p>
+	 * The returned future completes with the HTTP response or exceptionally
+	 * with a {@link ConnectionException}. Cancelling the future should abort the request.
+	 * 
+	 * @param request Signed request.
+	 * @return Future of the HTTP response
+	 */
+	CompletableFuture<RESTResponse> executeAsync(RESTRequest request);
+
+	/**
+	 * Open connections to the server of given URL and keep them for the following requests.
+	 * <p>
+	 * Resolves the host and completes the TLS handshakes ahead of the first request.
+	 * Transports which cannot open connections in advance do nothing.
+	 * 
+	 * @param url Server URL.
+	 * @param connections Number of connections to open.
+	 * @throws ConnectionException
+	 */
+	default void preconnect(String url, int connections) throws ConnectionException {
+	}
+
+}
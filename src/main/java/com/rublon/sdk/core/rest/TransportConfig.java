@@ -0,0 +1,83 @@
+package com.rublon.sdk.core.rest;
+
+/**
+ * Transport configuration class.
+ * <p>
+ * Settings passed to the {@link TransportProvider} when the transport is created.
+ * 
+ * @author Rublon Developers
+ */
+public class TransportConfig {
+
+	/**
+	 * Maximum number of pooled connections.
+	 */
+	protected int maxTotal = RESTClient.DEFAULT_MAX_TOTAL;
+
+	/**
+	 * Maximum number of pooled connections per route.
+	 */
+	protected int maxPerRoute = RESTClient.DEFAULT_MAX_PER_ROUTE;
+
+	/**
+	 * Maximum size of the response body in bytes.
+	 */
+	protected int maxResponseSize = RESTClient.DEFAULT_MAX_RESPONSE_SIZE;
+
+	/**
+	 * Get maximum number of pooled connections.
+	 */
+	public int getMaxTotal() {
+		return maxTotal;
+	}
+
+	/**
+	 * Set maximum number of pooled connections.
+	 * 
+	 * @param maxTotal
+	 * @return TransportConfig
+	 */
+	public TransportConfig setMaxTotal(int maxTotal) {
+		this.maxTotal = maxTotal;
+		return this;
+	}
+
+	/**
+	 * Get maximum number of pooled connections per route.
+	 */
+	public int getMaxPerRoute() {
+		return maxPerRoute;
+	}
+
+	/**
+	 * Set maximum number of pooled connections per route.
+	 * 
+	 * @param maxPerRoute
+	 * @return TransportConfig
+	 */
+	public TransportConfig setMaxPerRoute(int maxPerRoute) {
+		this.maxPerRoute = maxPerRoute;
+		return this;
+	}
+
+	/**
+	 * Get maximum size of the response body in bytes.
+	 */
+	public int getMaxResponseSize() {
+		return maxResponseSize;
+	}
+
+	/**
+	 * Set maximum size of the response body in bytes.
+	 * <p>
+	 * Requests with larger responses fail with the connection exception.
+	 * 
+	 * @param maxResponseSize
+	 * @return TransportConfig
+	 */
+	public TransportConfig setMaxResponseSize(int maxResponseSize) {
+		this.maxResponseSize = maxResponseSize;
+		return this;
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.rublon.sdk.core.rest;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * HTTP transport provider interface.
+ * <p>
+ * Providers are discovered with {@link ServiceLoader}. The provider named by
+ * the {@value #PROPERTY_TRANSPORT} system property is used when set, otherwise
+ * the available provider with the highest priority is used.
+ * 
+ * @author Rublon Developers
+ */
+public interface TransportProvider {
+
+	/**
+	 * Name of the system property selecting the transport provider.
+	 */
+	String PROPERTY_TRANSPORT = "rublon.transport";
+
+	/**
+	 * Get the provider name.
+	 */
+	String getName();
+
+	/**
+	 * Get the provider priority, higher is preferred.
+	 */
+	int getPriority();
+
+	/**
+	 * Create the transport instance.
+	 * 
+	 * @param config Transport configuration.
+	 */
+	Transport create(TransportConfig config);
+
+	/**
+	 * Find the transport provider.
+	 * <p>
+	 * Providers which cannot be loaded in the current runtime are skipped.
+	 * 
+	 * @return Provider selected by the system property, the one with the highest priority
+	 * or the default Apache HttpClient provider.
+	 */
+	static TransportProvider load() {
+		String name = System.getProperty(PROPERTY_TRANSPORT);
+		TransportProvider result = null;
+		Iterator<TransportProvider> it = ServiceLoader.load(TransportProvider.class,
+				TransportProvider.class.getClassLoader()).iterator();
+		while (true) {
+			TransportProvider provider;
+			try {
+				if (!it.hasNext()) {
+					break;
+				}
+				provider = it.next();
+			} catch (ServiceConfigurationError e) {
+				continue;
+			} catch (LinkageError e) {
+				continue;
+			}
+			if (name != null) {
+				if (name.equals(provider.getName())) {
+					return provider;
+				}
+			} else if (result == null || provider.getPriority() > result.getPriority()) {
+				result = provider;
+			}
+		}
+		return (result != null ? result : new ApacheTransportProvider());
+	}
+
+}
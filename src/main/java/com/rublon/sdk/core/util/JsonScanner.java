@@ -0,0 +1,438 @@
+package com.rublon.sdk.core.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scanner of UTF-8 encoded JSON bytes.
+ * <p>
+ * Locates single fields of JSON objects without building the object tree.
+ * Values are addressed by their start offset in the input, all methods
+ * return -1 when the input is malformed.
+ *
+ * @author Rublon Developers
+ */
+public final class JsonScanner {
+
+	/**
+	 * Maximum nesting depth of skipped values.
+	 */
+	private static final int MAX_DEPTH = 64;
+
+	/**
+	 * Input bytes.
+	 */
+	private final byte[] input;
+
+	/**
+	 * End offset of the input.
+	 */
+	private final int end;
+
+
+	/**
+	 * Construct the scanner of given bytes.
+	 *
+	 * @param input UTF-8 encoded JSON
+	 */
+	public JsonScanner(byte[] input) {
+		this(input, input.length);
+	}
+
+
+	/**
+	 * Construct the scanner of given bytes.
+	 *
+	 * @param input UTF-8 encoded JSON
+	 * @param length Number of bytes to scan
+	 */
+	public JsonScanner(byte[] input, int length) {
+		this.input = input;
+		this.end = length;
+	}
+
+
+	/**
+	 * Get the offset of the root value.
+	 */
+	public int root() {
+		return skipWhitespace(0);
+	}
+
+
+	/**
+	 * Check whether the value at given offset is an object.
+	 *
+	 * @param offset Value offset.
+	 */
+	public boolean isObject(int offset) {
+		return (offset >= 0 && offset < end && input[offset] == '{');
+	}
+
+
+	/**
+	 * Check whether the value at given offset is a string.
+	 *
+	 * @param offset Value offset.
+	 */
+	public boolean isString(int offset) {
+		return (offset >= 0 && offset < end && input[offset] == '"');
+	}
+
+
+	/**
+	 * Check whether the value at given offset is null.
+	 *
+	 * @param offset Value offset.
+	 */
+	public boolean isNull(int offset) {
+		return (offset >= 0 && offset < end && input[offset] == 'n');
+	}
+
+
+	/**
+	 * Get the number of fields of the object at given offset.
+	 *
+	 * @param offset Object offset.
+	 * @return Number of fields or -1 if not a valid object.
+	 */
+	public int countFields(int offset) {
+		if (!isObject(offset)) {
+			return -1;
+		}
+		int count = 0;
+		int pos = skipWhitespace(offset + 1);
+		if (pos >= 0 && pos < end && input[pos] == '}') {
+			return 0;
+		}
+		while (pos >= 0) {
+			pos = skipValue(skipColon(skipString(pos)), 0);
+			if (pos < 0) {
+				return -1;
+			}
+			count++;
+			pos = skipWhitespace(pos);
+			if (pos < 0 || pos >= end) {
+				return -1;
+			} else if (input[pos] == '}') {
+				return count;
+			} else if (input[pos] != ',') {
+				return -1;
+			}
+			pos = skipWhitespace(pos + 1);
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Find the field of the object at given offset.
+	 *
+	 * @param offset Object offset.
+	 * @param name Field name.
+	 * @return Offset of the field's value or -1 if not found.
+	 */
+	public int findField(int offset, String name) {
+		if (!isObject(offset)) {
+			return -1;
+		}
+		byte[] expected = name.getBytes(StandardCharsets.UTF_8);
+		int pos = skipWhitespace(offset + 1);
+		if (pos >= 0 && pos < end && input[pos] == '}') {
+			return -1;
+		}
+		while (pos >= 0) {
+			int nameEnd = skipString(pos);
+			int value = skipColon(nameEnd);
+			if (value < 0) {
+				return -1;
+			}
+			if (nameEquals(pos, nameEnd, expected, name)) {
+				return value;
+			}
+			pos = skipWhitespace(skipValue(value, 0));
+			if (pos < 0 || pos >= end || input[pos] != ',') {
+				return -1;
+			}
+			pos = skipWhitespace(pos + 1);
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Get the end offset (exclusive) of the value at given offset.
+	 *
+	 * @param offset Value offset.
+	 * @return End offset or -1 if not a valid value.
+	 */
+	public int valueEnd(int offset) {
+		return skipValue(offset, 0);
+	}
+
+
+	/**
+	 * Read the value at given offset as string.
+	 * <p>
+	 * Strings are unescaped, other values are returned as their JSON text
+	 * and null is returned as null.
+	 *
+	 * @param offset Value offset.
+	 * @return String or null if null, missing or malformed.
+	 */
+	public String readString(int offset) {
+		if (offset < 0 || offset >= end || isNull(offset)) {
+			return null;
+		}
+		int valueEnd = skipValue(offset, 0);
+		if (valueEnd < 0) {
+			return null;
+		}
+		if (!isString(offset)) {
+			return new String(input, offset, valueEnd - offset, StandardCharsets.UTF_8);
+		}
+		int start = offset + 1;
+		int last = valueEnd - 1;
+		for (int i = start; i < last; i++) {
+			if (input[i] == '\\') {
+				return unescape(start, last);
+			}
+		}
+		return new String(input, start, last - start, StandardCharsets.UTF_8);
+	}
+
+
+	/**
+	 * Compare the field name at given span with the expected name.
+	 *
+	 * @param start Offset of the opening quote.
+	 * @param nameEnd Offset after the closing quote.
+	 * @param expected UTF-8 encoded expected name.
+	 * @param name Expected name.
+	 */
+	private boolean nameEquals(int start, int nameEnd, byte[] expected, String name) {
+		int length = nameEnd - start - 2;
+		for (int i = start + 1; i < nameEnd - 1; i++) {
+			if (input[i] == '\\') {
+				return name.equals(unescape(start + 1, nameEnd - 1));
+			}
+		}
+		if (length != expected.length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (input[start + 1 + i] != expected[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	/**
+	 * Decode the escaped string contents.
+	 *
+	 * @param start Offset after the opening quote.
+	 * @param last Offset of the closing quote.
+	 */
+	private String unescape(int start, int last) {
+		StringBuilder result = new StringBuilder(last - start);
+		int chunk = start;
+		int i = start;
+		while (i < last) {
+			if (input[i] != '\\') {
+				i++;
+				continue;
+			}
+			result.append(new String(input, chunk, i - chunk, StandardCharsets.UTF_8));
+			byte c = input[i + 1];
+			switch (c) {
+				case 'b': result.append('\b'); break;
+				case 't': result.append('\t'); break;
+				case 'n': result.append('\n'); break;
+				case 'f': result.append('\f'); break;
+				case 'r': result.append('\r'); break;
+				case 'u':
+					result.append((char) Integer.parseInt(new String(input, i + 2, 4, StandardCharsets.US_ASCII), 16));
+					i += 4;
+					break;
+				default: result.append((char) c);
+			}
+			i += 2;
+			chunk = i;
+		}
+		result.append(new String(input, chunk, last - chunk, StandardCharsets.UTF_8));
+		return result.toString();
+	}
+
+
+	/**
+	 * Skip the whitespace.
+	 *
+	 * @param pos
+	 * @return Offset of the next non-whitespace byte or -1.
+	 */
+	private int skipWhitespace(int pos) {
+		if (pos < 0) {
+			return -1;
+		}
+		while (pos < end) {
+			byte c = input[pos];
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+				return pos;
+			}
+			pos++;
+		}
+		return pos;
+	}
+
+
+	/**
+	 * Skip the colon following the field name.
+	 *
+	 * @param pos Offset after the field name.
+	 * @return Offset of the field's value or -1.
+	 */
+	private int skipColon(int pos) {
+		pos = skipWhitespace(pos);
+		if (pos < 0 || pos >= end || input[pos] != ':') {
+			return -1;
+		}
+		return skipWhitespace(pos + 1);
+	}
+
+
+	/**
+	 * Skip the string.
+	 *
+	 * @param pos Offset of the opening quote.
+	 * @return Offset after the closing quote or -1.
+	 */
+	private int skipString(int pos) {
+		if (pos < 0 || pos >= end || input[pos] != '"') {
+			return -1;
+		}
+		pos++;
+		while (pos < end) {
+			byte c = input[pos];
+			if (c == '"') {
+				return pos + 1;
+			} else if (c == '\\') {
+				if (pos + 1 < end && input[pos + 1] == 'u') {
+					if (pos + 6 > end || !isHex(pos + 2) || !isHex(pos + 3) || !isHex(pos + 4) || !isHex(pos + 5)) {
+						return -1;
+					}
+					pos += 6;
+				} else {
+					pos += 2;
+				}
+			} else if (c >= 0 && c < 0x20) {
+				return -1;
+			} else {
+				pos++;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Check whether the byte at given offset is a hex digit.
+	 *
+	 * @param pos
+	 */
+	private boolean isHex(int pos) {
+		byte c = input[pos];
+		return ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'));
+	}
+
+
+	/**
+	 * Skip any value.
+	 *
+	 * @param pos Value offset.
+	 * @param depth Current nesting depth.
+	 * @return Offset after the value or -1.
+	 */
+	private int skipValue(int pos, int depth) {
+		if (pos < 0 || pos >= end || depth > MAX_DEPTH) {
+			return -1;
+		}
+		byte c = input[pos];
+		if (c == '"') {
+			return skipString(pos);
+		} else if (c == '{') {
+			pos = skipWhitespace(pos + 1);
+			if (pos >= 0 && pos < end && input[pos] == '}') {
+				return pos + 1;
+			}
+			while (pos >= 0) {
+				pos = skipWhitespace(skipValue(skipColon(skipString(pos)), depth + 1));
+				if (pos < 0 || pos >= end) {
+					return -1;
+				} else if (input[pos] == '}') {
+					return pos + 1;
+				} else if (input[pos] != ',') {
+					return -1;
+				}
+				pos = skipWhitespace(pos + 1);
+			}
+			return -1;
+		} else if (c == '[') {
+			pos = skipWhitespace(pos + 1);
+			if (pos >= 0 && pos < end && input[pos] == ']') {
+				return pos + 1;
+			}
+			while (pos >= 0) {
+				pos = skipWhitespace(skipValue(pos, depth + 1));
+				if (pos < 0 || pos >= end) {
+					return -1;
+				} else if (input[pos] == ']') {
+					return pos + 1;
+				} else if (input[pos] != ',') {
+					return -1;
+				}
+				pos = skipWhitespace(pos + 1);
+			}
+			return -1;
+		} else if (c == 't') {
+			return skipLiteral(pos, "true");
+		} else if (c == 'f') {
+			return skipLiteral(pos, "false");
+		} else if (c == 'n') {
+			return skipLiteral(pos, "null");
+		} else if (c == '-' || (c >= '0' && c <= '9')) {
+			int start = pos;
+			while (pos < end) {
+				c = input[pos];
+				if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+					pos++;
+				} else {
+					break;
+				}
+			}
+			return (pos > start ? pos : -1);
+		}
+		return -1;
+	}
+
+
+	/**
+	 * Skip the literal.
+	 *
+	 * @param pos Literal offset.
+	 * @param literal Expected literal.
+	 * @return Offset after the literal or -1.
+	 */
+	private int skipLiteral(int pos, String literal) {
+		if (pos + literal.length() > end) {
+			return -1;
+		}
+		for (int i = 0; i < literal.length(); i++) {
+			if (input[pos + i] != literal.charAt(i)) {
+				return -1;
+			}
+		}
+		return pos + literal.length();
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.rublon.sdk.core.util;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared scheduler of the delayed tasks.
+ * <p>
+ * Runs the asynchronous retries and the deadline timers on a single daemon
+ * thread, created on the first call. Tasks must be short and non-blocking.
+ *
+ * @author Rublon Developers
+ */
+public final class Scheduler {
+
+	/**
+	 * Executor instance.
+	 */
+	private static volatile ScheduledExecutorService executor;
+
+	/**
+	 * Not instantiable.
+	 */
+	private Scheduler() {
+	}
+
+	/**
+	 * Run the task after given delay.
+	 *
+	 * @param task Task.
+	 * @param delay Delay in milliseconds.
+	 * @return Future of the task, cancel it when no longer needed.
+	 */
+	public static ScheduledFuture<?> schedule(Runnable task, long delay) {
+		return getExecutor().schedule(task, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Get the executor, create it on the first call.
+	 */
+	private static ScheduledExecutorService getExecutor() {
+		ScheduledExecutorService result = executor;
+		if (result == null) {
+			synchronized (Scheduler.class) {
+				result = executor;
+				if (result == null) {
+					ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1, task -> {
+						Thread thread = new Thread(task, "rublon-scheduler");
+						thread.setDaemon(true);
+						return thread;
+					});
+					// Most deadline timers are cancelled, do not keep them in the queue
+					pool.setRemoveOnCancelPolicy(true);
+					result = pool;
+					executor = result;
+				}
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,303 @@
+package com.rublon.sdk.core.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer with UTF-8 text encoding.
+ * <p>
+ * Characters are encoded straight into the buffer, without intermediate strings
+ * or byte arrays. Each thread has its own buffer available by {@link #acquire()},
+ * which is reused by subsequent calls on the same thread.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class Utf8Buffer {
+
+	/**
+	 * Initial capacity of the buffer in bytes.
+	 */
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Maximum capacity retained by the per-thread buffer between uses.
+	 */
+	private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+	/**
+	 * Buffer of the current thread.
+	 */
+	private static final ThreadLocal<Utf8Buffer> BUFFER = ThreadLocal.withInitial(Utf8Buffer::new);
+
+	/**
+	 * Buffer contents.
+	 */
+	private byte[] bytes;
+
+	/**
+	 * Number of bytes written.
+	 */
+	private int size;
+
+	/**
+	 * Pending high surrogate written by the character writer.
+	 */
+	private char highSurrogate;
+
+	/**
+	 * Construct an empty buffer.
+	 */
+	public Utf8Buffer() {
+		this(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Construct an empty buffer of given initial capacity.
+	 * 
+	 * @param capacity
+	 */
+	public Utf8Buffer(int capacity) {
+		this.bytes = new byte[capacity];
+	}
+
+	/**
+	 * Get the empty buffer of the current thread.
+	 * <p>
+	 * The buffer is reset by the next call on the same thread,
+	 * so its contents must be copied out before that.
+	 */
+	public static Utf8Buffer acquire() {
+		Utf8Buffer buffer = BUFFER.get();
+		if (buffer.bytes.length > MAX_RETAINED_CAPACITY) {
+			buffer = new Utf8Buffer();
+			BUFFER.set(buffer);
+		}
+		buffer.reset();
+		return buffer;
+	}
+
+	/**
+	 * Clear the buffer.
+	 * 
+	 * @return Self instance
+	 */
+	public Utf8Buffer reset() {
+		size = 0;
+		highSurrogate = 0;
+		return this;
+	}
+
+	/**
+	 * Append a single byte.
+	 * 
+	 * @param b
+	 * @return Self instance
+	 */
+	public Utf8Buffer write(int b) {
+		ensureCapacity(size + 1);
+		bytes[size++] = (byte) b;
+		return this;
+	}
+
+	/**
+	 * Append bytes.
+	 * 
+	 * @param input
+	 * @return Self instance
+	 */
+	public Utf8Buffer write(byte[] input) {
+		return write(input, 0, input.length);
+	}
+
+	/**
+	 * Append part of the bytes.
+	 * 
+	 * @param input
+	 * @param offset
+	 * @param length
+	 * @return Self instance
+	 */
+	public Utf8Buffer write(byte[] input, int offset, int length) {
+		ensureCapacity(size + length);
+		System.arraycopy(input, offset, bytes, size, length);
+		size += length;
+		return this;
+	}
+
+	/**
+	 * Append the remaining bytes of given buffer.
+	 * 
+	 * @param input
+	 * @return Self instance
+	 */
+	public Utf8Buffer write(ByteBuffer input) {
+		int length = input.remaining();
+		ensureCapacity(size + length);
+		input.get(bytes, size, length);
+		size += length;
+		return this;
+	}
+
+	/**
+	 * Append all bytes of the stream, reading straight into the buffer.
+	 * 
+	 * @param input Stream to read until its end.
+	 * @param maxSize Maximum number of bytes in the buffer.
+	 * @return Self instance
+	 * @throws IOException When reading fails or the buffer would exceed the maximum size.
+	 */
+	public Utf8Buffer readFrom(InputStream input, int maxSize) throws IOException {
+		while (true) {
+			int limit = Math.min(bytes.length, maxSize);
+			if (size >= limit) {
+				if (size >= maxSize) {
+					if (input.read() < 0) {
+						return this;
+					}
+					throw new IOException("Input exceeds the limit of " + maxSize + " bytes.");
+				}
+				ensureCapacity(size + 1);
+				limit = Math.min(bytes.length, maxSize);
+			}
+			int read = input.read(bytes, size, limit - size);
+			if (read < 0) {
+				return this;
+			}
+			size += read;
+		}
+	}
+
+	/**
+	 * Append UTF-8 encoded characters.
+	 * 
+	 * @param input
+	 * @return Self instance
+	 */
+	public Utf8Buffer writeUtf8(CharSequence input) {
+		for (int i = 0; i < input.length(); i++) {
+			writeChar(input.charAt(i));
+		}
+		return this;
+	}
+
+	/**
+	 * Get the writer encoding characters into this buffer.
+	 */
+	public Writer asWriter() {
+		return new Writer() {
+			@Override
+			public void write(int c) {
+				writeChar((char) c);
+			}
+
+			@Override
+			public void write(char[] cbuf, int off, int len) {
+				for (int i = off; i < off + len; i++) {
+					writeChar(cbuf[i]);
+				}
+			}
+
+			@Override
+			public void write(String str, int off, int len) {
+				for (int i = off; i < off + len; i++) {
+					writeChar(str.charAt(i));
+				}
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+	}
+
+	/**
+	 * Get the number of bytes written.
+	 */
+	public int size() {
+		flushSurrogate();
+		return size;
+	}
+
+	/**
+	 * Get the internal array, valid up to {@link #size()}.
+	 */
+	public byte[] array() {
+		flushSurrogate();
+		return bytes;
+	}
+
+	/**
+	 * Get a copy of the buffer contents.
+	 */
+	public byte[] toByteArray() {
+		flushSurrogate();
+		return Arrays.copyOf(bytes, size);
+	}
+
+	/**
+	 * Encode a single UTF-16 character, combining surrogate pairs.
+	 * 
+	 * @param c
+	 */
+	private void writeChar(char c) {
+		ensureCapacity(size + 4);
+		if (highSurrogate != 0) {
+			char high = highSurrogate;
+			highSurrogate = 0;
+			if (Character.isLowSurrogate(c)) {
+				int codePoint = Character.toCodePoint(high, c);
+				bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+				bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+				return;
+			}
+			// Unpaired surrogate, replace as String.getBytes() does
+			bytes[size++] = '?';
+			ensureCapacity(size + 4);
+		}
+		if (c < 0x80) {
+			bytes[size++] = (byte) c;
+		} else if (c < 0x800) {
+			bytes[size++] = (byte) (0xC0 | (c >> 6));
+			bytes[size++] = (byte) (0x80 | (c & 0x3F));
+		} else if (Character.isHighSurrogate(c)) {
+			highSurrogate = c;
+		} else if (Character.isLowSurrogate(c)) {
+			bytes[size++] = '?';
+		} else {
+			bytes[size++] = (byte) (0xE0 | (c >> 12));
+			bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+			bytes[size++] = (byte) (0x80 | (c & 0x3F));
+		}
+	}
+
+	/**
+	 * Replace the pending unpaired high surrogate.
+	 */
+	private void flushSurrogate() {
+		if (highSurrogate != 0) {
+			highSurrogate = 0;
+			write('?');
+		}
+	}
+
+	/**
+	 * Grow the buffer to hold at least given number of bytes.
+	 * 
+	 * @param capacity
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > bytes.length) {
+			bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+		}
+	}
+
+}
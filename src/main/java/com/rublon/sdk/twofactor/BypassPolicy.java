@@ -0,0 +1,41 @@
+package com.rublon.sdk.twofactor;
+
+import com.rublon.sdk.core.exception.ConnectionException;
+
+/**
+ * Policy deciding whether to bypass the 2-factor authentication when the Rublon API is unavailable.
+ * <p>
+ * Consulted by {@link Rublon#auth(String, String, String, org.json.JSONObject)} when the transaction
+ * cannot be started because of a connection failure, including the open circuit breaker.
+ * Bypassing (fail-open) makes the method return null, as for a user who is not protected;
+ * otherwise (fail-closed) the exception is thrown.
+ *
+ * @author Rublon Developers
+ */
+public interface BypassPolicy {
+
+	/**
+	 * Never bypass, throw the exception.
+	 */
+	BypassPolicy FAIL_CLOSED = (userName, e) -> false;
+
+	/**
+	 * Bypass on any connection failure.
+	 */
+	BypassPolicy FAIL_OPEN = (userName, e) -> true;
+
+	/**
+	 * Bypass only while the circuit breaker is open.
+	 */
+	BypassPolicy FAIL_OPEN_WHEN_CIRCUIT_OPEN = (userName, e) -> (e instanceof ConnectionException.CircuitOpenException);
+
+	/**
+	 * Decide whether to bypass the 2-factor authentication.
+	 *
+	 * @param userName User's name.
+	 * @param e Connection failure.
+	 * @return True to sign in the user without the 2-factor authentication.
+	 */
+	boolean bypass(String userName, ConnectionException e);
+
+}
@@ -1,26 +1,87 @@
 package com.rublon.sdk.twofactor;
 
 
+import com.rublon.sdk.core.APIMethod;
+import com.rublon.sdk.core.APIResponse;
+import com.rublon.sdk.core.Codec;
+import com.rublon.sdk.core.RequestBodyWriter;
 import com.rublon.sdk.core.RublonAuthParams;
 import com.rublon.sdk.core.RublonConsumer;
 import com.rublon.sdk.core.exception.APIException;
 import com.rublon.sdk.core.exception.ConnectionException;
 import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.metrics.HistogramMetrics;
+import com.rublon.sdk.core.metrics.RublonMetrics;
+import com.rublon.sdk.core.rest.CircuitBreaker;
+import com.rublon.sdk.core.rest.ConcurrencyLimiter;
+import com.rublon.sdk.core.rest.Endpoint;
+import com.rublon.sdk.core.rest.EndpointPool;
+import com.rublon.sdk.core.rest.HedgePolicy;
 import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.RetryPolicy;
+import com.rublon.sdk.core.rest.Timeouts;
+import com.rublon.sdk.core.rest.Transport;
+import com.rublon.sdk.core.util.Settings;
 import com.rublon.sdk.twofactor.api.BeginTransaction;
 import com.rublon.sdk.twofactor.api.Credentials;
 import com.rublon.sdk.twofactor.api.CheckApplication;
 import org.json.JSONObject;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
 /**
  * Rublon 2-factor service provider class.
  * 
  * Create a subclass to override the specific methods.
+ * <p>
+ * The instance keeps a pool of persistent connections to the Rublon API,
+ * so it should be shared and closed when the application shuts down.
+ * <p>
+ * Each blocking method has an asynchronous counterpart returning a {@link CompletableFuture},
+ * which completes exceptionally with the same exception the blocking method would throw.
  */
-public class Rublon extends RublonConsumer {
+public class Rublon extends RublonConsumer implements Closeable {
+
+	/**
+	 * Default number of connections opened by {@link #warmUp()}.
+	 */
+	public static final int DEFAULT_WARM_UP_CONNECTIONS = 2;
+
+	/**
+	 * Number of iterations of the signing and JSON codec paths run by the warm-up.
+	 */
+	private static final int WARM_UP_ITERATIONS = 2000;
+
+	/**
+	 * Sample API response processed by the warm-up.
+	 */
+	private static final byte[] WARM_UP_RESPONSE = ("{\"status\":\"OK\",\"result\":{\"" + BeginTransaction.FIELD_WEB_URI
+			+ "\":\"" + DEFAULT_API_SERVER + "\"}}").getBytes(StandardCharsets.UTF_8);
+
+	/**
+	 * Encoded name of the params field written by the warm-up.
+	 */
+	private static final byte[] NAME_PARAMS = RequestBodyWriter.name(RublonAuthParams.FIELD_PARAMS);
+
+	/**
+	 * Logger.
+	 */
+	private static final Logger LOGGER = Logger.getLogger(Rublon.class.getName());
 
 	private final RESTClient restClient;
 
+	/**
+	 * Policy deciding whether to bypass the authentication when the API is unavailable.
+	 */
+	private volatile BypassPolicy bypassPolicy = BypassPolicy.FAIL_CLOSED;
+
 
 	/**
 	 * Construct an instance.
@@ -29,7 +90,7 @@ public class Rublon extends RublonConsumer {
 	 * @param secretKey
 	 */
 	public Rublon(String systemToken, String secretKey) {
-		this(systemToken, secretKey, DEFAULT_API_SERVER, null);
+		this(systemToken, secretKey, DEFAULT_API_SERVER, (RESTClient) null);
 	}
 	
 
@@ -41,7 +102,7 @@ public class Rublon extends RublonConsumer {
 	 * @param apiServer Non-default API server URI for the development purposes.
 	 */
 	public Rublon(String systemToken, String secretKey, String apiServer) {
-		this(systemToken, secretKey, apiServer, null);
+		this(systemToken, secretKey, apiServer, (RESTClient) null);
 	}
 
 	/**
@@ -50,6 +111,7 @@ public class Rublon extends RublonConsumer {
 	 * @param systemToken
 	 * @param secretKey
 	 * @param apiServer Non-default API server URI for the development purposes.
+	 * @param client REST client instance or null to create the default one.
 	 */
 	public Rublon(String systemToken, String secretKey, String apiServer, RESTClient client) {
 		super(systemToken, secretKey, apiServer);
@@ -60,6 +122,129 @@ public class Rublon extends RublonConsumer {
 		}
 	}
 
+	/**
+	 * Construct an instance routing the requests between multiple API servers.
+	 * <p>
+	 * Each request goes to the fastest available server, servers failing repeatedly
+	 * are ejected and the ejected or idle servers are probed by the configuration
+	 * check every {@link EndpointPool#DEFAULT_HEALTH_CHECK_INTERVAL} milliseconds.
+	 *
+	 * @param systemToken
+	 * @param secretKey
+	 * @param apiServers API server URIs, e.g. regional proxies, the first one is the primary server.
+	 */
+	public Rublon(String systemToken, String secretKey, List<String> apiServers) {
+		this(systemToken, secretKey, apiServers, null);
+	}
+
+	/**
+	 * Construct an instance routing the requests between multiple API servers.
+	 *
+	 * @see #Rublon(String, String, List)
+	 * @param systemToken
+	 * @param secretKey
+	 * @param apiServers API server URIs, the first one is the primary server.
+	 * @param client REST client instance or null to create the default one.
+	 */
+	public Rublon(String systemToken, String secretKey, List<String> apiServers, RESTClient client) {
+		super(systemToken, secretKey, apiServers);
+		this.restClient = (client != null ? client : new RESTClient(this));
+		if (apiServers.size() > 1) {
+			setHealthCheckInterval(EndpointPool.DEFAULT_HEALTH_CHECK_INTERVAL);
+		}
+	}
+
+	/**
+	 * Construct an instance using given HTTP transport.
+	 *
+	 * @param systemToken
+	 * @param secretKey
+	 * @param apiServer API server URI.
+	 * @param transport HTTP transport, e.g. the JDK HttpClient transport on Java 11+.
+	 */
+	public Rublon(String systemToken, String secretKey, String apiServer, Transport transport) {
+		this(systemToken, secretKey, apiServer, new RESTClient(secretKey, transport));
+	}
+
+	/**
+	 * Warm up the instance with the default number of connections.
+	 *
+	 * @see #warmUp(String, int)
+	 * @return Warm-up time in milliseconds.
+	 * @throws APIException
+	 * @throws RublonException
+	 */
+	public long warmUp() throws APIException, RublonException {
+		return warmUp(null, DEFAULT_WARM_UP_CONNECTIONS);
+	}
+
+	/**
+	 * Warm up the instance.
+	 *
+	 * @see #warmUp(String, int)
+	 * @param connections Number of connections to open.
+	 * @return Warm-up time in milliseconds.
+	 * @throws APIException
+	 * @throws RublonException
+	 */
+	public long warmUp(int connections) throws APIException, RublonException {
+		return warmUp(null, connections);
+	}
+
+	/**
+	 * Warm up the instance before the first authentication.
+	 * <p>
+	 * Loads the settings, runs the request signing and the JSON codec paths,
+	 * opens given number of pooled connections to the API server and validates
+	 * the configuration by {@link #checkApplication(String)}. The first user does
+	 * not pay for the DNS resolution, TLS handshakes, class loading and JIT compilation.
+	 * Call it once at the application startup, the time taken is logged.
+	 * <p>
+	 * The Apache transport opens the connections in the pools of both its blocking
+	 * and non-blocking clients, the JDK transport opens a single HTTP/2 connection
+	 * when the server supports it.
+	 *
+	 * @param appVer Application version passed to the configuration check.
+	 * @param connections Number of connections to open.
+	 * @return Warm-up time in milliseconds.
+	 * @throws APIException
+	 * @throws RublonException
+	 */
+	public long warmUp(String appVer, int connections) throws APIException, RublonException {
+
+		if (!isConfigured()) {
+			throw new RublonException("Missing system token and secret key.");
+		}
+
+		long start = System.nanoTime();
+
+		Settings.getInstance();
+		for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+			RequestBodyWriter body = new RequestBodyWriter(getSystemToken());
+			body.field(RublonAuthParams.FIELD_USER_NAME, getSystemToken());
+			body.beginObject(NAME_PARAMS).sdkVer().endObject();
+			byte[] request = body.toByteArray();
+			Codec.json_decode(request);
+
+			String signature = Codec.hmac(APIMethod.HASH_ALG, getSecretKey(), getSystemToken());
+			Codec.hmac_verify(APIMethod.HASH_ALG, getSecretKey(), WARM_UP_RESPONSE, signature);
+			APIResponse response = new APIResponse(null, WARM_UP_RESPONSE);
+			if (!response.isEmpty() && APIMethod.STATUS_OK.equals(response.getStatus())) {
+				response.getResultString(BeginTransaction.FIELD_WEB_URI);
+			}
+		}
+
+		for (String apiServer : getEndpointPool().getUrls()) {
+			restClient.preconnect(apiServer, connections);
+		}
+		checkApplication(appVer);
+
+		long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		LOGGER.info("Rublon warm-up finished in " + time + " ms.");
+		return time;
+
+	}
+
 	/**
 	 * Validate Rublon configuration
 	 *
@@ -105,6 +290,34 @@ public class Rublon extends RublonConsumer {
 
 	}
 
+	/**
+	 * Validate Rublon configuration asynchronously
+	 *
+	 * @param appVer
+	 * @return Future completed when the configuration has been validated.
+	 */
+	public CompletableFuture<Void> checkApplicationAsync(String appVer) {
+		return checkApplicationAsync(appVer, null);
+	}
+
+	/**
+	 * Validate Rublon configuration asynchronously
+	 *
+	 * @param appVer
+	 * @param params
+	 * @return Future completed when the configuration has been validated.
+	 */
+	public CompletableFuture<Void> checkApplicationAsync(String appVer, JSONObject params) {
+
+		if (!isConfigured()) {
+			return failedFuture(new RublonException("Missing system token and secret key."));
+		}
+
+		CheckApplication checkApplication = new CheckApplication(this, restClient, appVer, params);
+		return checkApplication.performAsync();
+
+	}
+
 	/**
 	 * Initializes the Rublon 2-factor authentication transaction
 	 * and returns the URL address to redirect user's browser
@@ -114,8 +327,9 @@ public class Rublon extends RublonConsumer {
 	 * If user has protected this account, method returns the URL address.
 	 * Redirect user's browser to this URL to start the Rublon authentication process.
 	 *
-	 * If Rublon user has deleted his Rublon account or Rublon API is not available at this time,
-	 * method returns null. If so, just bypass Rublon and sign in the user.
+	 * If Rublon user has deleted his Rublon account, method returns null. If so, just bypass Rublon
+	 * and sign in the user. If Rublon API is not available at this time, the bypass policy decides
+	 * whether the method returns null or throws the ConnectionException, see {@link #setBypassPolicy(BypassPolicy)}.
 	 *
 	 * Notice: to use this method the configurations values (system token and secret key)
 	 * must be provided to the constructor. If not, function will throw an exception.
@@ -143,6 +357,11 @@ public class Rublon extends RublonConsumer {
 			BeginTransaction beginTransaction = new BeginTransaction(this, callbackUrl, userName, userEmail, params, restClient);
 			beginTransaction.perform();
 			return beginTransaction.getWebURI();
+		} catch (ConnectionException e) {
+			if (bypassPolicy.bypass(userName, e)) {
+				return null;
+			}
+			throw e;
 		} catch (RublonException e) {
 			throw e;
 		}
@@ -162,6 +381,53 @@ public class Rublon extends RublonConsumer {
 		return auth(callbackUrl, userName, userEmail, new JSONObject());
 	}
 
+	/**
+	 * Initializes the Rublon 2-factor authentication transaction asynchronously.
+	 *
+	 * @see #auth(String, String, String, JSONObject)
+	 * @param callbackUrl Callback URL address.
+	 * @param userName User's name.
+	 * @param userEmail User's email address.
+	 * @param params Additional transaction parameters.
+	 * @return Future of the URL address to redirect or NULL if user is not protected.
+	 */
+	public CompletableFuture<String> authAsync(String callbackUrl, String userName, String userEmail, JSONObject params) {
+		
+		if (!isConfigured()) {
+			return failedFuture(new RublonException("Missing system token and secret key."));
+		}
+		
+		String lang = getLang();
+		if (lang != null) {
+			params.put(RublonAuthParams.FIELD_LANG, lang);
+		}
+		
+		BeginTransaction beginTransaction = new BeginTransaction(this, callbackUrl, userName, userEmail, params, restClient);
+		return beginTransaction.performAsync().handle((v, e) -> {
+			if (e == null) {
+				return beginTransaction.getWebURI();
+			}
+			Throwable cause = (e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+			if (cause instanceof ConnectionException && bypassPolicy.bypass(userName, (ConnectionException) cause)) {
+				return null;
+			}
+			throw new CompletionException(cause);
+		});
+		
+	}
+
+	/**
+	 * Initializes the Rublon 2-factor authentication transaction asynchronously.
+	 *
+	 * @param callbackUrl Callback URL address.
+	 * @param userName User's name.
+	 * @param userEmail User's email address.
+	 * @return Future of the URL address to redirect or NULL if user is not protected.
+	 */
+	public CompletableFuture<String> authAsync(String callbackUrl, String userName, String userEmail) {
+		return authAsync(callbackUrl, userName, userEmail, new JSONObject());
+	}
+
 	/**
 	 * Authenticate user and get user's credentials using one-time use access token.
 	 *
@@ -177,4 +443,211 @@ public class Rublon extends RublonConsumer {
 		credentials.perform();
 		return credentials;
 	}
+
+	/**
+	 * Authenticate user and get user's credentials asynchronously using one-time use access token.
+	 *
+	 * @see #getCredentials(String)
+	 * @param accessToken One-time use access token.
+	 * @return Future of the credentials.
+	 */
+	public CompletableFuture<Credentials> getCredentialsAsync(String accessToken) {
+		Credentials credentials;
+		try {
+			credentials = new Credentials(this, accessToken, restClient);
+		} catch (RublonException e) {
+			return failedFuture(e);
+		}
+		return credentials.performAsync().thenApply(v -> credentials);
+	}
+
+	/**
+	 * Set the retry policy of the API requests.
+	 * <p>
+	 * Only the configuration check is retried on any failure, the transaction
+	 * init only when the connection failed, the credentials request never.
+	 *
+	 * @param retryPolicy Retry policy, {@link RetryPolicy#none()} disables the retries.
+	 * @return Rublon
+	 */
+	public Rublon setRetryPolicy(RetryPolicy retryPolicy) {
+		restClient.setRetryPolicy(retryPolicy);
+		return this;
+	}
+
+	/**
+	 * Set the circuit breaker of the API requests.
+	 * <p>
+	 * While the breaker is open the methods fail immediately with
+	 * {@link ConnectionException.CircuitOpenException}. The breaker is disabled by default:
+	 * with the default {@link BypassPolicy#FAIL_CLOSED} policy an open breaker rejects every
+	 * login until it closes again, so enable it together with a bypass policy which suits
+	 * the application, e.g. {@link BypassPolicy#FAIL_OPEN_WHEN_CIRCUIT_OPEN}.
+	 *
+	 * @param circuitBreaker Circuit breaker, {@link CircuitBreaker#disabled()} by default.
+	 * @return Rublon
+	 */
+	public Rublon setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		restClient.setCircuitBreaker(circuitBreaker);
+		return this;
+	}
+
+	/**
+	 * Set the concurrency limiter of the API requests.
+	 * <p>
+	 * Caps the API calls in flight, adapting the limit to the observed latency.
+	 * Calls over the limit fail early with {@link ConnectionException.ConcurrencyLimitException},
+	 * so the application's threads are not exhausted while the API is degraded.
+	 *
+	 * @param concurrencyLimiter Concurrency limiter, {@link ConcurrencyLimiter#unlimited()} by default.
+	 * @return Rublon
+	 */
+	public Rublon setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+		restClient.setConcurrencyLimiter(concurrencyLimiter);
+		return this;
+	}
+
+	/**
+	 * Set the metrics of the API requests.
+	 * <p>
+	 * Records the timings of the lease, signing, network, verification and parsing
+	 * phases and the outcomes of the calls per API method, e.g. by {@link HistogramMetrics}.
+	 *
+	 * @param metrics Metrics, {@link RublonMetrics#NOOP} by default.
+	 * @return Rublon
+	 */
+	public Rublon setMetrics(RublonMetrics metrics) {
+		restClient.setMetrics(metrics);
+		return this;
+	}
+
+	/**
+	 * Set the default timeouts of the API requests.
+	 *
+	 * @param timeouts Timeouts.
+	 * @return Rublon
+	 */
+	public Rublon setTimeouts(Timeouts timeouts) {
+		restClient.setTimeouts(timeouts);
+		return this;
+	}
+
+	/**
+	 * Set the timeouts of given API method's requests.
+	 * <p>
+	 * E.g. to bound the {@link #auth(String, String, String, JSONObject)} call by 2 seconds:
+	 * <pre>
+	 * rublon.setTimeouts(BeginTransaction.class, new Timeouts()
+	 * 		.setConnectTimeout(500).setReadTimeout(1500).setDeadline(2000));
+	 * </pre>
+	 * When the deadline expires the request is aborted and the method fails with
+	 * {@link ConnectionException.DeadlineExceededException}, which is subject to the bypass policy.
+	 *
+	 * @param method API method class: {@link BeginTransaction}, {@link Credentials} or {@link CheckApplication}.
+	 * @param timeouts Timeouts or null to use the default timeouts.
+	 * @return Rublon
+	 */
+	public Rublon setTimeouts(Class<? extends APIMethod> method, Timeouts timeouts) {
+		restClient.setTimeouts(method, timeouts);
+		return this;
+	}
+
+	/**
+	 * Enable hedging of given API method's requests.
+	 * <p>
+	 * A request not answered within the policy's percentile-based delay is sent
+	 * once more and the first response wins, e.g. to cut the tail latency of
+	 * {@link #auth(String, String, String, JSONObject)}:
+	 * <pre>
+	 * rublon.setHedgePolicy(BeginTransaction.class, new HedgePolicy());
+	 * </pre>
+	 * Only the methods which are safe to duplicate are hedged: {@link BeginTransaction}
+	 * and {@link CheckApplication}, never {@link Credentials}.
+	 *
+	 * @param method API method class.
+	 * @param hedgePolicy Hedging policy or null to disable hedging.
+	 * @return Rublon
+	 */
+	public Rublon setHedgePolicy(Class<? extends APIMethod> method, HedgePolicy hedgePolicy) {
+		restClient.setHedgePolicy(method, hedgePolicy);
+		return this;
+	}
+
+	/**
+	 * Set the interval of the API servers' health checks.
+	 * <p>
+	 * The ejected and idle servers are probed by the asynchronous configuration check.
+	 *
+	 * @param interval Interval in milliseconds or 0 to stop the health checks.
+	 * @return Rublon
+	 */
+	public Rublon setHealthCheckInterval(long interval) {
+		if (interval > 0) {
+			getEndpointPool().startHealthChecks(this::probe, interval);
+		} else {
+			getEndpointPool().stopHealthChecks();
+		}
+		return this;
+	}
+
+	/**
+	 * Set the API server, replacing the pool of API servers.
+	 *
+	 * @param domain
+	 * @return Rublon
+	 */
+	@Override
+	public Rublon setAPIServer(String domain) {
+		getEndpointPool().stopHealthChecks();
+		super.setAPIServer(domain);
+		return this;
+	}
+
+	/**
+	 * Set the policy deciding whether {@link #auth(String, String, String, JSONObject)}
+	 * bypasses the authentication when the API is unavailable.
+	 *
+	 * @param bypassPolicy Bypass policy, {@link BypassPolicy#FAIL_CLOSED} by default.
+	 * @return Rublon
+	 */
+	public Rublon setBypassPolicy(BypassPolicy bypassPolicy) {
+		this.bypassPolicy = bypassPolicy;
+		return this;
+	}
+
+	/**
+	 * Stop the health checks, close the REST client and release all pooled connections.
+	 *
+	 * @throws IOException
+	 */
+	@Override
+	public void close() throws IOException {
+		getEndpointPool().stopHealthChecks();
+		restClient.close();
+	}
+
+	/**
+	 * Probe the API server by the asynchronous configuration check.
+	 * <p>
+	 * The probe bypasses the circuit breaker, the concurrency limiter, the retries
+	 * and the hedging, its outcome is recorded only by the endpoint pool.
+	 *
+	 * @param endpoint API server endpoint.
+	 */
+	private void probe(Endpoint endpoint) {
+		if (isConfigured()) {
+			new CheckApplication(this, restClient, null).probeAsync(endpoint);
+		}
+	}
+
+	/**
+	 * Create the future completed exceptionally with given exception.
+	 *
+	 * @param e Exception.
+	 */
+	private static <T> CompletableFuture<T> failedFuture(Throwable e) {
+		CompletableFuture<T> future = new CompletableFuture<T>();
+		future.completeExceptionally(e);
+		return future;
+	}
 }
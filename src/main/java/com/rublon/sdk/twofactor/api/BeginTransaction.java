@@ -2,10 +2,12 @@ package com.rublon.sdk.twofactor.api;
 
 
 import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.RetryPolicy;
 import com.rublon.sdk.twofactor.Rublon;
 import org.json.JSONObject;
 
 import com.rublon.sdk.core.APIMethod;
+import com.rublon.sdk.core.RequestBodyWriter;
 import com.rublon.sdk.core.RublonAuthParams;
 
 /**
@@ -24,6 +26,21 @@ public class BeginTransaction extends APIMethod {
 	 */
 	protected static final String REQUEST_URI_PATH = "/api/transaction/init";
 
+	/**
+	 * Encoded name of the callback URL field.
+	 */
+	private static final byte[] NAME_CALLBACK_URL = RequestBodyWriter.name(RublonAuthParams.FIELD_CALLBACK_URL);
+
+	/**
+	 * Encoded name of the user's email field.
+	 */
+	private static final byte[] NAME_USER_EMAIL = RequestBodyWriter.name(RublonAuthParams.FIELD_USER_EMAIL);
+
+	/**
+	 * Encoded name of the user's name field.
+	 */
+	private static final byte[] NAME_USER_NAME = RequestBodyWriter.name(RublonAuthParams.FIELD_USER_NAME);
+
 	/**
 	 * Callback URL.
 	 */
@@ -67,7 +84,7 @@ public class BeginTransaction extends APIMethod {
 	 * Get the web URI from the API response and redirect the user's web browser.
 	 */
 	public String getWebURI() {
-		return responseResult.optString(FIELD_WEB_URI, null);
+		return getResultString(FIELD_WEB_URI);
 	}
 	
 
@@ -75,27 +92,47 @@ public class BeginTransaction extends APIMethod {
 	 * Get the API request URL.
 	 */
 	protected String getUrl() {
-		return getRublon().getAPIServer() + REQUEST_URI_PATH;
+		return getAPIServer() + REQUEST_URI_PATH;
 	}
 	
 
 	/**
-	 * Get the API request parameters.
-	 */
-	protected JSONObject getParams() {
-		return RublonAuthParams.mergeJSONObjects(new JSONObject[] {
-			super.getParams(),
-			new JSONObject() {{
-				put(RublonAuthParams.FIELD_CALLBACK_URL, callbackUrl);
-				if (userEmail != null && !userEmail.isEmpty()) {
-					put(RublonAuthParams.FIELD_USER_EMAIL, userEmail.toLowerCase());
-				}
-				put(RublonAuthParams.FIELD_USER_NAME, userName);
-				if (params != null) {
-					put(RublonAuthParams.FIELD_PARAMS, params);
-				}
-			}}
-		});
+	 * Each request creates a new transaction, retry only when it has not been sent.
+	 */
+	protected RetryPolicy.Mode getRetryMode() {
+		return RetryPolicy.Mode.CONNECT_FAILURE;
+	}
+	
+
+	/**
+	 * A duplicate transaction is never completed and expires, the request may be hedged.
+	 */
+	protected boolean isHedgeable() {
+		return true;
+	}
+	
+
+	/**
+	 * Write the API request fields.
+	 */
+	protected void writeFields(RequestBodyWriter body) {
+		super.writeFields(body);
+		body.field(NAME_CALLBACK_URL, callbackUrl);
+		if (userEmail != null && !userEmail.isEmpty()) {
+			body.field(NAME_USER_EMAIL, userEmail.toLowerCase());
+		}
+		body.field(NAME_USER_NAME, userName);
+	}
+	
+
+	/**
+	 * Write the API request parameters.
+	 */
+	protected void writeParams(RequestBodyWriter body) {
+		if (params == null || !params.has(RublonAuthParams.FIELD_SDK_VER)) {
+			super.writeParams(body);
+		}
+		body.fields(params, null);
 	}
 
 }
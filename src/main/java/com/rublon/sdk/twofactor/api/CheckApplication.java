@@ -1,9 +1,11 @@
 package com.rublon.sdk.twofactor.api;
 
 import com.rublon.sdk.core.APIMethod;
+import com.rublon.sdk.core.RequestBodyWriter;
 import com.rublon.sdk.core.RublonAuthParams;
 import com.rublon.sdk.core.RublonConsumer;
 import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.RetryPolicy;
 import org.json.JSONObject;
 
 public class CheckApplication extends APIMethod {
@@ -13,6 +15,11 @@ public class CheckApplication extends APIMethod {
 	 */
 	protected static final String REQUEST_URI_PATH = "/api/app/init";
 
+	/**
+	 * Encoded name of the application version field.
+	 */
+	private static final byte[] NAME_APP_VER = RequestBodyWriter.name(RublonAuthParams.FIELD_APP_VER);
+
 	/**
 	 * Application version
 	 */
@@ -59,18 +66,38 @@ public class CheckApplication extends APIMethod {
 	}
 
 	@Override protected String getUrl() {
-		return getRublon().getAPIServer() + REQUEST_URI_PATH;
+		return getAPIServer() + REQUEST_URI_PATH;
 	}
 
-	protected JSONObject getParams() {
-		return RublonAuthParams.mergeJSONObjects(new JSONObject[] {
-				super.getParams(),
-				new JSONObject() {{
-					put(RublonAuthParams.FIELD_APP_VER, appVer);
-					if (params != null) {
-						put(RublonAuthParams.FIELD_PARAMS, params);
-					}
-				}}
-		});
+	/**
+	 * The configuration check is idempotent, retry any failure.
+	 */
+	@Override protected RetryPolicy.Mode getRetryMode() {
+		return RetryPolicy.Mode.ALWAYS;
+	}
+
+	/**
+	 * The configuration check is idempotent, the request may be hedged.
+	 */
+	@Override protected boolean isHedgeable() {
+		return true;
+	}
+
+	/**
+	 * Write the API request fields.
+	 */
+	@Override protected void writeFields(RequestBodyWriter body) {
+		super.writeFields(body);
+		body.field(NAME_APP_VER, appVer);
+	}
+
+	/**
+	 * Write the API request parameters.
+	 */
+	@Override protected void writeParams(RequestBodyWriter body) {
+		if (params == null || !params.has(RublonAuthParams.FIELD_SDK_VER)) {
+			super.writeParams(body);
+		}
+		body.fields(params, null);
 	}
 }
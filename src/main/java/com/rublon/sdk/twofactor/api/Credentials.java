@@ -3,9 +3,10 @@ package com.rublon.sdk.twofactor.api;
 
 import com.rublon.sdk.core.exception.RublonException;
 import com.rublon.sdk.core.rest.RESTClient;
-import org.json.JSONObject;
+import com.rublon.sdk.core.rest.RetryPolicy;
 
 import com.rublon.sdk.core.APIMethod;
+import com.rublon.sdk.core.RequestBodyWriter;
 import com.rublon.sdk.core.RublonAuthParams;
 import com.rublon.sdk.twofactor.Rublon;
 
@@ -29,6 +30,11 @@ public class Credentials extends APIMethod {
 	 */
 	public static final String FIELD_CONFIRM_RESULT = "answer";
 	
+	/**
+	 * Encoded name of the access token field.
+	 */
+	private static final byte[] NAME_ACCESS_TOKEN = RequestBodyWriter.name(RublonAuthParams.FIELD_ACCESS_TOKEN);
+	
 	/**
 	 * Access token.
 	 */
@@ -54,37 +60,45 @@ public class Credentials extends APIMethod {
 	 * Get the API request URL.
 	 */
 	protected String getUrl() {
-		return rublon.getAPIServer() + REQUEST_URI_PATH;
+		return getAPIServer() + REQUEST_URI_PATH;
+	}
+	
+
+	/**
+	 * The access token is consumed by the first request, never retry.
+	 */
+	protected RetryPolicy.Mode getRetryMode() {
+		return RetryPolicy.Mode.NEVER;
 	}
 	
 
 	/**
-	 * Get the API request parameters.
+	 * Write the API request fields.
 	 */
-	protected JSONObject getParams() {
-		return super.getParams()
-				.put(RublonAuthParams.FIELD_ACCESS_TOKEN, accessToken);
+	protected void writeFields(RequestBodyWriter body) {
+		super.writeFields(body);
+		body.field(NAME_ACCESS_TOKEN, accessToken);
 	}
 
 	/**
 	 * Get the user's device ID from the response.
 	 */
 	public String getDeviceId() {
-		return responseResult.optString(FIELD_DEVICE_ID, null);
+		return getResultString(FIELD_DEVICE_ID);
 	}
 	
 	/**
 	 * Get the confirmation result.
 	 */
 	public String getConfirmResult() {
-		return responseResult.optString(FIELD_CONFIRM_RESULT, null);
+		return getResultString(FIELD_CONFIRM_RESULT);
 	}
 
 	/**
 	 * Get the user's name from the response.
 	 */
 	public String getUserName() {
-		return responseResult.optString(RublonAuthParams.FIELD_USER_NAME, null);
+		return getResultString(RublonAuthParams.FIELD_USER_NAME);
 	}
 
 }
@@ -0,0 +1,57 @@
+package com.rublon.sdk.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event of the API response validation.
+ * <p>
+ * Costs only the enabled check while the event is disabled.
+ * Set the fields only when {@link #shouldCommit()}.
+ *
+ * @author Rublon Developers
+ */
+@Name("com.rublon.sdk.Validation")
+@Label("Rublon API Response Validation")
+@Category({"Rublon SDK"})
+@Description("Parsing and signature verification of the Rublon API response")
+final class ValidationEvent extends Event {
+
+	/**
+	 * API method name.
+	 */
+	@Label("Method")
+	String method;
+
+	/**
+	 * HTTP status code.
+	 */
+	@Label("HTTP Status")
+	int status;
+
+	/**
+	 * Size of the response body in bytes.
+	 */
+	@Label("Bytes In")
+	@DataAmount
+	long bytesIn;
+
+	/**
+	 * Time in nanoseconds spent verifying the response signature.
+	 */
+	@Label("Signature Verification Time")
+	@Timespan
+	long verificationTime;
+
+	/**
+	 * {@link com.rublon.sdk.core.metrics.RublonMetrics#OUTCOME_OK} or the simple name of the exception class.
+	 */
+	@Label("Outcome")
+	String outcome;
+
+}
@@ -0,0 +1,375 @@
+package com.rublon.sdk.core.rest;
+
+import com.rublon.sdk.core.exception.ConnectionException;
+import com.rublon.sdk.core.util.Scheduler;
+import com.rublon.sdk.core.util.Utf8Buffer;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * JDK HttpClient transport.
+ * <p>
+ * Uses {@link HttpClient} from the java.net.http module, which negotiates HTTP/2
+ * with the API server, so all concurrent requests share a single multiplexed
+ * connection. Available on Java 11 and newer.
+ * <p>
+ * Response bodies are collected into byte buffers bounded by
+ * the maximum response size.
+ * <p>
+ * The JDK client has no per-request connect timeout, so the requests are sent
+ * by a client created for their connect timeout. With the default timeouts all
+ * requests share one client. The request's read timeout, capped by the time left
+ * until its deadline, bounds the wait for the response headers. When the deadline
+ * expires, the exchange is cancelled, including a slow connect or a slow response
+ * body. The JDK client aborts the cancelled exchange on Java 16 and newer, older
+ * versions fail the call at the deadline and let the exchange finish in the background.
+ * 
+ * @author Rublon Developers
+ */
+public class JdkHttpTransport implements Transport {
+
+	/**
+	 * Executor of the response handlers, shut down when the transport is closed.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * HTTP client instance with the default connect timeout.
+	 */
+	private final HttpClient httpClient;
+
+	/**
+	 * HTTP clients by their connect timeout in milliseconds.
+	 */
+	private final ConcurrentMap<Integer, HttpClient> httpClients = new ConcurrentHashMap<Integer, HttpClient>();
+
+	/**
+	 * Maximum size of the response body in bytes.
+	 */
+	private final int maxResponseSize;
+
+	/**
+	 * Construct the transport with default configuration.
+	 */
+	public JdkHttpTransport() {
+		this(new TransportConfig());
+	}
+
+	/**
+	 * Construct the transport with given configuration.
+	 * <p>
+	 * Connection pool limits do not apply, requests are multiplexed over HTTP/2.
+	 * 
+	 * @param config Transport configuration
+	 */
+	public JdkHttpTransport(TransportConfig config) {
+		this.maxResponseSize = config.getMaxResponseSize();
+		this.executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "rublon-jdk-http");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.httpClient = createHttpClient(executor, Timeouts.DEFAULT_CONNECT_TIMEOUT);
+		this.httpClients.put(Timeouts.DEFAULT_CONNECT_TIMEOUT, httpClient);
+	}
+
+	/**
+	 * Create the HTTP client preferring HTTP/2.
+	 * 
+	 * @param executor Executor of the response handlers.
+	 * @param connectTimeout Connect timeout in milliseconds.
+	 */
+	protected HttpClient createHttpClient(ExecutorService executor, int connectTimeout) {
+		return HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.followRedirects(HttpClient.Redirect.NEVER)
+				.connectTimeout(Duration.ofMillis(Math.max(1, connectTimeout)))
+				.executor(executor)
+				.build();
+	}
+
+	/**
+	 * Get the HTTP client sending the requests with given connect timeout, create it on the first call.
+	 * 
+	 * @param connectTimeout Connect timeout in milliseconds.
+	 */
+	protected HttpClient getHttpClient(int connectTimeout) {
+		return httpClients.computeIfAbsent(connectTimeout, timeout -> createHttpClient(executor, timeout));
+	}
+
+	/**
+	 * Send the request and wait for the response.
+	 * <p>
+	 * The request is sent asynchronously, so the exchange can be cancelled at the deadline.
+	 */
+	@Override
+	public RESTResponse execute(RESTRequest request) throws ConnectionException {
+		CompletableFuture<RESTResponse> future = executeAsync(request);
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new ConnectionException(e.getLocalizedMessage(), e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof ConnectionException) {
+				throw (ConnectionException) cause;
+			}
+			throw createException(cause);
+		}
+	}
+
+	@Override
+	public CompletableFuture<RESTResponse> executeAsync(RESTRequest request) {
+		final CompletableFuture<RESTResponse> result = new CompletableFuture<RESTResponse>();
+		final CompletableFuture<HttpResponse<byte[]>> future;
+		try {
+			future = getHttpClient(request.getConnectTimeout()).sendAsync(createRequest(request), this::createBodySubscriber);
+		} catch (RuntimeException e) {
+			result.completeExceptionally(createException(e));
+			return result;
+		}
+		future.whenComplete((httpResponse, e) -> {
+			if (e != null) {
+				Throwable cause = (e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+				result.completeExceptionally(createException(cause));
+			} else {
+				result.complete(createResponse(httpResponse));
+			}
+		});
+		final ScheduledFuture<?> deadline = (request.hasDeadline()
+				? Scheduler.schedule(() -> future.cancel(true), request.getTimeLeft()) : null);
+		result.whenComplete((response, e) -> {
+			if (deadline != null) {
+				deadline.cancel(false);
+			}
+			if (result.isCancelled()) {
+				future.cancel(true);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Open the connections to the server by HEAD requests of given URL.
+	 * <p>
+	 * The client cannot open connections in advance, so the concurrent requests
+	 * resolve the host, complete the TLS handshake and negotiate HTTP/2, whose
+	 * single connection then serves all requests. When the server supports only
+	 * HTTP/1.1, each request leaves a pooled connection. The response status
+	 * is ignored. Only the client with the default connect timeout is warmed up.
+	 */
+	@Override
+	public void preconnect(String url, int connections) throws ConnectionException {
+		
+		HttpRequest request;
+		try {
+			request = HttpRequest.newBuilder(URI.create(url))
+					.timeout(Duration.ofMillis(Timeouts.DEFAULT_READ_TIMEOUT))
+					.method("HEAD", HttpRequest.BodyPublishers.noBody())
+					.build();
+		} catch (IllegalArgumentException e) {
+			throw new ConnectionException("Invalid server URL: " + url, e);
+		}
+		List<CompletableFuture<HttpResponse<Void>>> futures = new ArrayList<CompletableFuture<HttpResponse<Void>>>();
+		for (int i = 0; i < Math.max(connections, 1); i++) {
+			futures.add(httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+		}
+		try {
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+					.get(Timeouts.DEFAULT_CONNECT_TIMEOUT + Timeouts.DEFAULT_READ_TIMEOUT, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConnectionException(e.getLocalizedMessage(), e);
+		} catch (ExecutionException e) {
+			throw createException(e.getCause());
+		} catch (TimeoutException e) {
+			throw new ConnectionException("Preconnect timed out.", e);
+		} finally {
+			for (CompletableFuture<HttpResponse<Void>> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	/**
+	 * Create the connection exception for given failure.
+	 * <p>
+	 * Failures before the request has been sent (host resolution, connecting)
+	 * are reported as {@link ConnectionException.ConnectFailedException}.
+	 * 
+	 * @param e Failure.
+	 */
+	protected static ConnectionException createException(Throwable e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof HttpConnectTimeoutException || cause instanceof ConnectException
+					|| cause instanceof UnknownHostException || cause instanceof NoRouteToHostException) {
+				return new ConnectionException.ConnectFailedException(e.getLocalizedMessage(), e);
+			}
+		}
+		return new ConnectionException(e.getLocalizedMessage(), e);
+	}
+
+	/**
+	 * Get the timeout of the exchange in milliseconds.
+	 * 
+	 * @param request Signed request.
+	 */
+	protected static long getTimeout(RESTRequest request) {
+		return Math.max(1, Math.min(request.getReadTimeout(), request.getTimeLeft()));
+	}
+
+	/**
+	 * Create the HTTP POST request.
+	 * 
+	 * @param request Signed request.
+	 */
+	protected HttpRequest createRequest(RESTRequest request) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(request.getUrl()))
+				.timeout(Duration.ofMillis(getTimeout(request)))
+				.POST(HttpRequest.BodyPublishers.ofByteArray(request.getBody()));
+		for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+			builder.setHeader(header.getKey(), header.getValue());
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Create the subscriber collecting the response body.
+	 * 
+	 * @param responseInfo Response status and headers.
+	 */
+	protected HttpResponse.BodySubscriber<byte[]> createBodySubscriber(HttpResponse.ResponseInfo responseInfo) {
+		long contentLength = responseInfo.headers().firstValueAsLong("Content-Length").orElse(-1L);
+		return new BoundedBodySubscriber(contentLength);
+	}
+
+	/**
+	 * Convert the HTTP response into the response instance.
+	 * 
+	 * @param httpResponse HTTP response
+	 */
+	protected RESTResponse createResponse(HttpResponse<byte[]> httpResponse) {
+		Map<String, String> headers = new HashMap<String, String>();
+		for (Map.Entry<String, List<String>> header : httpResponse.headers().map().entrySet()) {
+			if (!header.getValue().isEmpty()) {
+				headers.put(header.getKey(), header.getValue().get(0));
+			}
+		}
+		return new RESTResponse(httpResponse.statusCode(), "", headers, httpResponse.body());
+	}
+
+	/**
+	 * Get the HTTP client instance with the default connect timeout.
+	 */
+	public HttpClient getHttpClient() {
+		return httpClient;
+	}
+
+	/**
+	 * Close the transport.
+	 * <p>
+	 * Connections of the JDK client are released when the client becomes unreachable.
+	 */
+	@Override
+	public void close() throws IOException {
+		executor.shutdown();
+	}
+
+	/**
+	 * Body subscriber collecting the response into a bounded buffer.
+	 */
+	private class BoundedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+
+		/**
+		 * Response body buffer.
+		 */
+		private final Utf8Buffer body;
+
+		/**
+		 * Collected response body.
+		 */
+		private final CompletableFuture<byte[]> result = new CompletableFuture<byte[]>();
+
+		/**
+		 * Upstream subscription.
+		 */
+		private Flow.Subscription subscription;
+
+		BoundedBodySubscriber(long contentLength) {
+			this.body = new Utf8Buffer(contentLength > 0 && contentLength <= maxResponseSize ? (int) contentLength : 1024);
+			if (contentLength > maxResponseSize) {
+				result.completeExceptionally(new IOException("Response body exceeds the limit of " + maxResponseSize + " bytes."));
+			}
+		}
+
+		@Override
+		public CompletionStage<byte[]> getBody() {
+			return result;
+		}
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+			if (result.isDone()) {
+				subscription.cancel();
+			} else {
+				subscription.request(Long.MAX_VALUE);
+			}
+		}
+
+		@Override
+		public void onNext(List<ByteBuffer> items) {
+			if (result.isDone()) {
+				return;
+			}
+			for (ByteBuffer item : items) {
+				if (body.size() + item.remaining() > maxResponseSize) {
+					subscription.cancel();
+					result.completeExceptionally(new IOException("Response body exceeds the limit of " + maxResponseSize + " bytes."));
+					return;
+				}
+				body.write(item);
+			}
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			result.completeExceptionally(throwable);
+		}
+
+		@Override
+		public void onComplete() {
+			result.complete(body.toByteArray());
+		}
+
+	}
+
+}
@@ -0,0 +1,33 @@
+package com.rublon.sdk.core.rest;
+
+/**
+ * Provider of the JDK HttpClient transport.
+ * <p>
+ * The provider is not preferred by default, select it by setting
+ * the {@value TransportProvider#PROPERTY_TRANSPORT} system property to {@value #NAME}.
+ * 
+ * @author Rublon Developers
+ */
+public class JdkHttpTransportProvider implements TransportProvider {
+
+	/**
+	 * Provider name.
+	 */
+	public static final String NAME = "jdk";
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public int getPriority() {
+		return -1;
+	}
+
+	@Override
+	public Transport create(TransportConfig config) {
+		return new JdkHttpTransport(config);
+	}
+
+}
@@ -0,0 +1,68 @@
+package com.rublon.sdk.core.rest;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event of the HTTP request attempt.
+ * <p>
+ * Costs only the enabled check while the event is disabled.
+ * Set the fields only when {@link #shouldCommit()}.
+ *
+ * @author Rublon Developers
+ */
+@Name("com.rublon.sdk.Request")
+@Label("Rublon API Request")
+@Category({"Rublon SDK"})
+@Description("Attempt of the HTTP request to the Rublon API")
+final class RequestEvent extends Event {
+
+	/**
+	 * API method name.
+	 */
+	@Label("Method")
+	String method;
+
+	/**
+	 * Number of the attempt, starting from 1.
+	 */
+	@Label("Attempt")
+	int attempt;
+
+	/**
+	 * HTTP status code, 0 if the attempt failed.
+	 */
+	@Label("HTTP Status")
+	int status;
+
+	/**
+	 * Size of the request body in bytes.
+	 */
+	@Label("Bytes Out")
+	@DataAmount
+	long bytesOut;
+
+	/**
+	 * Size of the response body in bytes.
+	 */
+	@Label("Bytes In")
+	@DataAmount
+	long bytesIn;
+
+	/**
+	 * Whether the request was sent on a reused pooled connection.
+	 */
+	@Label("Connection Reused")
+	boolean connectionReused;
+
+	/**
+	 * Simple name of the exception class of the failed attempt.
+	 */
+	@Label("Failure")
+	String failure;
+
+}
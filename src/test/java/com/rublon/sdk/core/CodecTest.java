@@ -0,0 +1,51 @@
+package com.rublon.sdk.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Hex codec and HMAC signatures.
+ *
+ * @author Rublon Developers
+ */
+public class CodecTest {
+
+	@Test
+	public void hexDecodeAcceptsBothCases() {
+		byte[] output = new byte[3];
+		assertTrue(Codec.hex_decode("0aFf9B", output));
+		assertArrayEquals(new byte[] {0x0a, (byte) 0xff, (byte) 0x9b}, output);
+	}
+
+	@Test
+	public void hexDecodeRejectsNonAsciiDigits() {
+		byte[] output = new byte[2];
+		// Arabic-Indic and fullwidth digits are digits for Character.digit()
+		assertFalse(Codec.hex_decode("١٢ab", output));
+		assertFalse(Codec.hex_decode("ab１２", output));
+		assertFalse(Codec.hex_decode("abgz", output));
+		assertFalse(Codec.hex_decode("abc", output));
+	}
+
+	@Test
+	public void hmacVerifiesOwnSignature() {
+		String signature = Codec.hmac(APIMethod.HASH_ALG, "secret", "message");
+		assertTrue(Codec.hmac_verify(APIMethod.HASH_ALG, "secret", "message", signature));
+		assertFalse(Codec.hmac_verify(APIMethod.HASH_ALG, "other", "message", signature));
+		assertFalse(Codec.hmac_verify(APIMethod.HASH_ALG, "secret", "message", '١' + signature.substring(1)));
+	}
+
+	@Test
+	public void signerCacheKeepsRecentlyUsedKeys() throws Exception {
+		HmacSigner signer = HmacSigner.getInstance("SHA256", "recent");
+		for (int i = 0; i < 100; i++) {
+			HmacSigner.getInstance("SHA256", "key-" + i);
+			assertSame(signer, HmacSigner.getInstance("sha256", "recent"));
+		}
+	}
+
+}
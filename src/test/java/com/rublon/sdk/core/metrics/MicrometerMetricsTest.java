@@ -0,0 +1,72 @@
+package com.rublon.sdk.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.rublon.sdk.core.rest.ConcurrencyLimiter;
+import com.rublon.sdk.core.rest.RESTClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Meters of the concurrency limiter published by the Micrometer adapter.
+ *
+ * @author Rublon Developers
+ */
+public class MicrometerMetricsTest {
+
+	private SimpleMeterRegistry registry;
+
+	private RESTClient client;
+
+	@Before
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		client = new RESTClient("secret");
+	}
+
+	@Test
+	public void limiterMetersAreRegisteredOnlyWithLimiter() throws IOException {
+		client.setMetrics(new MicrometerMetrics(registry));
+		assertNull(registry.find(MicrometerMetrics.LIMITER_LIMIT).gauge());
+
+		client.setConcurrencyLimiter(new ConcurrencyLimiter().setLimit(2, 1, 10));
+		assertEquals(2, registry.get(MicrometerMetrics.LIMITER_LIMIT).gauge().value(), 0);
+		client.close();
+	}
+
+	@Test
+	public void limiterMetersFollowLimiter() throws IOException {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter().setLimit(2, 1, 10);
+		client.setConcurrencyLimiter(limiter).setMetrics(new MicrometerMetrics(registry));
+
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(2, registry.get(MicrometerMetrics.LIMITER_IN_FLIGHT).gauge().value(), 0);
+		assertEquals(0, registry.get(MicrometerMetrics.LIMITER_QUEUED).gauge().value(), 0);
+		assertEquals(1, registry.get(MicrometerMetrics.LIMITER_REJECTIONS).functionCounter().count(), 0);
+
+		// Rejections of the replaced limiter are kept, the gauges follow the new one
+		ConcurrencyLimiter replacement = new ConcurrencyLimiter().setLimit(1, 1, 10);
+		client.setConcurrencyLimiter(replacement);
+		assertTrue(replacement.tryAcquire());
+		assertFalse(replacement.tryAcquire());
+		assertEquals(1, registry.get(MicrometerMetrics.LIMITER_LIMIT).gauge().value(), 0);
+		assertEquals(1, registry.get(MicrometerMetrics.LIMITER_IN_FLIGHT).gauge().value(), 0);
+		assertEquals(2, registry.get(MicrometerMetrics.LIMITER_REJECTIONS).functionCounter().count(), 0);
+
+		client.setConcurrencyLimiter(ConcurrencyLimiter.unlimited());
+		assertTrue(Double.isNaN(registry.get(MicrometerMetrics.LIMITER_LIMIT).gauge().value()));
+		assertEquals(2, registry.get(MicrometerMetrics.LIMITER_REJECTIONS).functionCounter().count(), 0);
+		client.close();
+	}
+
+}
@@ -0,0 +1,144 @@
+package com.rublon.sdk.core.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * State machine of the circuit breaker.
+ *
+ * @author Rublon Developers
+ */
+public class CircuitBreakerTest {
+
+	/**
+	 * Duration in nanoseconds of the fast calls.
+	 */
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void opensWhenFailureRateReachesThreshold() {
+		CircuitBreaker breaker = new CircuitBreaker().setWindowSize(4).setMinimumCalls(4);
+
+		complete(breaker, false);
+		complete(breaker, true);
+		complete(breaker, false);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		complete(breaker, true);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(CircuitBreaker.REJECTED, breaker.acquire());
+	}
+
+	@Test
+	public void staysClosedBelowMinimumCalls() {
+		CircuitBreaker breaker = new CircuitBreaker().setWindowSize(10).setMinimumCalls(5);
+
+		for (int i = 0; i < 4; i++) {
+			complete(breaker, true);
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		complete(breaker, true);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	public void oldOutcomesLeaveWindow() {
+		CircuitBreaker breaker = new CircuitBreaker().setWindowSize(4).setMinimumCalls(4);
+
+		complete(breaker, true);
+		for (int i = 0; i < 10; i++) {
+			complete(breaker, false);
+		}
+		// The failure has left the window, one more is below the threshold
+		complete(breaker, true);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void opensWhenSlowCallRateReachesThreshold() {
+		CircuitBreaker breaker = new CircuitBreaker().setWindowSize(2).setMinimumCalls(2).setSlowCallThreshold(10, 100);
+		long slow = TimeUnit.MILLISECONDS.toNanos(20);
+
+		breaker.onComplete(breaker.acquire(), slow, false);
+		breaker.onComplete(breaker.acquire(), FAST, false);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		breaker.onComplete(breaker.acquire(), slow, false);
+		breaker.onComplete(breaker.acquire(), slow, false);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	public void halfOpenPermitsSingleProbeWhichCloses() throws InterruptedException {
+		CircuitBreaker breaker = open(new CircuitBreaker().setWindowSize(2).setMinimumCalls(2).setOpenDuration(20));
+		assertEquals(CircuitBreaker.REJECTED, breaker.acquire());
+
+		Thread.sleep(40);
+		long probe = breaker.acquire();
+		assertNotEquals(CircuitBreaker.REJECTED, probe);
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertEquals(CircuitBreaker.REJECTED, breaker.acquire());
+
+		breaker.onComplete(probe, FAST, false);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertNotEquals(CircuitBreaker.REJECTED, breaker.acquire());
+	}
+
+	@Test
+	public void failedProbeOpensAgain() throws InterruptedException {
+		CircuitBreaker breaker = open(new CircuitBreaker().setWindowSize(2).setMinimumCalls(2).setOpenDuration(20));
+
+		Thread.sleep(40);
+		long probe = breaker.acquire();
+		breaker.onComplete(probe, FAST, true);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertEquals(CircuitBreaker.REJECTED, breaker.acquire());
+	}
+
+	@Test
+	public void completionsOfPreviousStateAreIgnored() {
+		CircuitBreaker breaker = new CircuitBreaker().setWindowSize(2).setMinimumCalls(2);
+		long stale = breaker.acquire();
+		open(breaker);
+
+		// Success of the call started while closed does not close the breaker
+		breaker.onComplete(stale, FAST, false);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	public void disabledBreakerNeverOpens() {
+		CircuitBreaker breaker = CircuitBreaker.disabled().setWindowSize(2).setMinimumCalls(2);
+
+		for (int i = 0; i < 10; i++) {
+			complete(breaker, true);
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertNotEquals(CircuitBreaker.REJECTED, breaker.acquire());
+	}
+
+	/**
+	 * Complete the fast call.
+	 *
+	 * @param breaker
+	 * @param failed
+	 */
+	private static void complete(CircuitBreaker breaker, boolean failed) {
+		breaker.onComplete(breaker.acquire(), FAST, failed);
+	}
+
+	/**
+	 * Open the breaker by failed calls.
+	 *
+	 * @param breaker
+	 */
+	private static CircuitBreaker open(CircuitBreaker breaker) {
+		while (breaker.getState() != CircuitBreaker.State.OPEN) {
+			complete(breaker, true);
+		}
+		return breaker;
+	}
+
+}
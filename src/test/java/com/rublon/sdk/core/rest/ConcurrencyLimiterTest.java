@@ -0,0 +1,153 @@
+package com.rublon.sdk.core.rest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Limit adaptation and queueing of the concurrency limiter.
+ *
+ * @author Rublon Developers
+ */
+public class ConcurrencyLimiterTest {
+
+	/**
+	 * Duration in nanoseconds of the fast calls.
+	 */
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	public void asyncCallsOverLimitAreRejected() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter().setLimit(2, 1, 10);
+
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		assertEquals(2, limiter.getInFlight());
+		assertEquals(1, limiter.getRejectedCount());
+
+		limiter.release();
+		assertTrue(limiter.tryAcquire());
+	}
+
+	@Test
+	public void blockingCallWaitsForReleasedPermit() throws InterruptedException {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter().setLimit(1, 1, 10).setQueue(5000, 1);
+		assertTrue(limiter.acquire());
+
+		Thread releasing = new Thread(() -> {
+			try {
+				Thread.sleep(20);
+			} catch (InterruptedException e) {
+				return;
+			}
+			limiter.release(FAST, false);
+		});
+		releasing.start();
+		assertTrue(limiter.acquire());
+		releasing.join();
+		assertEquals(1, limiter.getInFlight());
+		assertEquals(0, limiter.getRejectedCount());
+	}
+
+	@Test
+	public void blockingCallTimesOutInQueue() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter().setLimit(1, 1, 10).setQueue(10, 1);
+		assertTrue(limiter.acquire());
+
+		assertFalse(limiter.acquire());
+		assertEquals(0, limiter.getQueued());
+		assertEquals(1, limiter.getRejectedCount());
+	}
+
+	@Test
+	public void fullQueueRejectsWithoutWaiting() throws InterruptedException {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter().setLimit(1, 1, 10).setQueue(5000, 1);
+		assertTrue(limiter.acquire());
+
+		Thread waiting = new Thread(limiter::acquire);
+		waiting.start();
+		while (limiter.getQueued() == 0) {
+			Thread.sleep(1);
+		}
+		long start = System.nanoTime();
+		assertFalse(limiter.acquire());
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+		limiter.release(FAST, false);
+		waiting.join();
+		assertEquals(1, limiter.getRejectedCount());
+	}
+
+	@Test
+	public void limitDecreasesOncePerRound() throws InterruptedException {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter().setLimit(16, 1, 100).setBackoffRatio(0.5);
+		Thread.sleep(5);
+		long start = System.nanoTime();
+		for (int i = 0; i < 3; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+
+		// Calls of the same round started before the first decrease
+		for (int i = 0; i < 3; i++) {
+			limiter.release(System.nanoTime() - start, true);
+		}
+		assertEquals(8, limiter.getLimit());
+
+		// The next round decreases again
+		assertTrue(limiter.tryAcquire());
+		limiter.release(0, true);
+		assertEquals(4, limiter.getLimit());
+	}
+
+	@Test
+	public void slowCallsDecreaseLimit() throws InterruptedException {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter().setLimit(10, 2, 100).setBackoffRatio(0.5).setLatencyThreshold(10);
+		Thread.sleep(20);
+
+		assertTrue(limiter.tryAcquire());
+		limiter.release(TimeUnit.MILLISECONDS.toNanos(15), false);
+		assertEquals(5, limiter.getLimit());
+
+		for (int i = 0; i < 5; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.release(0, true);
+		}
+		assertEquals(2, limiter.getLimit());
+	}
+
+	@Test
+	public void limitIncreasesOnlyWhileUsed() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter().setLimit(4, 1, 100);
+
+		// A single call in flight does not use half of the limit
+		for (int i = 0; i < 10; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.release(FAST, false);
+		}
+		assertEquals(4, limiter.getLimit());
+
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		for (int i = 0; i < 5; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.release(FAST, false);
+		}
+		assertEquals(5, limiter.getLimit());
+	}
+
+	@Test
+	public void unlimitedNeverRejects() {
+		ConcurrencyLimiter limiter = ConcurrencyLimiter.unlimited();
+
+		for (int i = 0; i < 1000; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+		assertEquals(0, limiter.getRejectedCount());
+	}
+
+}
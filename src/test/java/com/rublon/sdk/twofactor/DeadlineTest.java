@@ -0,0 +1,136 @@
+package com.rublon.sdk.twofactor;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.rublon.sdk.core.exception.ConnectionException;
+import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.rest.ApacheTransportProvider;
+import com.rublon.sdk.core.rest.RetryPolicy;
+import com.rublon.sdk.core.rest.Timeouts;
+import com.rublon.sdk.core.rest.TransportConfig;
+import com.rublon.sdk.core.rest.TransportProvider;
+import com.rublon.sdk.stub.RublonStub;
+
+/**
+ * Deadline of the calls against the slow-drip responses of the API stub, with each available transport.
+ *
+ * @author Rublon Developers
+ */
+@RunWith(Parameterized.class)
+public class DeadlineTest {
+
+	/**
+	 * Deadline of the calls in milliseconds.
+	 */
+	private static final long DEADLINE = 300;
+
+	private final TransportProvider provider;
+
+	private RublonStub stub;
+
+	private Rublon rublon;
+
+	public DeadlineTest(String name, TransportProvider provider) {
+		this.provider = provider;
+	}
+
+	/**
+	 * Get the transport providers loadable in the current runtime.
+	 */
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> getProviders() {
+		List<Object[]> result = new ArrayList<Object[]>();
+		result.add(new Object[] {"apache", new ApacheTransportProvider()});
+		Iterator<TransportProvider> it = ServiceLoader.load(TransportProvider.class).iterator();
+		while (true) {
+			TransportProvider provider;
+			try {
+				if (!it.hasNext()) {
+					break;
+				}
+				provider = it.next();
+			} catch (ServiceConfigurationError | LinkageError e) {
+				// Provider of a newer runtime
+				continue;
+			}
+			if (!(provider instanceof ApacheTransportProvider)) {
+				result.add(new Object[] {provider.getName(), provider});
+			}
+		}
+		return result;
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		stub = new RublonStub(RetryTest.SECRET_KEY).start();
+		rublon = new Rublon(RetryTest.SYSTEM_TOKEN, RetryTest.SECRET_KEY, stub.getUrl(),
+				provider.create(new TransportConfig()));
+		rublon.setRetryPolicy(RetryPolicy.none());
+		rublon.setTimeouts(new Timeouts().setDeadline(DEADLINE));
+		// The headers arrive within the deadline, the rest of the response takes about 1.5 s
+		StringBuilder appName = new StringBuilder();
+		for (int i = 0; i < 4096; i++) {
+			appName.append('x');
+		}
+		stub.getMethod(RublonStub.APP_INIT).setResult("{\"appName\":\"" + appName + "\"}").setDrip(1, 64, 20);
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		rublon.close();
+		stub.close();
+	}
+
+	@Test
+	public void slowResponseExceedsDeadline() throws RublonException {
+		long start = System.nanoTime();
+		try {
+			rublon.checkApplication(null);
+			fail("Slow response should exceed the deadline.");
+		} catch (ConnectionException.DeadlineExceededException e) {
+			// Expected
+		}
+		assertElapsed(start);
+	}
+
+	@Test
+	public void slowResponseExceedsDeadlineAsync() {
+		long start = System.nanoTime();
+		try {
+			rublon.checkApplicationAsync(null).join();
+			fail("Slow response should exceed the deadline.");
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof ConnectionException.DeadlineExceededException);
+		}
+		assertElapsed(start);
+	}
+
+	/**
+	 * Assert the call has returned soon after the deadline.
+	 *
+	 * @param start Start of the call.
+	 */
+	private static void assertElapsed(long start) {
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		assertTrue("Call returned after " + elapsed + " ms.", elapsed < DEADLINE + 500);
+	}
+
+}
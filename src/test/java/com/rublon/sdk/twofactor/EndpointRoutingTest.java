@@ -0,0 +1,138 @@
+package com.rublon.sdk.twofactor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.rublon.sdk.core.exception.ConnectionException;
+import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.rest.CircuitBreaker;
+import com.rublon.sdk.core.rest.Endpoint;
+import com.rublon.sdk.core.rest.RetryPolicy;
+import com.rublon.sdk.stub.Latency;
+import com.rublon.sdk.stub.RublonStub;
+import com.rublon.sdk.stub.StubMethod;
+
+/**
+ * Routing between multiple API servers against two in-process API stubs.
+ *
+ * @author Rublon Developers
+ */
+public class EndpointRoutingTest {
+
+	private RublonStub first;
+
+	private RublonStub second;
+
+	private Rublon rublon;
+
+	@Before
+	public void setUp() throws IOException {
+		first = new RublonStub(RetryTest.SECRET_KEY).start();
+		second = new RublonStub(RetryTest.SECRET_KEY).start();
+		rublon = new Rublon(RetryTest.SYSTEM_TOKEN, RetryTest.SECRET_KEY, Arrays.asList(first.getUrl(), second.getUrl()));
+		rublon.setHealthCheckInterval(0);
+		rublon.setRetryPolicy(RetryPolicy.none());
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		rublon.close();
+		first.close();
+		second.close();
+	}
+
+	@Test
+	public void trafficShiftsAwayFromSlowEndpoint() throws RublonException {
+		for (int i = 0; i < 20; i++) {
+			rublon.checkApplication(null);
+		}
+		assertEquals(20, first.getRequestCount() + second.getRequestCount());
+
+		StubMethod slow = second.getMethod(RublonStub.APP_INIT).setLatency(Latency.fixed(50));
+		StubMethod fast = first.getMethod(RublonStub.APP_INIT);
+		slow.resetCounts();
+		fast.resetCounts();
+		for (int i = 0; i < 100; i++) {
+			rublon.checkApplication(null);
+		}
+		assertEquals(100, fast.getRequestCount() + slow.getRequestCount());
+		assertTrue("Slow endpoint received " + slow.getRequestCount() + " requests.", slow.getRequestCount() <= 10);
+	}
+
+	@Test
+	public void ejectionByProbesDoesNotOpenBreaker() throws Exception {
+		CircuitBreaker breaker = new CircuitBreaker().setWindowSize(4).setMinimumCalls(2);
+		rublon.setCircuitBreaker(breaker);
+		second.setResetRate(1);
+		Endpoint failing = rublon.getEndpointPool().getEndpoints().get(1);
+
+		rublon.setHealthCheckInterval(20);
+		await(failing::isEjected);
+		assertTrue(second.getMethod(RublonStub.APP_INIT).getResetCount() >= 3);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+		// The calls avoid the ejected endpoint, so none of them fails
+		rublon.setHealthCheckInterval(0);
+		for (int i = 0; i < 20; i++) {
+			rublon.checkApplication(null);
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void probesAreSentWhileBreakerIsOpen() throws Exception {
+		CircuitBreaker breaker = new CircuitBreaker().setWindowSize(2).setMinimumCalls(2).setOpenDuration(60000);
+		rublon.setCircuitBreaker(breaker);
+		first.setResetRate(1);
+		second.setResetRate(1);
+		for (int i = 0; i < 2; i++) {
+			try {
+				rublon.checkApplication(null);
+				fail("Reset connection should fail the configuration check.");
+			} catch (ConnectionException e) {
+				// Expected
+			}
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+		first.clearFaults();
+		second.clearFaults();
+		long before = first.getRequestCount() + second.getRequestCount();
+		rublon.setHealthCheckInterval(20);
+		await(() -> first.getRequestCount() + second.getRequestCount() >= before + 4);
+		rublon.setHealthCheckInterval(0);
+
+		// Successful probes recover the endpoints, but the breaker is left to the calls
+		for (Endpoint endpoint : rublon.getEndpointPool().getEndpoints()) {
+			assertFalse(endpoint.isEjected());
+		}
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	/**
+	 * Wait until given condition holds.
+	 *
+	 * @param condition
+	 */
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() - deadline >= 0) {
+				fail("Condition not met in time.");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+}
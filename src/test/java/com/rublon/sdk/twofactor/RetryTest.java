@@ -0,0 +1,285 @@
+package com.rublon.sdk.twofactor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.rublon.sdk.core.exception.APIException;
+import com.rublon.sdk.core.exception.ConnectionException;
+import com.rublon.sdk.core.exception.RublonException;
+import com.rublon.sdk.core.rest.ApacheTransport;
+import com.rublon.sdk.core.rest.RESTClient;
+import com.rublon.sdk.core.rest.RESTRequest;
+import com.rublon.sdk.core.rest.RESTResponse;
+import com.rublon.sdk.core.rest.RetryPolicy;
+import com.rublon.sdk.core.rest.Transport;
+import com.rublon.sdk.stub.RublonStub;
+import com.rublon.sdk.stub.StubMethod;
+
+/**
+ * Retries of the API methods against the in-process API stub.
+ *
+ * @author Rublon Developers
+ */
+public class RetryTest {
+
+	static final String SYSTEM_TOKEN = "1A2B3C4D5E6F7A8B9C0D1E2F3A4B5C6D";
+
+	static final String SECRET_KEY = "bq4m9ZrZTf6PnuBC4q2Wy5Xs3dVaE8gK7hJtLkN1pRsTuVwXyZ2a3b4c5d6e7f8g";
+
+	static final String CALLBACK_URL = "https://app.example.com/rublon/callback";
+
+	static final String ACCESS_TOKEN = "a1b2c3d4e5f6a7b8c9d0e1f2a3b4c5d6e7f8a9b0c1d2e3f4a5b6c7d8e9f0";
+
+	private RublonStub stub;
+
+	private RedirectingTransport transport;
+
+	private Rublon rublon;
+
+	@Before
+	public void setUp() throws IOException {
+		stub = new RublonStub(SECRET_KEY).start();
+		transport = new RedirectingTransport(new ApacheTransport(), stub.getUrl(), "http://127.0.0.1:" + getClosedPort());
+		rublon = new Rublon(SYSTEM_TOKEN, SECRET_KEY, stub.getUrl(), new RESTClient(SECRET_KEY, transport));
+		rublon.setRetryPolicy(new RetryPolicy().setInitialBackoff(1));
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		rublon.close();
+		stub.close();
+	}
+
+	@Test
+	public void beginTransactionRetriesConnectFailure() throws RublonException {
+		transport.setRedirects(1);
+
+		assertNotNull(rublon.auth(CALLBACK_URL, "john.doe", "John.Doe@example.com"));
+		assertEquals(2, transport.getAttempts());
+		assertEquals(1, stub.getMethod(RublonStub.TRANSACTION_INIT).getRequestCount());
+	}
+
+	@Test
+	public void beginTransactionRetriesConnectFailureAsync() throws Exception {
+		transport.setRedirects(1);
+
+		assertNotNull(rublon.authAsync(CALLBACK_URL, "john.doe", "John.Doe@example.com").get());
+		assertEquals(2, transport.getAttempts());
+		assertEquals(1, stub.getMethod(RublonStub.TRANSACTION_INIT).getRequestCount());
+	}
+
+	@Test
+	public void beginTransactionDoesNotRetrySentRequest() throws RublonException {
+		StubMethod init = stub.getMethod(RublonStub.TRANSACTION_INIT).setResetRate(1);
+
+		try {
+			rublon.auth(CALLBACK_URL, "john.doe", "John.Doe@example.com");
+			fail("Reset connection should fail the transaction.");
+		} catch (ConnectionException e) {
+			// Expected, the request may have been processed
+		}
+		assertEquals(1, init.getRequestCount());
+		assertEquals(1, transport.getAttempts());
+	}
+
+	@Test
+	public void credentialsDoNotRetryConnectFailure() throws RublonException {
+		transport.setRedirects(1);
+
+		try {
+			rublon.getCredentials(ACCESS_TOKEN);
+			fail("Connect failure should fail the credentials request.");
+		} catch (ConnectionException e) {
+			assertTrue(e instanceof ConnectionException.ConnectFailedException);
+		}
+		assertEquals(1, transport.getAttempts());
+		assertEquals(0, stub.getMethod(RublonStub.TRANSACTION_CREDENTIALS).getRequestCount());
+	}
+
+	@Test
+	public void credentialsDoNotRetryServerError() throws RublonException {
+		StubMethod credentials = stub.getMethod(RublonStub.TRANSACTION_CREDENTIALS).setHttpError(503, 1);
+
+		try {
+			rublon.getCredentials(ACCESS_TOKEN);
+			fail("Service unavailable should fail the credentials request.");
+		} catch (APIException e) {
+			assertEquals(503, e.getResponse().getStatusCode());
+		}
+		assertEquals(1, credentials.getRequestCount());
+	}
+
+	@Test
+	public void checkApplicationRetriesServiceUnavailable() throws RublonException {
+		StubMethod appInit = stub.getMethod(RublonStub.APP_INIT).setHttpError(503, 1);
+
+		try {
+			rublon.checkApplication(null);
+			fail("Service unavailable should fail the configuration check.");
+		} catch (APIException e) {
+			assertEquals(503, e.getResponse().getStatusCode());
+		}
+		assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, appInit.getRequestCount());
+	}
+
+	@Test
+	public void checkApplicationRetriesServiceUnavailableAsync() throws Exception {
+		StubMethod appInit = stub.getMethod(RublonStub.APP_INIT).setHttpError(503, 1);
+
+		CompletableFuture<Void> future = rublon.checkApplicationAsync(null);
+		try {
+			future.join();
+			fail("Service unavailable should fail the configuration check.");
+		} catch (RuntimeException e) {
+			assertTrue(e.getCause() instanceof APIException);
+		}
+		assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS, appInit.getRequestCount());
+	}
+
+	@Test
+	public void checkApplicationRecoversAfterRetry() throws RublonException {
+		transport.setRedirects(2);
+
+		rublon.checkApplication(null);
+		assertEquals(3, transport.getAttempts());
+		assertEquals(1, stub.getMethod(RublonStub.APP_INIT).getRequestCount());
+	}
+
+	@Test
+	public void retriesStopWhenBudgetExhausted() throws RublonException {
+		RetryPolicy policy = new RetryPolicy().setInitialBackoff(1).setBudget(0, 2);
+		rublon.setRetryPolicy(policy);
+		StubMethod appInit = stub.getMethod(RublonStub.APP_INIT).setHttpError(503, 1);
+
+		for (int i = 0; i < 3; i++) {
+			try {
+				rublon.checkApplication(null);
+				fail("Service unavailable should fail the configuration check.");
+			} catch (APIException e) {
+				assertEquals(503, e.getResponse().getStatusCode());
+			}
+		}
+		// Both retries spent by the first call, the following ones are sent once
+		assertEquals(0, policy.getBudgetRetries());
+		assertEquals(RetryPolicy.DEFAULT_MAX_ATTEMPTS + 2, appInit.getRequestCount());
+	}
+
+	@Test
+	public void emptySecretKeyIsNotBypassed() throws IOException, RublonException {
+		try (Rublon unconfigured = new Rublon(SYSTEM_TOKEN, "", stub.getUrl())) {
+			unconfigured.setBypassPolicy(BypassPolicy.FAIL_OPEN);
+			try {
+				unconfigured.auth(CALLBACK_URL, "john.doe", "John.Doe@example.com");
+				fail("Empty secret key should fail the transaction.");
+			} catch (IllegalStateException e) {
+				// Expected, a configuration error is not bypassed
+			}
+		}
+		assertEquals(0, stub.getRequestCount());
+	}
+
+	@Test
+	public void emptySecretKeyFailsSigning() throws Exception {
+		RESTClient client = new RESTClient("", transport);
+		assertNull(client.getSigner());
+		try {
+			client.performRequest(stub.getUrl() + RublonStub.APP_INIT, new byte[0]);
+			fail("Request without the secret key should not be signed.");
+		} catch (IllegalStateException e) {
+			// Expected, a configuration error
+		}
+		try {
+			client.performRequestAsync(stub.getUrl() + RublonStub.APP_INIT, new byte[0]).join();
+			fail("Request without the secret key should not be signed.");
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertEquals(0, transport.getAttempts());
+	}
+
+	/**
+	 * Get a loopback port nobody listens on.
+	 */
+	static int getClosedPort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			return socket.getLocalPort();
+		}
+	}
+
+	/**
+	 * Transport sending the first attempts to a closed port, so they fail to connect.
+	 */
+	static class RedirectingTransport implements Transport {
+
+		private final Transport transport;
+
+		private final String url;
+
+		private final String closedUrl;
+
+		private final AtomicInteger redirects = new AtomicInteger();
+
+		private final AtomicInteger attempts = new AtomicInteger();
+
+		RedirectingTransport(Transport transport, String url, String closedUrl) {
+			this.transport = transport;
+			this.url = url;
+			this.closedUrl = closedUrl;
+		}
+
+		/**
+		 * Set number of the next attempts sent to the closed port.
+		 *
+		 * @param count
+		 */
+		void setRedirects(int count) {
+			redirects.set(count);
+		}
+
+		/**
+		 * Get number of all attempts.
+		 */
+		int getAttempts() {
+			return attempts.get();
+		}
+
+		@Override
+		public RESTResponse execute(RESTRequest request) throws ConnectionException {
+			return transport.execute(redirect(request));
+		}
+
+		@Override
+		public CompletableFuture<RESTResponse> executeAsync(RESTRequest request) {
+			return transport.executeAsync(redirect(request));
+		}
+
+		@Override
+		public void close() throws IOException {
+			transport.close();
+		}
+
+		private RESTRequest redirect(RESTRequest request) {
+			attempts.incrementAndGet();
+			if (redirects.getAndDecrement() > 0) {
+				return new RESTRequest(request.getUrl().replace(url, closedUrl), request.getHeaders(), request.getBody());
+			}
+			return request;
+		}
+
+	}
+
+}
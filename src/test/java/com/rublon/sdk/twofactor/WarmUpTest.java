@@ -0,0 +1,64 @@
+package com.rublon.sdk.twofactor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.rublon.sdk.core.rest.ApacheTransport;
+import com.rublon.sdk.stub.RublonStub;
+
+/**
+ * Warm-up of the connection pools against the in-process API stub.
+ *
+ * @author Rublon Developers
+ */
+public class WarmUpTest {
+
+	private RublonStub stub;
+
+	private Rublon rublon;
+
+	@Before
+	public void setUp() throws IOException {
+		stub = new RublonStub(RetryTest.SECRET_KEY).start();
+		rublon = new Rublon(RetryTest.SYSTEM_TOKEN, RetryTest.SECRET_KEY, stub.getUrl(), new ApacheTransport());
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		rublon.close();
+		stub.close();
+	}
+
+	@Test
+	public void warmUpOpensBothApachePools() throws Exception {
+		rublon.warmUp(2);
+		awaitConnections(4);
+
+		rublon.checkApplication(null);
+		rublon.checkApplicationAsync(null).get(5, TimeUnit.SECONDS);
+		assertEquals(4, stub.getConnectionCount());
+	}
+
+	/**
+	 * Wait until the stub has accepted given number of connections.
+	 *
+	 * @param count
+	 */
+	private void awaitConnections(long count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (stub.getConnectionCount() < count) {
+			if (System.nanoTime() - deadline >= 0) {
+				fail("Stub accepted " + stub.getConnectionCount() + " connections.");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.rublon.sdk.stub;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution interface.
+ * <p>
+ * The stub waits for the drawn latency before answering each request.
+ *
+ * @author Rublon Developers
+ */
+public interface Latency {
+
+	/**
+	 * No latency.
+	 */
+	Latency NONE = random -> 0;
+
+	/**
+	 * Draw the next latency.
+	 *
+	 * @param random Random source of the calling thread.
+	 * @return Latency in nanoseconds.
+	 */
+	long next(Random random);
+
+	/**
+	 * Constant latency.
+	 *
+	 * @param millis Latency in milliseconds.
+	 */
+	static Latency fixed(double millis) {
+		long nanos = toNanos(millis);
+		return random -> nanos;
+	}
+
+	/**
+	 * Latency uniformly distributed between given bounds.
+	 *
+	 * @param minMillis Minimum latency in milliseconds.
+	 * @param maxMillis Maximum latency in milliseconds.
+	 */
+	static Latency uniform(double minMillis, double maxMillis) {
+		if (minMillis < 0 || maxMillis < minMillis) {
+			throw new IllegalArgumentException("Invalid latency bounds: " + minMillis + ", " + maxMillis);
+		}
+		return random -> toNanos(minMillis + random.nextDouble() * (maxMillis - minMillis));
+	}
+
+	/**
+	 * Exponentially distributed latency.
+	 *
+	 * @param meanMillis Mean latency in milliseconds.
+	 */
+	static Latency exponential(double meanMillis) {
+		return random -> toNanos(-meanMillis * Math.log(1.0 - random.nextDouble()));
+	}
+
+	/**
+	 * Log-normally distributed latency, the usual shape of the service latencies.
+	 * <p>
+	 * The 99th percentile is about median * exp(2.33 * sigma), e.g. 10x the median for sigma 1.
+	 *
+	 * @param medianMillis Median latency in milliseconds.
+	 * @param sigma Standard deviation of the latency logarithm.
+	 */
+	static Latency logNormal(double medianMillis, double sigma) {
+		return random -> toNanos(medianMillis * Math.exp(sigma * random.nextGaussian()));
+	}
+
+	/**
+	 * Latency drawn from the tail distribution at given rate, from the base distribution otherwise.
+	 * <p>
+	 * Models the occasional stalls, e.g. the GC pauses or the slow replicas.
+	 *
+	 * @param rate Rate of the tail latencies from 0 to 1.
+	 * @param tail Tail distribution.
+	 * @param base Base distribution.
+	 */
+	static Latency mixture(double rate, Latency tail, Latency base) {
+		return random -> (random.nextDouble() < rate ? tail : base).next(random);
+	}
+
+	/**
+	 * Convert milliseconds to nanoseconds.
+	 *
+	 * @param millis Non-negative time in milliseconds.
+	 */
+	static long toNanos(double millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("Negative latency: " + millis);
+		}
+		return (long) (millis * TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+}
@@ -0,0 +1,810 @@
+package com.rublon.sdk.stub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.net.ssl.SSLContext;
+
+import org.json.JSONObject;
+
+import com.rublon.sdk.core.Codec;
+import com.rublon.sdk.core.HmacSigner;
+import com.rublon.sdk.core.exception.APIException;
+import com.rublon.sdk.core.rest.RESTClient;
+
+/**
+ * In-process Rublon API stub server.
+ * <p>
+ * Serves transaction/init, transaction/credentials and app/init over HTTP/1.1 with
+ * keep-alive, verifies the request signatures and signs the responses by the secret key
+ * exactly as the API does, so the SDK accepts them. Each method's latency and faults
+ * are configured by its {@link StubMethod}: the API exceptions, the HTTP errors,
+ * the connection resets and the slow-drip responses.
+ * <p>
+ * Every connection is served by its own thread, the latency does not limit the throughput
+ * of the other connections. Usage:
+ * <pre>
+ * try (RublonStub stub = new RublonStub(secretKey).setLatency(Latency.logNormal(20, 0.5)).start()) {
+ *     stub.getMethod(RublonStub.TRANSACTION_CREDENTIALS).setError("UserNotFoundException", 0.01);
+ *     Rublon rublon = new Rublon(systemToken, secretKey, stub.getUrl());
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Rublon Developers
+ */
+public class RublonStub implements Closeable {
+
+	/**
+	 * Path of the transaction/init method.
+	 */
+	public static final String TRANSACTION_INIT = "/api/transaction/init";
+
+	/**
+	 * Path of the transaction/credentials method.
+	 */
+	public static final String TRANSACTION_CREDENTIALS = "/api/transaction/credentials";
+
+	/**
+	 * Path of the app/init method.
+	 */
+	public static final String APP_INIT = "/api/app/init";
+
+	/**
+	 * Default result of transaction/init.
+	 */
+	public static final String DEFAULT_INIT_RESULT = "{\"webURI\":"
+			+ "\"https://core.rublon.net/transaction/a1b2c3d4e5f6a7b8c9d0e1f2a3b4c5d6e7f8a9b0c1d2e3f4a5b6c7d8e9f0\"}";
+
+	/**
+	 * Default result of transaction/credentials.
+	 */
+	public static final String DEFAULT_CREDENTIALS_RESULT = "{\"username\":\"john.doe\","
+			+ "\"appId\":\"1A2B3C4D5E6F7A8B9C0D1E2F3A4B5C6D\",\"deviceId\":\"7311\",\"answer\":\"true\"}";
+
+	/**
+	 * Default result of app/init.
+	 */
+	public static final String DEFAULT_APP_INIT_RESULT = "{\"appName\":\"Rublon Stub\"}";
+
+	/**
+	 * Message of the injected API exceptions.
+	 */
+	public static final String ERROR_MESSAGE = "Injected by the Rublon stub.";
+
+	/**
+	 * Maximum size of the request head and body in bytes.
+	 */
+	static final int MAX_REQUEST_SIZE = 1 << 20;
+
+	/**
+	 * Secret key of the responses and the requests.
+	 */
+	protected final String secretKey;
+
+	/**
+	 * Signer of the responses and the requests.
+	 */
+	private final HmacSigner signer;
+
+	/**
+	 * Methods by the request path.
+	 */
+	private final Map<String, StubMethod> methods;
+
+	/**
+	 * Signed successful response bodies by the result.
+	 */
+	private final ConcurrentMap<String, Body> resultBodies = new ConcurrentHashMap<String, Body>();
+
+	/**
+	 * Signed error response bodies by the exception name.
+	 */
+	private final ConcurrentMap<String, Body> errorBodies = new ConcurrentHashMap<String, Body>();
+
+	/**
+	 * Signed response body of the requests with an invalid signature.
+	 */
+	private final Body invalidSignatureBody;
+
+	/**
+	 * Open connections.
+	 */
+	private final Set<Socket> connections = Collections.newSetFromMap(new ConcurrentHashMap<Socket, Boolean>());
+
+	/**
+	 * Number of the accepted connections.
+	 */
+	private final LongAdder connectionCount = new LongAdder();
+
+	/**
+	 * SSL context of the HTTPS server or null to serve HTTP.
+	 */
+	protected SSLContext sslContext;
+
+	/**
+	 * Listening port, 0 for any free port.
+	 */
+	protected int port;
+
+	/**
+	 * Server socket, null until started.
+	 */
+	private volatile ServerSocket serverSocket;
+
+	/**
+	 * Executor of the acceptor and the connections.
+	 */
+	private ExecutorService executor;
+
+	/**
+	 * Create the stub of the API with given secret key.
+	 *
+	 * @param secretKey
+	 */
+	public RublonStub(String secretKey) {
+		this.secretKey = secretKey;
+		try {
+			this.signer = new HmacSigner(RESTClient.SIGNATURE_HASH_METHOD, secretKey);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalArgumentException("Invalid secret key.", e);
+		}
+		this.invalidSignatureBody = createErrorBody("InvalidSignatureException", "Invalid request signature.");
+		Map<String, StubMethod> methods = new LinkedHashMap<String, StubMethod>();
+		methods.put(TRANSACTION_INIT, new StubMethod(TRANSACTION_INIT, DEFAULT_INIT_RESULT));
+		methods.put(TRANSACTION_CREDENTIALS, new StubMethod(TRANSACTION_CREDENTIALS, DEFAULT_CREDENTIALS_RESULT));
+		methods.put(APP_INIT, new StubMethod(APP_INIT, DEFAULT_APP_INIT_RESULT));
+		this.methods = Collections.unmodifiableMap(methods);
+	}
+
+	/**
+	 * Get the method by its request path.
+	 *
+	 * @param path Request path, e.g. {@link #TRANSACTION_INIT}.
+	 * @return Method or null if not served.
+	 */
+	public StubMethod getMethod(String path) {
+		return methods.get(path);
+	}
+
+	/**
+	 * Get all served methods.
+	 */
+	public Collection<StubMethod> getMethods() {
+		return methods.values();
+	}
+
+	/**
+	 * Set the latency distribution of all methods.
+	 *
+	 * @param latency
+	 * @return RublonStub
+	 */
+	public RublonStub setLatency(Latency latency) {
+		for (StubMethod method : methods.values()) {
+			method.setLatency(latency);
+		}
+		return this;
+	}
+
+	/**
+	 * Set rate of the API exceptions of given name in all methods.
+	 *
+	 * @param exception Exception name returned by the API, e.g. "UserNotFoundException".
+	 * @param rate Rate from 0 to 1.
+	 * @return RublonStub
+	 * @see StubMethod#setError(String, double)
+	 */
+	public RublonStub setError(String exception, double rate) {
+		for (StubMethod method : methods.values()) {
+			method.setError(exception, rate);
+		}
+		return this;
+	}
+
+	/**
+	 * Set rate of the HTTP error responses of given status in all methods.
+	 *
+	 * @param status HTTP status code.
+	 * @param rate Rate from 0 to 1.
+	 * @return RublonStub
+	 * @see StubMethod#setHttpError(int, double)
+	 */
+	public RublonStub setHttpError(int status, double rate) {
+		for (StubMethod method : methods.values()) {
+			method.setHttpError(status, rate);
+		}
+		return this;
+	}
+
+	/**
+	 * Set rate of the connection resets in all methods.
+	 *
+	 * @param rate Rate from 0 to 1.
+	 * @return RublonStub
+	 * @see StubMethod#setResetRate(double)
+	 */
+	public RublonStub setResetRate(double rate) {
+		for (StubMethod method : methods.values()) {
+			method.setResetRate(rate);
+		}
+		return this;
+	}
+
+	/**
+	 * Set the slow-drip responses of all methods.
+	 *
+	 * @param rate Rate from 0 to 1.
+	 * @param chunkSize Size of the chunks in bytes.
+	 * @param interval Interval between the chunks in milliseconds.
+	 * @return RublonStub
+	 * @see StubMethod#setDrip(double, int, long)
+	 */
+	public RublonStub setDrip(double rate, int chunkSize, long interval) {
+		for (StubMethod method : methods.values()) {
+			method.setDrip(rate, chunkSize, interval);
+		}
+		return this;
+	}
+
+	/**
+	 * Remove the faults of all methods.
+	 *
+	 * @return RublonStub
+	 */
+	public RublonStub clearFaults() {
+		for (StubMethod method : methods.values()) {
+			method.clearFaults();
+		}
+		return this;
+	}
+
+	/**
+	 * Serve HTTPS with given SSL context, must be set before the start.
+	 *
+	 * @param sslContext SSL context with the server's key, null to serve HTTP.
+	 * @return RublonStub
+	 */
+	public RublonStub setSSLContext(SSLContext sslContext) {
+		this.sslContext = sslContext;
+		return this;
+	}
+
+	/**
+	 * Set the listening port, must be set before the start.
+	 *
+	 * @param port Port or 0 for any free port.
+	 * @return RublonStub
+	 */
+	public RublonStub setPort(int port) {
+		this.port = port;
+		return this;
+	}
+
+	/**
+	 * Start listening on the loopback interface.
+	 *
+	 * @return RublonStub
+	 * @throws IOException When the port cannot be bound.
+	 */
+	public synchronized RublonStub start() throws IOException {
+		if (serverSocket != null) {
+			throw new IllegalStateException("Stub already started.");
+		}
+		ServerSocket socket = (sslContext != null ? sslContext.getServerSocketFactory().createServerSocket() : new ServerSocket());
+		socket.setReuseAddress(true);
+		socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "rublon-stub");
+			thread.setDaemon(true);
+			return thread;
+		});
+		serverSocket = socket;
+		executor.execute(() -> accept(socket));
+		return this;
+	}
+
+	/**
+	 * Get the API server URL of the stub.
+	 */
+	public String getUrl() {
+		return (sslContext != null ? "https" : "http") + "://" + InetAddress.getLoopbackAddress().getHostAddress()
+				+ ":" + getPort();
+	}
+
+	/**
+	 * Get the listening port.
+	 */
+	public int getPort() {
+		ServerSocket socket = serverSocket;
+		if (socket == null) {
+			throw new IllegalStateException("Stub not started.");
+		}
+		return socket.getLocalPort();
+	}
+
+	/**
+	 * Get number of the accepted connections.
+	 */
+	public long getConnectionCount() {
+		return connectionCount.sum();
+	}
+
+	/**
+	 * Get number of the received requests of all methods.
+	 */
+	public long getRequestCount() {
+		long count = 0;
+		for (StubMethod method : methods.values()) {
+			count += method.getRequestCount();
+		}
+		return count;
+	}
+
+	/**
+	 * Stop the stub and close all connections.
+	 */
+	@Override
+	public synchronized void close() {
+		ServerSocket socket = serverSocket;
+		if (socket == null) {
+			return;
+		}
+		closeQuietly(socket);
+		for (Socket connection : connections) {
+			closeQuietly(connection);
+		}
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Accept the connections until the stub is closed.
+	 *
+	 * @param socket Server socket.
+	 */
+	private void accept(ServerSocket socket) {
+		while (!socket.isClosed()) {
+			try {
+				Socket connection = socket.accept();
+				connectionCount.increment();
+				connections.add(connection);
+				executor.execute(() -> serve(connection));
+			} catch (IOException e) {
+				// Closed or failed to accept, the client sees the connection error
+			} catch (RuntimeException e) {
+				// Executor shut down
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Serve the requests of the connection until closed.
+	 *
+	 * @param connection Client connection.
+	 */
+	private void serve(Socket connection) {
+		try {
+			connection.setTcpNoDelay(true);
+			InputStream input = new BufferedInputStream(connection.getInputStream());
+			OutputStream output = new BufferedOutputStream(connection.getOutputStream());
+			Request request;
+			while ((request = readRequest(input, output)) != null) {
+				if (!respond(connection, request, output)) {
+					break;
+				}
+			}
+		} catch (IOException e) {
+			// Connection closed by the client or reset by the stub
+		} finally {
+			connections.remove(connection);
+			closeQuietly(connection);
+		}
+	}
+
+	/**
+	 * Answer the request.
+	 *
+	 * @param connection Client connection.
+	 * @param request Parsed request.
+	 * @param output Connection output.
+	 * @return Whether to keep the connection alive.
+	 * @throws IOException
+	 */
+	private boolean respond(Socket connection, Request request, OutputStream output) throws IOException {
+		StubMethod method = methods.get(request.path);
+		if (method == null) {
+			writeResponse(output, 404, null, request.keepAlive, null);
+			return request.keepAlive;
+		}
+		if (!"POST".equals(request.method)) {
+			writeResponse(output, 405, null, request.keepAlive, null);
+			return request.keepAlive;
+		}
+
+		Random random = ThreadLocalRandom.current();
+		StubMethod.Fault fault = method.nextFault(random);
+		sleep(method.latency.next(random));
+
+		Body body;
+		int status;
+		if (fault != null && fault.kind == StubMethod.Fault.Kind.RESET) {
+			connection.setSoLinger(true, 0);
+			connection.close();
+			return false;
+		} else if (fault != null && fault.kind == StubMethod.Fault.Kind.HTTP_ERROR) {
+			status = fault.status;
+			body = null;
+		} else if (fault != null) {
+			status = fault.status;
+			body = getErrorBody(fault.exception);
+		} else if (!isSigned(request)) {
+			method.count(StubMethod.Fault.Kind.API_ERROR);
+			status = 400;
+			body = invalidSignatureBody;
+		} else {
+			status = 200;
+			body = getResultBody(method.result);
+		}
+		writeResponse(output, status, body, request.keepAlive, (method.nextDrip(random) ? method : null));
+		return request.keepAlive;
+	}
+
+	/**
+	 * Check the request signature.
+	 *
+	 * @param request
+	 */
+	private boolean isSigned(Request request) {
+		String signature = request.headers.get(RESTClient.HEADER_NAME_SIGNATURE.toLowerCase(Locale.ROOT));
+		return (signature != null && signer.verify(request.body, 0, request.body.length, signature));
+	}
+
+	/**
+	 * Get the successful response body of given result.
+	 *
+	 * @param result JSON of the result field.
+	 */
+	private Body getResultBody(String result) {
+		Body body = resultBodies.get(result);
+		if (body == null) {
+			if (resultBodies.size() > 64) {
+				resultBodies.clear();
+			}
+			body = sign("{\"status\":\"OK\",\"result\":" + result + "}");
+			resultBodies.put(result, body);
+		}
+		return body;
+	}
+
+	/**
+	 * Get the error response body of given API exception.
+	 *
+	 * @param exception Exception name returned by the API.
+	 */
+	private Body getErrorBody(String exception) {
+		return errorBodies.computeIfAbsent(exception, name -> createErrorBody(name, ERROR_MESSAGE));
+	}
+
+	/**
+	 * Create the error response body.
+	 *
+	 * @param exception Exception name returned by the API.
+	 * @param message Error message.
+	 */
+	private Body createErrorBody(String exception, String message) {
+		JSONObject result = new JSONObject();
+		result.put(APIException.FIELD_EXCEPTION, exception);
+		result.put(APIException.FIELD_MESSAGE, message);
+		if (exception.startsWith("Missing")) {
+			result.put(APIException.FIELD_ITEM_NAME, "stub");
+		}
+		JSONObject response = new JSONObject();
+		response.put("status", "ERROR");
+		response.put("code", 400);
+		response.put("result", result);
+		return sign(response.toString());
+	}
+
+	/**
+	 * Sign the response body.
+	 *
+	 * @param body Response body.
+	 */
+	private Body sign(String body) {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		return new Body(bytes, Codec.hex_encode(signer.sign(bytes)));
+	}
+
+	/**
+	 * Write the response.
+	 *
+	 * @param output Connection output.
+	 * @param status HTTP status code.
+	 * @param body Signed response body or null if empty.
+	 * @param keepAlive Whether to keep the connection alive.
+	 * @param drip Method of the slow-drip response or null to send at once.
+	 * @throws IOException
+	 */
+	private static void writeResponse(OutputStream output, int status, Body body, boolean keepAlive,
+			StubMethod drip) throws IOException {
+		StringBuilder head = new StringBuilder(256);
+		head.append("HTTP/1.1 ").append(status).append(' ').append(getReason(status)).append("\r\n");
+		head.append("Content-Type: application/json; charset=UTF-8\r\n");
+		head.append("Content-Length: ").append(body != null ? body.bytes.length : 0).append("\r\n");
+		if (body != null) {
+			head.append(RESTClient.HEADER_NAME_SIGNATURE).append(": ").append(body.signature).append("\r\n");
+		}
+		if (!keepAlive) {
+			head.append("Connection: close\r\n");
+		}
+		head.append("\r\n");
+		ByteArrayOutputStream response = new ByteArrayOutputStream(head.length() + (body != null ? body.bytes.length : 0));
+		byte[] headBytes = head.toString().getBytes(StandardCharsets.ISO_8859_1);
+		response.write(headBytes, 0, headBytes.length);
+		if (body != null) {
+			response.write(body.bytes, 0, body.bytes.length);
+		}
+		byte[] bytes = response.toByteArray();
+		if (drip == null) {
+			output.write(bytes);
+			output.flush();
+		} else {
+			int chunkSize = drip.dripChunkSize;
+			long interval = TimeUnit.MILLISECONDS.toNanos(drip.dripInterval);
+			for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+				output.write(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+				output.flush();
+				sleep(interval);
+			}
+		}
+	}
+
+	/**
+	 * Read the next request of the connection.
+	 *
+	 * @param input Connection input.
+	 * @param output Connection output, for the 100-continue response.
+	 * @return Request or null if the connection has been closed.
+	 * @throws IOException When the request is malformed or the connection failed.
+	 */
+	private static Request readRequest(InputStream input, OutputStream output) throws IOException {
+		String requestLine = readLine(input);
+		while (requestLine != null && requestLine.isEmpty()) {
+			requestLine = readLine(input);
+		}
+		if (requestLine == null) {
+			return null;
+		}
+		String[] parts = requestLine.split(" ");
+		if (parts.length != 3) {
+			throw new IOException("Malformed request line: " + requestLine);
+		}
+		Map<String, String> headers = new HashMap<String, String>();
+		String line;
+		while ((line = readLine(input)) != null && !line.isEmpty()) {
+			int colon = line.indexOf(':');
+			if (colon > 0) {
+				headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+			}
+		}
+		if (line == null) {
+			throw new EOFException("Incomplete request head.");
+		}
+		if ("100-continue".equalsIgnoreCase(headers.get("expect"))) {
+			output.write("HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+			output.flush();
+		}
+		byte[] body;
+		if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+			body = readChunked(input);
+		} else {
+			String length = headers.get("content-length");
+			body = readFully(input, (length != null ? Integer.parseInt(length) : 0));
+		}
+		String connection = headers.get("connection");
+		boolean keepAlive = (parts[2].equals("HTTP/1.1")
+				? !"close".equalsIgnoreCase(connection) : "keep-alive".equalsIgnoreCase(connection));
+		String path = parts[1];
+		int query = path.indexOf('?');
+		return new Request(parts[0], (query >= 0 ? path.substring(0, query) : path), headers, body, keepAlive);
+	}
+
+	/**
+	 * Read the chunked request body.
+	 *
+	 * @param input Connection input.
+	 * @throws IOException
+	 */
+	private static byte[] readChunked(InputStream input) throws IOException {
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		while (true) {
+			String line = readLine(input);
+			if (line == null) {
+				throw new EOFException("Incomplete chunked body.");
+			}
+			int extension = line.indexOf(';');
+			int size = Integer.parseInt((extension >= 0 ? line.substring(0, extension) : line).trim(), 16);
+			if (size == 0) {
+				while ((line = readLine(input)) != null && !line.isEmpty()) {
+					// Trailers
+				}
+				return body.toByteArray();
+			}
+			if (body.size() + size > MAX_REQUEST_SIZE) {
+				throw new IOException("Request body too large.");
+			}
+			byte[] chunk = readFully(input, size);
+			body.write(chunk, 0, chunk.length);
+			readLine(input);
+		}
+	}
+
+	/**
+	 * Read given number of bytes.
+	 *
+	 * @param input Connection input.
+	 * @param length Number of bytes.
+	 * @throws IOException
+	 */
+	private static byte[] readFully(InputStream input, int length) throws IOException {
+		if (length < 0 || length > MAX_REQUEST_SIZE) {
+			throw new IOException("Invalid request body length: " + length);
+		}
+		byte[] bytes = new byte[length];
+		int offset = 0;
+		while (offset < length) {
+			int read = input.read(bytes, offset, length - offset);
+			if (read < 0) {
+				throw new EOFException("Incomplete request body.");
+			}
+			offset += read;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Read the CRLF terminated line.
+	 *
+	 * @param input Connection input.
+	 * @return Line or null if the stream ended before any byte.
+	 * @throws IOException
+	 */
+	private static String readLine(InputStream input) throws IOException {
+		StringBuilder line = new StringBuilder();
+		int read;
+		while ((read = input.read()) >= 0) {
+			if (read == '\n') {
+				int length = line.length();
+				if (length > 0 && line.charAt(length - 1) == '\r') {
+					line.setLength(length - 1);
+				}
+				return line.toString();
+			}
+			if (line.length() >= MAX_REQUEST_SIZE) {
+				throw new IOException("Request line too long.");
+			}
+			line.append((char) read);
+		}
+		if (line.length() > 0) {
+			throw new EOFException("Incomplete request line.");
+		}
+		return null;
+	}
+
+	/**
+	 * Get the reason phrase of the HTTP status.
+	 *
+	 * @param status
+	 */
+	private static String getReason(int status) {
+		switch (status) {
+			case 200: return "OK";
+			case 400: return "Bad Request";
+			case 404: return "Not Found";
+			case 405: return "Method Not Allowed";
+			case 429: return "Too Many Requests";
+			case 500: return "Internal Server Error";
+			case 502: return "Bad Gateway";
+			case 503: return "Service Unavailable";
+			case 504: return "Gateway Timeout";
+			default: return "Error";
+		}
+	}
+
+	/**
+	 * Wait for given time, ignoring the spurious wakeups.
+	 *
+	 * @param nanos Time in nanoseconds.
+	 */
+	private static void sleep(long nanos) {
+		long deadline = System.nanoTime() + nanos;
+		while (nanos > 0 && !Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(nanos);
+			nanos = deadline - System.nanoTime();
+		}
+	}
+
+	/**
+	 * Close the socket ignoring the errors.
+	 *
+	 * @param socket
+	 */
+	private static void closeQuietly(Closeable socket) {
+		try {
+			socket.close();
+		} catch (IOException e) {
+			// Already closed
+		}
+	}
+
+	/**
+	 * Signed response body.
+	 */
+	private static final class Body {
+
+		final byte[] bytes;
+
+		final String signature;
+
+		Body(byte[] bytes, String signature) {
+			this.bytes = bytes;
+			this.signature = signature;
+		}
+
+	}
+
+	/**
+	 * Parsed HTTP request.
+	 */
+	private static final class Request {
+
+		final String method;
+
+		final String path;
+
+		final Map<String, String> headers;
+
+		final byte[] body;
+
+		final boolean keepAlive;
+
+		Request(String method, String path, Map<String, String> headers, byte[] body, boolean keepAlive) {
+			this.method = method;
+			this.path = path;
+			this.headers = headers;
+			this.body = body;
+			this.keepAlive = keepAlive;
+		}
+
+	}
+
+}
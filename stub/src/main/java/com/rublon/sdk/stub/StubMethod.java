@@ -0,0 +1,395 @@
+package com.rublon.sdk.stub;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stub API method class.
+ * <p>
+ * Behavior of one API method of the {@link RublonStub}: the result of the successful
+ * responses, the latency distribution and the injected faults. Settings may be changed
+ * while the stub is running, e.g. to start failing the method in the middle of a test.
+ * <p>
+ * The fault rates are probabilities from 0 to 1 of a request ending with given fault,
+ * their sum must not exceed 1.
+ *
+ * @author Rublon Developers
+ */
+public class StubMethod {
+
+	/**
+	 * Request path.
+	 */
+	protected final String path;
+
+	/**
+	 * JSON of the successful response's result field.
+	 */
+	protected volatile String result;
+
+	/**
+	 * Latency distribution.
+	 */
+	protected volatile Latency latency = Latency.NONE;
+
+	/**
+	 * Injected faults.
+	 */
+	private volatile Fault[] faults = new Fault[0];
+
+	/**
+	 * Rate of the slow-drip responses.
+	 */
+	protected volatile double dripRate;
+
+	/**
+	 * Size of the slow-drip response chunks in bytes.
+	 */
+	protected volatile int dripChunkSize = 1;
+
+	/**
+	 * Interval between the slow-drip response chunks in milliseconds.
+	 */
+	protected volatile long dripInterval;
+
+	/**
+	 * Number of the received requests.
+	 */
+	private final LongAdder requests = new LongAdder();
+
+	/**
+	 * Number of the connection resets.
+	 */
+	private final LongAdder resets = new LongAdder();
+
+	/**
+	 * Number of the HTTP error responses.
+	 */
+	private final LongAdder httpErrors = new LongAdder();
+
+	/**
+	 * Number of the API exception responses.
+	 */
+	private final LongAdder apiErrors = new LongAdder();
+
+	/**
+	 * Number of the slow-drip responses.
+	 */
+	private final LongAdder drips = new LongAdder();
+
+	/**
+	 * Create the method.
+	 *
+	 * @param path Request path.
+	 * @param result JSON of the successful response's result field.
+	 */
+	public StubMethod(String path, String result) {
+		this.path = path;
+		this.result = result;
+	}
+
+	/**
+	 * Get the request path.
+	 */
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * Get JSON of the successful response's result field.
+	 */
+	public String getResult() {
+		return result;
+	}
+
+	/**
+	 * Set JSON of the successful response's result field.
+	 *
+	 * @param result
+	 * @return StubMethod
+	 */
+	public StubMethod setResult(String result) {
+		this.result = result;
+		return this;
+	}
+
+	/**
+	 * Get the latency distribution.
+	 */
+	public Latency getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Set the latency distribution.
+	 *
+	 * @param latency
+	 * @return StubMethod
+	 */
+	public StubMethod setLatency(Latency latency) {
+		this.latency = (latency != null ? latency : Latency.NONE);
+		return this;
+	}
+
+	/**
+	 * Set rate of the API exceptions of given name.
+	 * <p>
+	 * The exception is returned as the API does: an HTTP 400 response with the ERROR status
+	 * and the exception name and message in the result.
+	 *
+	 * @param exception Exception name returned by the API, e.g. "UserNotFoundException".
+	 * @param rate Rate from 0 to 1, 0 removes the fault.
+	 * @return StubMethod
+	 */
+	public StubMethod setError(String exception, double rate) {
+		return setFault(new Fault(Fault.Kind.API_ERROR, 400, exception, rate));
+	}
+
+	/**
+	 * Set rate of the HTTP error responses of given status, e.g. 503.
+	 * <p>
+	 * The error responses have an empty body and no signature.
+	 *
+	 * @param status HTTP status code.
+	 * @param rate Rate from 0 to 1, 0 removes the fault.
+	 * @return StubMethod
+	 */
+	public StubMethod setHttpError(int status, double rate) {
+		return setFault(new Fault(Fault.Kind.HTTP_ERROR, status, null, rate));
+	}
+
+	/**
+	 * Set rate of the connection resets.
+	 * <p>
+	 * The connection is reset after the request has been read, so the client fails
+	 * without knowing whether the request has been processed.
+	 *
+	 * @param rate Rate from 0 to 1, 0 removes the fault.
+	 * @return StubMethod
+	 */
+	public StubMethod setResetRate(double rate) {
+		return setFault(new Fault(Fault.Kind.RESET, 0, null, rate));
+	}
+
+	/**
+	 * Remove all injected faults and slow-drip responses.
+	 *
+	 * @return StubMethod
+	 */
+	public synchronized StubMethod clearFaults() {
+		faults = new Fault[0];
+		dripRate = 0;
+		return this;
+	}
+
+	/**
+	 * Set the slow-drip responses.
+	 * <p>
+	 * The response, including its headers, is sent in chunks of given size, each after
+	 * given interval. Applies to any response, successful or not.
+	 *
+	 * @param rate Rate from 0 to 1, 0 disables the slow-drip responses.
+	 * @param chunkSize Size of the chunks in bytes.
+	 * @param interval Interval between the chunks in milliseconds.
+	 * @return StubMethod
+	 */
+	public StubMethod setDrip(double rate, int chunkSize, long interval) {
+		if (rate < 0 || rate > 1 || chunkSize < 1 || interval < 0) {
+			throw new IllegalArgumentException("Invalid slow-drip settings: " + rate + ", " + chunkSize + ", " + interval);
+		}
+		this.dripChunkSize = chunkSize;
+		this.dripInterval = interval;
+		this.dripRate = rate;
+		return this;
+	}
+
+	/**
+	 * Get rate of the slow-drip responses.
+	 */
+	public double getDripRate() {
+		return dripRate;
+	}
+
+	/**
+	 * Get number of the received requests.
+	 */
+	public long getRequestCount() {
+		return requests.sum();
+	}
+
+	/**
+	 * Get number of the connection resets.
+	 */
+	public long getResetCount() {
+		return resets.sum();
+	}
+
+	/**
+	 * Get number of the HTTP error responses.
+	 */
+	public long getHttpErrorCount() {
+		return httpErrors.sum();
+	}
+
+	/**
+	 * Get number of the API exception responses, including the invalid request signatures.
+	 */
+	public long getErrorCount() {
+		return apiErrors.sum();
+	}
+
+	/**
+	 * Get number of the slow-drip responses.
+	 */
+	public long getDripCount() {
+		return drips.sum();
+	}
+
+	/**
+	 * Reset the counters.
+	 */
+	public void resetCounts() {
+		requests.reset();
+		resets.reset();
+		httpErrors.reset();
+		apiErrors.reset();
+		drips.reset();
+	}
+
+	/**
+	 * Replace the fault of the same kind and target.
+	 *
+	 * @param fault
+	 * @return StubMethod
+	 */
+	private synchronized StubMethod setFault(Fault fault) {
+		if (fault.rate < 0 || fault.rate > 1) {
+			throw new IllegalArgumentException("Invalid fault rate: " + fault.rate);
+		}
+		List<Fault> updated = new ArrayList<Fault>();
+		double total = fault.rate;
+		for (Fault current : faults) {
+			if (!current.isSame(fault)) {
+				updated.add(current);
+				total += current.rate;
+			}
+		}
+		if (total > 1) {
+			throw new IllegalArgumentException("Fault rates of " + path + " exceed 1: " + total);
+		}
+		if (fault.rate > 0) {
+			updated.add(fault);
+		}
+		faults = updated.toArray(new Fault[updated.size()]);
+		return this;
+	}
+
+	/**
+	 * Count the request and draw its fault.
+	 *
+	 * @param random Random source of the calling thread.
+	 * @return Fault or null to answer normally.
+	 */
+	Fault nextFault(Random random) {
+		requests.increment();
+		Fault[] current = faults;
+		if (current.length == 0) {
+			return null;
+		}
+		double draw = random.nextDouble();
+		double bound = 0;
+		for (Fault fault : current) {
+			bound += fault.rate;
+			if (draw < bound) {
+				count(fault.kind);
+				return fault;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Check whether the response should be sent slowly.
+	 *
+	 * @param random Random source of the calling thread.
+	 */
+	boolean nextDrip(Random random) {
+		double rate = dripRate;
+		if (rate > 0 && random.nextDouble() < rate) {
+			drips.increment();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Count the fault.
+	 *
+	 * @param kind Fault kind.
+	 */
+	void count(Fault.Kind kind) {
+		switch (kind) {
+			case RESET:
+				resets.increment();
+				break;
+			case HTTP_ERROR:
+				httpErrors.increment();
+				break;
+			case API_ERROR:
+				apiErrors.increment();
+				break;
+		}
+	}
+
+	/**
+	 * Injected fault.
+	 */
+	static final class Fault {
+
+		/**
+		 * Fault kind.
+		 */
+		enum Kind {RESET, HTTP_ERROR, API_ERROR}
+
+		/**
+		 * Fault kind.
+		 */
+		final Kind kind;
+
+		/**
+		 * HTTP status code of the response.
+		 */
+		final int status;
+
+		/**
+		 * API exception name.
+		 */
+		final String exception;
+
+		/**
+		 * Rate from 0 to 1.
+		 */
+		final double rate;
+
+		Fault(Kind kind, int status, String exception, double rate) {
+			this.kind = kind;
+			this.status = status;
+			this.exception = exception;
+			this.rate = rate;
+		}
+
+		/**
+		 * Check whether both faults have the same kind and target.
+		 *
+		 * @param other
+		 */
+		boolean isSame(Fault other) {
+			return (kind == other.kind && status == other.status
+					&& (exception == null ? other.exception == null : exception.equals(other.exception)));
+		}
+
+	}
+
+}